@@ -5,10 +5,20 @@ const API_BASE_URL = import.meta.env.VITE_API_BASE_URL || 'http://localhost:8080
 
 export const api = {
   // Songs
+  // The catalog is served in keyset pages; follow nextCursor until the last one
   getSongs: async (): Promise<Song[]> => {
-    const response = await fetch(`${API_BASE_URL}/api/songs`);
-    if (!response.ok) throw new Error('Failed to fetch songs');
-    return response.json();
+    const songs: Song[] = [];
+    let cursor: string | null = null;
+    do {
+      const params = new URLSearchParams({ limit: '200' });
+      if (cursor) params.set('cursor', cursor);
+      const response = await fetch(`${API_BASE_URL}/api/songs?${params}`);
+      if (!response.ok) throw new Error('Failed to fetch songs');
+      const page: { items: Song[]; nextCursor: string | null; hasMore: boolean } = await response.json();
+      songs.push(...page.items);
+      cursor = page.hasMore ? page.nextCursor : null;
+    } while (cursor);
+    return songs;
   },
 
   searchSongs: async (query: string): Promise<Song[]> => {
@@ -0,0 +1,26 @@
+package com.sahil.musicplayer.audio;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AudioInfo {
+    private long durationMs;
+    private int bitrateKbps;
+    private int sampleRate;
+    private int channels;
+    private boolean vbr;
+    private long frameCount;
+
+    // ID3v2 tags, null when absent
+    private String title;
+    private String artist;
+    private String album;
+    private String genre;
+    private Integer year;
+}
@@ -0,0 +1,34 @@
+package com.sahil.musicplayer.audio;
+
+import java.util.List;
+import java.util.Locale;
+
+// VOD media playlist whose segments are byte ranges of the original MP3, so nothing is re-encoded
+// or copied and each segment is an independently cacheable range request.
+public final class HlsPlaylist {
+
+    public static final String CONTENT_TYPE = "application/vnd.apple.mpegurl";
+
+    private HlsPlaylist() {
+    }
+
+    public static String render(SeekIndex index, double segmentSeconds, String mediaUri) {
+        List<SeekIndex.Segment> segments = index.segments(segmentSeconds);
+        double longest = segments.stream().mapToDouble(SeekIndex.Segment::durationSeconds).max().orElse(0);
+
+        StringBuilder playlist = new StringBuilder(64 + segments.size() * (mediaUri.length() + 48));
+        playlist.append("#EXTM3U\n")
+                // Version 4 introduced EXT-X-BYTERANGE
+                .append("#EXT-X-VERSION:4\n")
+                .append("#EXT-X-PLAYLIST-TYPE:VOD\n")
+                .append("#EXT-X-TARGETDURATION:").append((int) Math.ceil(longest)).append('\n')
+                .append("#EXT-X-MEDIA-SEQUENCE:0\n");
+        for (SeekIndex.Segment segment : segments) {
+            playlist.append("#EXTINF:").append(String.format(Locale.ROOT, "%.3f", segment.durationSeconds())).append(",\n")
+                    .append("#EXT-X-BYTERANGE:").append(segment.length()).append('@').append(segment.offset()).append('\n')
+                    .append(mediaUri).append('\n');
+        }
+        playlist.append("#EXT-X-ENDLIST\n");
+        return playlist.toString();
+    }
+}
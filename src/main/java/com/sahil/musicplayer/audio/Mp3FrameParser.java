@@ -0,0 +1,523 @@
+package com.sahil.musicplayer.audio;
+
+import com.sahil.musicplayer.exception.InvalidAudioException;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// Push parser for MPEG-1/2/2.5 Layer III streams. Feed it the upload chunk by chunk as the bytes go
+// by; it keeps a few hundred bytes of state, never looks back, and skips frame payloads without
+// copying them. Reads ID3v2.3/2.4 text tags, validates frame headers (three consecutive frames must
+// chain before the stream counts as MP3), counts frames for the duration and picks up Xing/Info/VBRI
+// headers for VBR files.
+public final class Mp3FrameParser {
+
+    private static final int ID3_HEADER = 0;
+    private static final int ID3_EXTENDED_HEADER = 1;
+    private static final int ID3_FRAME_HEADER = 2;
+    private static final int ID3_FRAME_BODY = 3;
+    private static final int SCAN = 4;
+    private static final int FIRST_FRAME = 5;
+    private static final int EXPECT_HEADER = 6;
+    private static final int REJECTED = 7;
+
+    // Frames that must chain before the stream is accepted
+    private static final int LOCK_FRAMES = 3;
+    // Give up if no frame chain starts within this many bytes of audio data
+    private static final int MAX_SYNC_SEARCH = 256 * 1024;
+    private static final int MAX_TEXT_FRAME = 512;
+    private static final int FIRST_FRAME_CAPTURE = 64;
+
+    // Sync word, version, layer and sample rate must stay the same from frame to frame
+    static final int CONSISTENCY_MASK = 0xFFFE0C00;
+
+    private static final int[] BITRATES_V1 = {0, 32, 40, 48, 56, 64, 80, 96, 112, 128, 160, 192, 224, 256, 320};
+    private static final int[] BITRATES_V2 = {0, 8, 16, 24, 32, 40, 48, 56, 64, 80, 96, 112, 128, 144, 160};
+    private static final int[][] SAMPLE_RATES = {
+            {11025, 12000, 8000},   // MPEG 2.5
+            {0, 0, 0},              // reserved
+            {22050, 24000, 16000},  // MPEG 2
+            {44100, 48000, 32000}   // MPEG 1
+    };
+
+    private static final int TIT2 = frameId("TIT2");
+    private static final int TPE1 = frameId("TPE1");
+    private static final int TALB = frameId("TALB");
+    private static final int TCON = frameId("TCON");
+    private static final int TYER = frameId("TYER");
+    private static final int TDRC = frameId("TDRC");
+
+    private static final String[] GENRES = {
+            "Blues", "Classic Rock", "Country", "Dance", "Disco", "Funk", "Grunge", "Hip-Hop", "Jazz", "Metal",
+            "New Age", "Oldies", "Other", "Pop", "R&B", "Rap", "Reggae", "Rock", "Techno", "Industrial",
+            "Alternative", "Ska", "Death Metal", "Pranks", "Soundtrack", "Euro-Techno", "Ambient", "Trip-Hop",
+            "Vocal", "Jazz+Funk", "Fusion", "Trance", "Classical", "Instrumental", "Acid", "House", "Game",
+            "Sound Clip", "Gospel", "Noise", "AlternRock", "Bass", "Soul", "Punk", "Space", "Meditative",
+            "Instrumental Pop", "Instrumental Rock", "Ethnic", "Gothic", "Darkwave", "Techno-Industrial",
+            "Electronic", "Pop-Folk", "Eurodance", "Dream", "Southern Rock", "Comedy", "Cult", "Gangsta", "Top 40",
+            "Christian Rap", "Pop/Funk", "Jungle", "Native American", "Cabaret", "New Wave", "Psychedelic", "Rave",
+            "Showtunes", "Trailer", "Lo-Fi", "Tribal", "Acid Punk", "Acid Jazz", "Polka", "Retro", "Musical",
+            "Rock & Roll", "Hard Rock"
+    };
+
+    private int state = ID3_HEADER;
+    private final byte[] scratch = new byte[MAX_TEXT_FRAME];
+    private int need = 10;
+    private int have;
+    private long skip;
+    private int afterSkip = -1;
+
+    // ID3v2
+    private int id3Version;
+    private long tagRemaining;
+    private int textFrameId;
+
+    // MPEG frames
+    private int window;
+    private int windowFill;
+    private long scanned;
+    private int lockedHeader;
+    private int currentHeader;
+    private int currentFrameLength;
+    private int chainLength;
+    private boolean locked;
+    private boolean firstFrameInspected;
+    private long frameCount;
+    private long audioBytes;
+    private int firstBitrate;
+    private boolean bitrateVaries;
+    private int sampleRate;
+    private int samplesPerFrame;
+    private int channels;
+
+    // Xing/Info/VBRI
+    private long headerFrames = -1;
+    private long headerBytes = -1;
+    private Boolean headerSaysVbr;
+
+    private String title;
+    private String artist;
+    private String album;
+    private String genre;
+    private Integer year;
+
+    // Consumes the bytes between position and limit without moving the buffer's position
+    public void update(ByteBuffer chunk) {
+        int pos = chunk.position();
+        int limit = chunk.limit();
+        while (pos < limit && state != REJECTED) {
+            if (skip > 0) {
+                int n = (int) Math.min(skip, limit - pos);
+                skip -= n;
+                pos += n;
+                if (skip == 0) {
+                    enter(afterSkip);
+                }
+                continue;
+            }
+            if (state == SCAN) {
+                while (pos < limit && state == SCAN) {
+                    scanByte(chunk.get(pos++));
+                }
+                continue;
+            }
+            int n = Math.min(need - have, limit - pos);
+            chunk.get(pos, scratch, have, n);
+            have += n;
+            pos += n;
+            if (have == need) {
+                have = 0;
+                onCollected();
+            }
+        }
+    }
+
+    // Whether the input has already been ruled out, so callers can stop feeding it
+    public boolean isRejected() {
+        return state == REJECTED;
+    }
+
+    public AudioInfo finish() {
+        if (!locked) {
+            throw new InvalidAudioException("Not a valid MP3 file: no MPEG audio frames found");
+        }
+        long frames = headerFrames > 0 ? headerFrames : frameCount;
+        long durationMs = frames * samplesPerFrame * 1000L / sampleRate;
+        if (durationMs <= 0) {
+            throw new InvalidAudioException("Not a valid MP3 file: no audio data");
+        }
+        long bytes = headerBytes > 0 ? headerBytes : audioBytes;
+        return AudioInfo.builder()
+                .durationMs(durationMs)
+                .bitrateKbps((int) Math.round(bytes * 8.0 / durationMs))
+                .sampleRate(sampleRate)
+                .channels(channels)
+                .vbr(headerSaysVbr != null ? headerSaysVbr : bitrateVaries)
+                .frameCount(frames)
+                .title(title)
+                .artist(artist)
+                .album(album)
+                .genre(genre)
+                .year(year)
+                .build();
+    }
+
+    private void onCollected() {
+        switch (state) {
+            case ID3_HEADER -> onId3Header();
+            case ID3_EXTENDED_HEADER -> onId3ExtendedHeader();
+            case ID3_FRAME_HEADER -> onId3FrameHeader();
+            case ID3_FRAME_BODY -> {
+                onId3TextFrame(need);
+                enter(ID3_FRAME_HEADER);
+            }
+            case FIRST_FRAME -> onFirstFrame();
+            case EXPECT_HEADER -> onExpectedHeader();
+            default -> throw new IllegalStateException("Unexpected parser state " + state);
+        }
+    }
+
+    private void enter(int next) {
+        state = next;
+        have = 0;
+        switch (next) {
+            case ID3_FRAME_HEADER -> {
+                if (tagRemaining < 10) {
+                    skipThen(tagRemaining, SCAN);
+                    tagRemaining = 0;
+                } else {
+                    tagRemaining -= 10;
+                    need = 10;
+                }
+            }
+            case EXPECT_HEADER -> need = 4;
+            case SCAN -> {
+                window = 0;
+                windowFill = 0;
+            }
+            default -> {
+            }
+        }
+    }
+
+    private void skipThen(long bytes, int next) {
+        if (bytes <= 0) {
+            enter(next);
+            return;
+        }
+        skip = bytes;
+        afterSkip = next;
+    }
+
+    private void expect(int next, int bytes) {
+        state = next;
+        need = bytes;
+        have = 0;
+    }
+
+    private void onId3Header() {
+        if (scratch[0] != 'I' || scratch[1] != 'D' || scratch[2] != '3') {
+            // No tag: these bytes are already audio data
+            enter(SCAN);
+            replay(10);
+            return;
+        }
+        id3Version = scratch[3];
+        int flags = scratch[5];
+        tagRemaining = syncSafe(scratch, 6);
+        if (id3Version == 4 && (flags & 0x10) != 0) {
+            tagRemaining += 10;
+        }
+        // Tag-wide unsynchronisation and ID3v2.2 use layouts we do not read; skip the tag as a whole
+        if ((id3Version != 3 && id3Version != 4) || (flags & 0x80) != 0) {
+            skipThen(tagRemaining, SCAN);
+            tagRemaining = 0;
+        } else if ((flags & 0x40) != 0 && tagRemaining >= 4) {
+            tagRemaining -= 4;
+            expect(ID3_EXTENDED_HEADER, 4);
+        } else {
+            enter(ID3_FRAME_HEADER);
+        }
+    }
+
+    private void onId3ExtendedHeader() {
+        // v2.3 stores the size without these four bytes, v2.4 includes them
+        long size = id3Version == 4 ? syncSafe(scratch, 0) - 4 : int32(scratch, 0);
+        if (size < 0 || size > tagRemaining) {
+            skipThen(tagRemaining, SCAN);
+            tagRemaining = 0;
+            return;
+        }
+        tagRemaining -= size;
+        skipThen(size, ID3_FRAME_HEADER);
+    }
+
+    private void onId3FrameHeader() {
+        if (scratch[0] == 0) {
+            // Padding runs to the end of the tag
+            skipThen(tagRemaining, SCAN);
+            tagRemaining = 0;
+            return;
+        }
+        int id = int32(scratch, 0);
+        long size = id3Version == 4 ? syncSafe(scratch, 4) : int32(scratch, 4) & 0xFFFFFFFFL;
+        if (size > tagRemaining) {
+            skipThen(tagRemaining, SCAN);
+            tagRemaining = 0;
+            return;
+        }
+        tagRemaining -= size;
+
+        int formatFlags = scratch[9] & 0xFF;
+        boolean encoded = id3Version == 4 ? (formatFlags & 0x0F) != 0 : (formatFlags & 0xC0) != 0;
+        if (size > 1 && size <= MAX_TEXT_FRAME && !encoded && isWantedTextFrame(id)) {
+            textFrameId = id;
+            expect(ID3_FRAME_BODY, (int) size);
+        } else {
+            skipThen(size, ID3_FRAME_HEADER);
+        }
+    }
+
+    private void onId3TextFrame(int length) {
+        Charset charset = switch (scratch[0]) {
+            case 1 -> StandardCharsets.UTF_16;
+            case 2 -> StandardCharsets.UTF_16BE;
+            case 3 -> StandardCharsets.UTF_8;
+            default -> StandardCharsets.ISO_8859_1;
+        };
+        String value = new String(scratch, 1, length - 1, charset);
+        // v2.4 separates multiple values with NUL; keep the first
+        int nul = value.indexOf('\0');
+        if (nul >= 0) {
+            value = value.substring(0, nul);
+        }
+        value = value.trim();
+        if (value.isEmpty()) {
+            return;
+        }
+
+        if (textFrameId == TIT2) {
+            title = value;
+        } else if (textFrameId == TPE1) {
+            artist = value;
+        } else if (textFrameId == TALB) {
+            album = value;
+        } else if (textFrameId == TCON) {
+            genre = genreName(value);
+        } else if (textFrameId == TYER || textFrameId == TDRC) {
+            if (value.length() >= 4 && value.chars().limit(4).allMatch(Character::isDigit)) {
+                year = Integer.parseInt(value.substring(0, 4));
+            }
+        }
+    }
+
+    private void scanByte(byte b) {
+        window = (window << 8) | (b & 0xFF);
+        if (++windowFill >= 4 && isFrameHeader(window) && isConsistent(window)) {
+            onFrameHeader(window);
+            return;
+        }
+        if (!locked && ++scanned > MAX_SYNC_SEARCH) {
+            state = REJECTED;
+        }
+    }
+
+    private void onExpectedHeader() {
+        int header = int32(scratch, 0);
+        if (isFrameHeader(header) && isConsistent(header)) {
+            onFrameHeader(header);
+            return;
+        }
+        // Lost sync. Before the stream is locked the earlier "frames" were noise, so start over
+        if (!locked) {
+            resetFrames();
+        }
+        chainLength = 0;
+        enter(SCAN);
+        replay(4);
+    }
+
+    private void onFrameHeader(int header) {
+        int bitrate = bitrateKbps(header);
+        int frameLength = frameLength(header);
+
+        if (lockedHeader == 0) {
+            lockedHeader = header & CONSISTENCY_MASK;
+            sampleRate = sampleRate(header);
+            samplesPerFrame = samplesPerFrame(header);
+            channels = ((header >>> 6) & 3) == 3 ? 1 : 2;
+        }
+        if (++chainLength >= LOCK_FRAMES) {
+            locked = true;
+        }
+
+        currentHeader = header;
+        currentFrameLength = frameLength;
+        if (!firstFrameInspected) {
+            // Capture the start of the first frame to look for a Xing/Info/VBRI header
+            firstFrameInspected = true;
+            expect(FIRST_FRAME, Math.min(frameLength - 4, FIRST_FRAME_CAPTURE));
+            return;
+        }
+        countFrame(bitrate, frameLength);
+        skipThen(frameLength - 4, EXPECT_HEADER);
+    }
+
+    private void onFirstFrame() {
+        int header = currentHeader;
+        int sideInfo = sideInfoLength(header);
+        int captured = need;
+
+        boolean infoFrame = false;
+        if (captured >= sideInfo + 8 && (matches(sideInfo, "Xing") || matches(sideInfo, "Info"))) {
+            // The Xing/Info frame is silent metadata, not audio
+            infoFrame = true;
+            headerSaysVbr = matches(sideInfo, "Xing");
+            int flags = int32(scratch, sideInfo + 4);
+            int offset = sideInfo + 8;
+            if ((flags & 1) != 0 && captured >= offset + 4) {
+                headerFrames = int32(scratch, offset) & 0xFFFFFFFFL;
+                offset += 4;
+            }
+            if ((flags & 2) != 0 && captured >= offset + 4) {
+                headerBytes = int32(scratch, offset) & 0xFFFFFFFFL;
+            }
+        } else if (captured >= 50 && matches(32, "VBRI")) {
+            infoFrame = true;
+            headerSaysVbr = true;
+            headerBytes = int32(scratch, 42) & 0xFFFFFFFFL;
+            headerFrames = int32(scratch, 46) & 0xFFFFFFFFL;
+        }
+
+        if (!infoFrame) {
+            countFrame(bitrateKbps(header), currentFrameLength);
+        }
+        skipThen(currentFrameLength - 4 - captured, EXPECT_HEADER);
+    }
+
+    private void countFrame(int bitrate, int frameLength) {
+        if (frameCount == 0) {
+            firstBitrate = bitrate;
+        } else if (bitrate != firstBitrate) {
+            bitrateVaries = true;
+        }
+        frameCount++;
+        audioBytes += frameLength;
+    }
+
+    private void resetFrames() {
+        lockedHeader = 0;
+        firstFrameInspected = false;
+        frameCount = 0;
+        audioBytes = 0;
+        bitrateVaries = false;
+        headerFrames = -1;
+        headerBytes = -1;
+        headerSaysVbr = null;
+    }
+
+    private boolean isConsistent(int header) {
+        return lockedHeader == 0 || (header & CONSISTENCY_MASK) == lockedHeader;
+    }
+
+    // Re-feeds bytes that were collected for one purpose but turned out to belong to the scan
+    private void replay(int length) {
+        update(ByteBuffer.wrap(Arrays.copyOf(scratch, length)));
+    }
+
+    private boolean matches(int offset, String id) {
+        return matches(scratch, offset, id);
+    }
+
+    private static boolean matches(byte[] bytes, int offset, String id) {
+        for (int i = 0; i < 4; i++) {
+            if (bytes[offset + i] != id.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static boolean isFrameHeader(int header) {
+        if ((header & 0xFFE00000) != 0xFFE00000) {
+            return false;
+        }
+        int version = (header >>> 19) & 3;
+        int layer = (header >>> 17) & 3;
+        int bitrateIndex = (header >>> 12) & 0xF;
+        int sampleRateIndex = (header >>> 10) & 3;
+        int emphasis = header & 3;
+        // Layer III only; free-format bitrates cannot be framed without a second pass
+        return version != 1 && layer == 1 && bitrateIndex != 0 && bitrateIndex != 15
+                && sampleRateIndex != 3 && emphasis != 2;
+    }
+
+    static int bitrateKbps(int header) {
+        int version = (header >>> 19) & 3;
+        return (version == 3 ? BITRATES_V1 : BITRATES_V2)[(header >>> 12) & 0xF];
+    }
+
+    static int sampleRate(int header) {
+        return SAMPLE_RATES[(header >>> 19) & 3][(header >>> 10) & 3];
+    }
+
+    static int samplesPerFrame(int header) {
+        return ((header >>> 19) & 3) == 3 ? 1152 : 576;
+    }
+
+    static int sideInfoLength(int header) {
+        boolean mono = ((header >>> 6) & 3) == 3;
+        return ((header >>> 19) & 3) == 3 ? (mono ? 17 : 32) : (mono ? 9 : 17);
+    }
+
+    // Whether a first frame is a Xing/Info/VBRI header; body holds the bytes after the frame header
+    static boolean isInfoFrame(int header, byte[] body, int length) {
+        int sideInfo = sideInfoLength(header);
+        return (length >= sideInfo + 8 && (matches(body, sideInfo, "Xing") || matches(body, sideInfo, "Info")))
+                || (length >= 50 && matches(body, 32, "VBRI"));
+    }
+
+    // Whole frame including the 4-byte header
+    static int frameLength(int header) {
+        int version = (header >>> 19) & 3;
+        int padding = (header >>> 9) & 1;
+        return (version == 3 ? 144_000 : 72_000) * bitrateKbps(header) / sampleRate(header) + padding;
+    }
+
+    private static boolean isWantedTextFrame(int id) {
+        return id == TIT2 || id == TPE1 || id == TALB || id == TCON || id == TYER || id == TDRC;
+    }
+
+    // TCON may hold an ID3v1 genre number such as "(17)" or "17", optionally followed by text
+    private static String genreName(String value) {
+        String number = value;
+        if (value.startsWith("(")) {
+            int close = value.indexOf(')');
+            if (close > 1 && close < value.length() - 1) {
+                return value.substring(close + 1).trim();
+            }
+            number = close > 1 ? value.substring(1, close) : value;
+        }
+        if (!number.isEmpty() && number.length() <= 3 && number.chars().allMatch(Character::isDigit)) {
+            int index = Integer.parseInt(number);
+            return index < GENRES.length ? GENRES[index] : value;
+        }
+        return value;
+    }
+
+    private static int frameId(String id) {
+        return (id.charAt(0) << 24) | (id.charAt(1) << 16) | (id.charAt(2) << 8) | id.charAt(3);
+    }
+
+    private static int int32(byte[] bytes, int offset) {
+        return ((bytes[offset] & 0xFF) << 24) | ((bytes[offset + 1] & 0xFF) << 16)
+                | ((bytes[offset + 2] & 0xFF) << 8) | (bytes[offset + 3] & 0xFF);
+    }
+
+    private static long syncSafe(byte[] bytes, int offset) {
+        return ((bytes[offset] & 0x7FL) << 21) | ((bytes[offset + 1] & 0x7FL) << 14)
+                | ((bytes[offset + 2] & 0x7FL) << 7) | (bytes[offset + 3] & 0x7FL);
+    }
+}
@@ -0,0 +1,204 @@
+package com.sahil.musicplayer.audio;
+
+import com.sahil.musicplayer.exception.InvalidAudioException;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+// Walks an MP3 front to back recording where each audio frame starts, and reads each frame's side
+// info for the waveform. Main data is skipped, not read or decoded, so a local file costs little
+// more than the seeks. Sync rules follow Mp3FrameParser: three chained frames lock the stream, and
+// after that only headers matching the locked version, layer and sample rate count; anything else
+// between frames is skipped as a gap.
+//
+// Loudness comes from global_gain, the quantizer step size the encoder picked per granule. It
+// tracks signal level closely enough to draw a waveform without decoding the audio.
+public final class Mp3SeekIndexer {
+
+    private static final int LOCK_FRAMES = 3;
+    private static final int MAX_SYNC_SEARCH = 256 * 1024;
+    // Largest Layer III frame (MPEG-1, 320 kbps, 32 kHz, padded) is 1441 bytes
+    private static final int LOOKAHEAD = LOCK_FRAMES * 1441 + 64;
+
+    private final InputStream in;
+    private final Waveform.Builder waveform = new Waveform.Builder();
+    private final byte[] sideInfo = new byte[34];
+    private long position;
+
+    private Mp3SeekIndexer(InputStream in) {
+        this.in = in;
+    }
+
+    public record Result(SeekIndex seekIndex, Waveform waveform) {
+    }
+
+    public static Result analyze(InputStream source) throws IOException {
+        InputStream in = source.markSupported() ? source : new BufferedInputStream(source, 64 * 1024);
+        return new Mp3SeekIndexer(in).run();
+    }
+
+    private Result run() throws IOException {
+        skipId3Tag();
+
+        int header = nextHeader(0);
+        if (header == 0) {
+            throw new InvalidAudioException("Not a valid MP3 file: no MPEG audio frames found");
+        }
+        int locked = header & Mp3FrameParser.CONSISTENCY_MASK;
+        ByteArrayOutputStream entries = new ByteArrayOutputStream(8192);
+        long firstOffset = -1;
+        int frameCount = 0;
+        long gap = 0;
+        boolean first = true;
+
+        while (header != 0) {
+            long start = position - 4;
+            int length = Mp3FrameParser.frameLength(header);
+            boolean infoFrame = first && isInfoFrame(header, length);
+            first = false;
+            // CRC-protected frames (protection bit clear) carry 2 bytes of CRC before the side info
+            int sideLength = ((header >>> 16) & 1) == 0 ? 2 + Mp3FrameParser.sideInfoLength(header)
+                    : Mp3FrameParser.sideInfoLength(header);
+            if (in.readNBytes(sideInfo, 0, sideLength) < sideLength || !skip(length - 4 - sideLength)) {
+                // Truncated final frame
+                break;
+            }
+            position += sideLength;
+            if (!infoFrame) {
+                if (frameCount == 0) {
+                    firstOffset = start;
+                } else if (gap > 0) {
+                    entries.write(SeekIndex.GAP);
+                    SeekIndex.writeVarLong(entries, gap);
+                }
+                entries.write(SeekIndex.entry(header));
+                waveform.add(loudestGain(header, sideLength - Mp3FrameParser.sideInfoLength(header)));
+                frameCount++;
+            }
+
+            long frameEnd = position;
+            header = nextHeader(locked);
+            gap = position - 4 - frameEnd;
+        }
+
+        if (frameCount == 0) {
+            throw new InvalidAudioException("Not a valid MP3 file: no audio data");
+        }
+        return new Result(SeekIndex.decode(SeekIndex.encode(locked, firstOffset, frameCount, entries)),
+                waveform.build());
+    }
+
+    // Largest global_gain among the frame's granules and channels, skipping granules with no coded
+    // data (part2_3_length of 0), which decode to silence
+    private int loudestGain(int header, int crcBytes) {
+        boolean mpeg1 = ((header >>> 19) & 3) == 3;
+        boolean mono = ((header >>> 6) & 3) == 3;
+        int channels = mono ? 1 : 2;
+        // main_data_begin, private bits and, for MPEG-1, the scfsi bits come before the granules
+        int bit = crcBytes * 8 + (mpeg1 ? 9 + (mono ? 5 : 3) + 4 * channels : 8 + (mono ? 1 : 2));
+        int granules = mpeg1 ? 2 : 1;
+        int granuleBits = mpeg1 ? 59 : 63;
+
+        int loudest = 0;
+        for (int i = 0; i < granules * channels; i++) {
+            int part23Length = bits(bit, 12);
+            int globalGain = bits(bit + 21, 8);
+            if (part23Length > 0) {
+                loudest = Math.max(loudest, globalGain);
+            }
+            bit += granuleBits;
+        }
+        return loudest;
+    }
+
+    private int bits(int offset, int count) {
+        int value = 0;
+        for (int i = offset; i < offset + count; i++) {
+            value = (value << 1) | ((sideInfo[i >>> 3] >>> (7 - (i & 7))) & 1);
+        }
+        return value;
+    }
+
+    private void skipId3Tag() throws IOException {
+        in.mark(10);
+        byte[] tag = in.readNBytes(10);
+        if (tag.length == 10 && tag[0] == 'I' && tag[1] == 'D' && tag[2] == '3') {
+            long size = (tag[6] & 0x7FL) << 21 | (tag[7] & 0x7FL) << 14 | (tag[8] & 0x7FL) << 7 | (tag[9] & 0x7FL);
+            // Flag 0x10: a 10-byte footer follows the tag
+            position = 10;
+            skip(size + ((tag[5] & 0x10) != 0 ? 10 : 0));
+        } else {
+            in.reset();
+        }
+    }
+
+    // Scans to the next frame header, leaving the stream just past it. Before the stream is locked
+    // (locked == 0) a candidate must chain into further frames; afterwards it must match the lock.
+    private int nextHeader(int locked) throws IOException {
+        int window = 0;
+        int fill = 0;
+        long scanned = 0;
+        int b;
+        while ((b = in.read()) >= 0) {
+            position++;
+            window = (window << 8) | b;
+            if (++fill >= 4 && Mp3FrameParser.isFrameHeader(window)) {
+                if (locked == 0 ? chains(window) : (window & Mp3FrameParser.CONSISTENCY_MASK) == locked) {
+                    return window;
+                }
+            }
+            if (++scanned > MAX_SYNC_SEARCH) {
+                return 0;
+            }
+        }
+        return 0;
+    }
+
+    private boolean chains(int header) throws IOException {
+        in.mark(LOOKAHEAD);
+        try {
+            int current = header;
+            for (int i = 1; i < LOCK_FRAMES; i++) {
+                in.skipNBytes(Mp3FrameParser.frameLength(current) - 4);
+                byte[] next = in.readNBytes(4);
+                if (next.length < 4) {
+                    return false;
+                }
+                int candidate = (next[0] & 0xFF) << 24 | (next[1] & 0xFF) << 16 | (next[2] & 0xFF) << 8 | (next[3] & 0xFF);
+                if (!Mp3FrameParser.isFrameHeader(candidate)
+                        || (candidate & Mp3FrameParser.CONSISTENCY_MASK) != (header & Mp3FrameParser.CONSISTENCY_MASK)) {
+                    return false;
+                }
+                current = candidate;
+            }
+            return true;
+        } catch (EOFException e) {
+            return false;
+        } finally {
+            in.reset();
+        }
+    }
+
+    private boolean isInfoFrame(int header, int length) throws IOException {
+        in.mark(64);
+        try {
+            byte[] body = in.readNBytes(Math.min(length - 4, 64));
+            return Mp3FrameParser.isInfoFrame(header, body, body.length);
+        } finally {
+            in.reset();
+        }
+    }
+
+    private boolean skip(long bytes) throws IOException {
+        try {
+            in.skipNBytes(bytes);
+            position += bytes;
+            return true;
+        } catch (EOFException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.sahil.musicplayer.audio;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+// Byte offset of every audio frame in an MP3, so a time maps to an exact frame boundary.
+//
+// Stored form: [format] [locked header, 4 bytes] [varint first frame offset] [varint frame count]
+// then one byte per frame holding (bitrate index << 1 | padding), from which the frame length
+// follows because version, layer and sample rate are fixed for the stream. Junk between frames is
+// recorded as GAP followed by a varint byte count. A five-minute track takes about 11 KB.
+public final class SeekIndex {
+
+    private static final int FORMAT = 1;
+    static final int GAP = 0xFF;
+
+    private final int sampleRate;
+    private final int samplesPerFrame;
+    // offsets[i] is where frame i starts; the extra last entry is where the audio ends
+    private final long[] offsets;
+    private final byte[] encoded;
+
+    private SeekIndex(int header, long[] offsets, byte[] encoded) {
+        this.sampleRate = Mp3FrameParser.sampleRate(header);
+        this.samplesPerFrame = Mp3FrameParser.samplesPerFrame(header);
+        this.offsets = offsets;
+        this.encoded = encoded;
+    }
+
+    public byte[] toBytes() {
+        return encoded.clone();
+    }
+
+    public int getFrameCount() {
+        return offsets.length - 1;
+    }
+
+    public long getDurationMs() {
+        return (long) getFrameCount() * samplesPerFrame * 1000L / sampleRate;
+    }
+
+    public long getAudioStart() {
+        return offsets[0];
+    }
+
+    public long getAudioEnd() {
+        return offsets[offsets.length - 1];
+    }
+
+    public int frameAt(long positionMs) {
+        long frame = Math.max(0, positionMs) * sampleRate / (1000L * samplesPerFrame);
+        return (int) Math.min(frame, getFrameCount() - 1);
+    }
+
+    public long offsetOf(int frame) {
+        return offsets[frame];
+    }
+
+    public long timeOfMs(int frame) {
+        return (long) frame * samplesPerFrame * 1000L / sampleRate;
+    }
+
+    // Cuts the stream into runs of whole frames lasting about targetSeconds each
+    public List<Segment> segments(double targetSeconds) {
+        int framesPerSegment = Math.max(1, (int) Math.round(targetSeconds * sampleRate / samplesPerFrame));
+        List<Segment> segments = new ArrayList<>(getFrameCount() / framesPerSegment + 1);
+        for (int first = 0; first < getFrameCount(); first += framesPerSegment) {
+            int last = Math.min(first + framesPerSegment, getFrameCount());
+            segments.add(new Segment(offsets[first], offsets[last] - offsets[first],
+                    (double) (last - first) * samplesPerFrame / sampleRate));
+        }
+        return segments;
+    }
+
+    public record Segment(long offset, long length, double durationSeconds) {
+    }
+
+    static byte[] encode(int header, long firstOffset, int frameCount, ByteArrayOutputStream entries) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(entries.size() + 16);
+        out.write(FORMAT);
+        int locked = header & Mp3FrameParser.CONSISTENCY_MASK;
+        out.write(locked >>> 24);
+        out.write(locked >>> 16);
+        out.write(locked >>> 8);
+        out.write(locked);
+        writeVarLong(out, firstOffset);
+        writeVarLong(out, frameCount);
+        out.write(entries.toByteArray(), 0, entries.size());
+        return out.toByteArray();
+    }
+
+    public static SeekIndex decode(byte[] bytes) {
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        if (in.get() != FORMAT) {
+            throw new IllegalArgumentException("Unsupported seek index format");
+        }
+        int locked = in.getInt();
+        long offset = readVarLong(in);
+        int frameCount = (int) readVarLong(in);
+
+        long[] offsets = new long[frameCount + 1];
+        int frame = 0;
+        while (frame < frameCount) {
+            int entry = in.get() & 0xFF;
+            if (entry == GAP) {
+                offset += readVarLong(in);
+                continue;
+            }
+            offsets[frame++] = offset;
+            offset += Mp3FrameParser.frameLength(frameHeader(locked, entry));
+        }
+        offsets[frameCount] = offset;
+        return new SeekIndex(locked, offsets, bytes);
+    }
+
+    static int entry(int header) {
+        return ((header >>> 12) & 0xF) << 1 | ((header >>> 9) & 1);
+    }
+
+    private static int frameHeader(int locked, int entry) {
+        return locked | (entry >>> 1) << 12 | (entry & 1) << 9;
+    }
+
+    static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        int shift = 0;
+        while (true) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+            shift += 7;
+            if (shift > 63) {
+                throw new IllegalArgumentException("Malformed varint in seek index");
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.sahil.musicplayer.audio;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Peak pyramid for drawing a song's waveform. The finest level has up to 8192 points, each coarser
+// level halves it by taking the max of neighbours, down to 64. A request for N points resamples the
+// smallest level that still has at least N, so the answer is N bytes, one 0-255 peak per point.
+//
+// Stored form: [format] [varint level count] then per level, finest first: [varint size] [peaks]
+public final class Waveform {
+
+    private static final int FORMAT = 1;
+    private static final int FINEST = 8192;
+    private static final int COARSEST = 64;
+    // Gain steps are 1.5 dB; peaks span the 48 dB below the loudest frame
+    private static final double DB_PER_GAIN_STEP = 1.5;
+    private static final double RANGE_DB = 48;
+
+    private final List<byte[]> levels;
+    private final byte[] encoded;
+
+    private Waveform(List<byte[]> levels, byte[] encoded) {
+        this.levels = levels;
+        this.encoded = encoded;
+    }
+
+    public int getMaxPoints() {
+        return levels.get(0).length;
+    }
+
+    public byte[] peaks(int points) {
+        points = Math.max(1, Math.min(points, getMaxPoints()));
+        byte[] source = levels.get(0);
+        for (int i = levels.size() - 1; i >= 0; i--) {
+            if (levels.get(i).length >= points) {
+                source = levels.get(i);
+                break;
+            }
+        }
+        return downsample(source, points);
+    }
+
+    public byte[] toBytes() {
+        return encoded.clone();
+    }
+
+    public static Waveform decode(byte[] bytes) {
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        if (in.get() != FORMAT) {
+            throw new IllegalArgumentException("Unsupported waveform format");
+        }
+        int count = (int) SeekIndex.readVarLong(in);
+        List<byte[]> levels = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            byte[] level = new byte[(int) SeekIndex.readVarLong(in)];
+            in.get(level);
+            levels.add(level);
+        }
+        return new Waveform(levels, bytes);
+    }
+
+    private static byte[] downsample(byte[] source, int points) {
+        if (source.length == points) {
+            return source.clone();
+        }
+        byte[] result = new byte[points];
+        for (int i = 0; i < points; i++) {
+            int from = (int) ((long) i * source.length / points);
+            int to = (int) Math.max(from + 1, (long) (i + 1) * source.length / points);
+            int peak = 0;
+            for (int j = from; j < to; j++) {
+                peak = Math.max(peak, source[j] & 0xFF);
+            }
+            result[i] = (byte) peak;
+        }
+        return result;
+    }
+
+    // Collects one loudness value per audio frame: the largest global_gain among its granules, or 0
+    // for a frame whose granules carry no coded data
+    static final class Builder {
+
+        private byte[] gains = new byte[8192];
+        private int count;
+
+        void add(int gain) {
+            if (count == gains.length) {
+                gains = Arrays.copyOf(gains, count * 2);
+            }
+            gains[count++] = (byte) gain;
+        }
+
+        Waveform build() {
+            int loudest = 0;
+            for (int i = 0; i < count; i++) {
+                loudest = Math.max(loudest, gains[i] & 0xFF);
+            }
+            byte[] frames = new byte[count];
+            for (int i = 0; i < count; i++) {
+                int gain = gains[i] & 0xFF;
+                double level = gain == 0 ? 0 : 1 - (loudest - gain) * DB_PER_GAIN_STEP / RANGE_DB;
+                frames[i] = (byte) Math.round(Math.max(0, level) * 255);
+            }
+
+            List<byte[]> levels = new ArrayList<>();
+            byte[] level = downsample(frames, Math.max(1, Math.min(count, FINEST)));
+            levels.add(level);
+            while (level.length > COARSEST) {
+                level = downsample(level, (level.length + 1) / 2);
+                levels.add(level);
+            }
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream(levels.get(0).length * 2 + 16);
+            out.write(FORMAT);
+            SeekIndex.writeVarLong(out, levels.size());
+            for (byte[] peaks : levels) {
+                SeekIndex.writeVarLong(out, peaks.length);
+                out.write(peaks, 0, peaks.length);
+            }
+            return new Waveform(levels, out.toByteArray());
+        }
+    }
+}
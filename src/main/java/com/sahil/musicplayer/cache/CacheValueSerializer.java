@@ -0,0 +1,385 @@
+package com.sahil.musicplayer.cache;
+
+import com.sahil.musicplayer.dto.DashboardStats;
+import com.sahil.musicplayer.dto.PlaylistItem;
+import com.sahil.musicplayer.dto.PlaylistPage;
+import com.sahil.musicplayer.dto.SongPage;
+import com.sahil.musicplayer.model.Role;
+import com.sahil.musicplayer.model.Song;
+import com.sahil.musicplayer.model.User;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+// Schema-aware binary codec for cache values. Song, User, DashboardStats, SongPage, PlaylistPage and
+// lists of them are written field by field with varint lengths and no field names or class names;
+// anything else falls back to the JSON serializer. Payloads above the threshold are deflated.
+//
+// Layout: [version | 0x80 if compressed] [varint raw length, if compressed] [tagged value]
+public class CacheValueSerializer implements RedisSerializer<Object> {
+
+    // Bump whenever a cached type gains or loses a field; entries in an older format read as misses
+    static final int FORMAT_VERSION = 6;
+    private static final int COMPRESSED = 0x80;
+
+    private static final byte TAG_NULL = 0;
+    private static final byte TAG_SONG = 1;
+    private static final byte TAG_USER = 2;
+    private static final byte TAG_DASHBOARD_STATS = 3;
+    private static final byte TAG_LIST = 4;
+    private static final byte TAG_SONG_PAGE = 5;
+    private static final byte TAG_PLAYLIST_PAGE = 6;
+    private static final byte TAG_JSON = 0x7F;
+
+    private final GenericJackson2JsonRedisSerializer fallback = new GenericJackson2JsonRedisSerializer();
+    private final int compressionThreshold;
+
+    public CacheValueSerializer(int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return null;
+        }
+        Output body = new Output(256);
+        writeValue(body, value);
+
+        if (compressionThreshold <= 0 || body.size() < compressionThreshold) {
+            Output out = new Output(body.size() + 1);
+            out.write(FORMAT_VERSION);
+            out.write(body.buffer(), 0, body.size());
+            return out.toByteArray();
+        }
+
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(body.buffer(), 0, body.size());
+            deflater.finish();
+            Output out = new Output(body.size() / 2 + 16);
+            out.write(FORMAT_VERSION | COMPRESSED);
+            out.writeVarLong(body.size());
+            byte[] chunk = new byte[8192];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(chunk);
+                out.write(chunk, 0, n);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        int header = bytes[0] & 0xFF;
+        if ((header & ~COMPRESSED) != FORMAT_VERSION) {
+            return null;
+        }
+
+        try {
+            ByteBuffer in = ByteBuffer.wrap(bytes, 1, bytes.length - 1);
+            if ((header & COMPRESSED) != 0) {
+                int rawLength = (int) readVarLong(in);
+                byte[] raw = new byte[rawLength];
+                Inflater inflater = new Inflater();
+                try {
+                    inflater.setInput(bytes, in.position(), in.remaining());
+                    int read = 0;
+                    while (read < rawLength) {
+                        int n = inflater.inflate(raw, read, rawLength - read);
+                        if (n == 0 && (inflater.finished() || inflater.needsInput())) {
+                            break;
+                        }
+                        read += n;
+                    }
+                    if (read != rawLength) {
+                        throw new SerializationException("Truncated compressed cache value");
+                    }
+                } finally {
+                    inflater.end();
+                }
+                in = ByteBuffer.wrap(raw);
+            }
+            return readValue(in);
+        } catch (DataFormatException | BufferUnderflowException | IllegalArgumentException e) {
+            throw new SerializationException("Could not decode cache value", e);
+        }
+    }
+
+    private void writeValue(Output out, Object value) {
+        if (value == null) {
+            out.write(TAG_NULL);
+        } else if (value instanceof Song song) {
+            out.write(TAG_SONG);
+            writeSong(out, song);
+        } else if (value instanceof User user) {
+            out.write(TAG_USER);
+            writeUser(out, user);
+        } else if (value instanceof DashboardStats stats) {
+            out.write(TAG_DASHBOARD_STATS);
+            out.writeVarLong(stats.getTotalUsers());
+            out.writeVarLong(stats.getTotalSongs());
+            out.writeVarLong(stats.getActiveUsers());
+        } else if (value instanceof SongPage page) {
+            out.write(TAG_SONG_PAGE);
+            writeValue(out, page.getItems());
+            out.writeString(page.getNextCursor());
+            out.write(page.isHasMore() ? 1 : 0);
+        } else if (value instanceof PlaylistPage page) {
+            out.write(TAG_PLAYLIST_PAGE);
+            List<PlaylistItem> items = page.getItems() != null ? page.getItems() : List.of();
+            out.writeVarLong(items.size());
+            for (PlaylistItem item : items) {
+                out.writeString(item.getEntryId());
+                out.writeString(item.getRank());
+                out.writeString(item.getSongId());
+                writeValue(out, item.getSong());
+            }
+            out.writeString(page.getNextCursor());
+            out.write(page.isHasMore() ? 1 : 0);
+        } else if (value instanceof List<?> list) {
+            out.write(TAG_LIST);
+            out.writeVarLong(list.size());
+            for (Object element : list) {
+                writeValue(out, element);
+            }
+        } else {
+            byte[] json = fallback.serialize(value);
+            out.write(TAG_JSON);
+            out.writeVarLong(json.length);
+            out.write(json, 0, json.length);
+        }
+    }
+
+    private Object readValue(ByteBuffer in) {
+        byte tag = in.get();
+        switch (tag) {
+            case TAG_NULL:
+                return null;
+            case TAG_SONG:
+                return readSong(in);
+            case TAG_USER:
+                return readUser(in);
+            case TAG_DASHBOARD_STATS:
+                return DashboardStats.builder()
+                        .totalUsers(readVarLong(in))
+                        .totalSongs(readVarLong(in))
+                        .activeUsers(readVarLong(in))
+                        .build();
+            case TAG_SONG_PAGE: {
+                @SuppressWarnings("unchecked")
+                List<Song> items = (List<Song>) readValue(in);
+                return SongPage.builder()
+                        .items(items)
+                        .nextCursor(readString(in))
+                        .hasMore(in.get() != 0)
+                        .build();
+            }
+            case TAG_PLAYLIST_PAGE: {
+                int size = (int) readVarLong(in);
+                List<PlaylistItem> items = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    items.add(PlaylistItem.builder()
+                            .entryId(readString(in))
+                            .rank(readString(in))
+                            .songId(readString(in))
+                            .song((Song) readValue(in))
+                            .build());
+                }
+                return PlaylistPage.builder()
+                        .items(items)
+                        .nextCursor(readString(in))
+                        .hasMore(in.get() != 0)
+                        .build();
+            }
+            case TAG_LIST: {
+                int size = (int) readVarLong(in);
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(in));
+                }
+                return list;
+            }
+            case TAG_JSON: {
+                byte[] json = new byte[(int) readVarLong(in)];
+                in.get(json);
+                return fallback.deserialize(json);
+            }
+            default:
+                throw new SerializationException("Unknown cache value tag: " + tag);
+        }
+    }
+
+    private void writeSong(Output out, Song song) {
+        out.writeString(song.getId());
+        out.writeString(song.getFileName());
+        out.writeString(song.getTitle());
+        out.writeString(song.getArtist());
+        out.writeString(song.getUrl());
+        out.writeString(song.getPublicId());
+        out.writeString(song.getContentHash());
+        out.writeString(song.getAlbum());
+        out.writeString(song.getGenre());
+        out.writeNullableLong(song.getYear() != null ? song.getYear().longValue() : null);
+        out.writeNullableLong(song.getDurationMs());
+        out.writeNullableLong(song.getBitrateKbps() != null ? song.getBitrateKbps().longValue() : null);
+        out.writeNullableLong(song.getSampleRate() != null ? song.getSampleRate().longValue() : null);
+        out.write(song.getVbr() == null ? 0 : song.getVbr() ? 2 : 1);
+        out.writeNullableLong(song.getPlayCount());
+        out.writeNullableLong(song.getVersion());
+    }
+
+    private Song readSong(ByteBuffer in) {
+        return Song.builder()
+                .id(readString(in))
+                .fileName(readString(in))
+                .title(readString(in))
+                .artist(readString(in))
+                .url(readString(in))
+                .publicId(readString(in))
+                .contentHash(readString(in))
+                .album(readString(in))
+                .genre(readString(in))
+                .year(toInteger(readNullableLong(in)))
+                .durationMs(readNullableLong(in))
+                .bitrateKbps(toInteger(readNullableLong(in)))
+                .sampleRate(toInteger(readNullableLong(in)))
+                .vbr(readNullableBoolean(in))
+                .playCount(readNullableLong(in))
+                .version(readNullableLong(in))
+                .build();
+    }
+
+    private void writeUser(Output out, User user) {
+        out.writeString(user.getId());
+        out.writeString(user.getUsername());
+        out.writeString(user.getEmail());
+        out.writeString(user.getPassword());
+        out.writeString(user.getRole() != null ? user.getRole().name() : null);
+        out.write(user.isEnabled() ? 1 : 0);
+    }
+
+    private User readUser(ByteBuffer in) {
+        User user = User.builder()
+                .id(readString(in))
+                .username(readString(in))
+                .email(readString(in))
+                .password(readString(in))
+                .build();
+        String role = readString(in);
+        user.setRole(role != null ? Role.valueOf(role) : null);
+        user.setEnabled(in.get() != 0);
+        return user;
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = (int) readVarLong(in) - 1;
+        if (length < 0) {
+            return null;
+        }
+        if (length > in.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        String value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+
+    private static Long readNullableLong(ByteBuffer in) {
+        long value = readVarLong(in);
+        return value == 0 ? null : value - 1;
+    }
+
+    private static Boolean readNullableBoolean(ByteBuffer in) {
+        byte value = in.get();
+        return value == 0 ? null : value == 2;
+    }
+
+    private static Integer toInteger(Long value) {
+        return value != null ? value.intValue() : null;
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        int shift = 0;
+        while (true) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+            shift += 7;
+            if (shift > 63) {
+                throw new SerializationException("Malformed varint in cache value");
+            }
+        }
+    }
+
+    // ByteArrayOutputStream without the synchronization and with direct access to the buffer
+    private static final class Output extends ByteArrayOutputStream {
+
+        private Output(int size) {
+            super(size);
+        }
+
+        private byte[] buffer() {
+            return buf;
+        }
+
+        @Override
+        public void write(int b) {
+            if (count == buf.length) {
+                buf = Arrays.copyOf(buf, buf.length * 2);
+            }
+            buf[count++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            if (count + length > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length * 2, count + length));
+            }
+            System.arraycopy(bytes, offset, buf, count, length);
+            count += length;
+        }
+
+        private void writeVarLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+
+        // 0 encodes null, anything else is value + 1; only used for non-negative values
+        private void writeNullableLong(Long value) {
+            writeVarLong(value == null ? 0 : value + 1);
+        }
+
+        private void writeString(String value) {
+            if (value == null) {
+                writeVarLong(0);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length + 1L);
+            write(bytes, 0, bytes.length);
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.sahil.musicplayer.cache;
+
+import com.sahil.musicplayer.dto.SongPage;
+import com.sahil.musicplayer.model.Song;
+import com.sahil.musicplayer.service.SongCursor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+// Write-through maintenance of the song caches. Each cached keyset page records the range of the
+// sort order it covers, so a write evicts only the pages the written songs fall into.
+//
+// A write that lands while a page is loading cannot see that page's range yet. Writers therefore
+// bump a shared generation before scanning the ranges, and a loader drops the page it just cached if
+// the generation moved since it started loading.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SongCatalogCache {
+
+    public static final String SONG = "song";
+    public static final String PAGES = "songPages";
+
+    // Hash of page cache key -> "<registered at ms> <start cursor> <end cursor>"; an empty end means the
+    // page runs to the end
+    private static final String PAGE_RANGES = "songPages:ranges";
+    // Outlives the pages themselves so no cached page is ever missing from it
+    private static final Duration PAGE_TTL = Duration.ofMinutes(10);
+    private static final Duration PAGE_RANGES_TTL = Duration.ofMinutes(15);
+    // Bounds the range scan every write does; once full, expired entries are pruned and pages that
+    // still do not fit are served uncached
+    private static final int MAX_CACHED_PAGES = 5000;
+    private static final String GENERATION = "songPages:generation";
+
+    private static final RedisScript<Long> REGISTER_RANGE = new DefaultRedisScript<>(
+            "if redis.call('HEXISTS', KEYS[1], ARGV[1]) == 0 "
+                    + "and redis.call('HLEN', KEYS[1]) >= tonumber(ARGV[3]) then return 0 end "
+                    + "redis.call('HSET', KEYS[1], ARGV[1], ARGV[2]) "
+                    + "redis.call('EXPIRE', KEYS[1], ARGV[4]) "
+                    + "return 1",
+            Long.class);
+
+    private final CacheManager cacheManager;
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    public SongPage getPage(String sort, int limit, String cursor, Supplier<SongPage> loader) {
+        String key = sort + ":" + limit + ":" + (cursor == null ? "" : cursor);
+        Cache pages = cache(PAGES);
+        SongPage cached = pages.get(key, SongPage.class);
+        if (cached != null) {
+            return cached;
+        }
+        long generation;
+        try {
+            generation = generation();
+        } catch (RuntimeException e) {
+            log.warn("Could not read the song page generation, serving uncached: {}", e.getMessage());
+            return loader.get();
+        }
+        SongPage page = loader.get();
+
+        // Range first: a page that is cached but not registered could never be evicted by a write
+        String range = System.currentTimeMillis() + " " + (cursor == null ? "" : cursor) + " "
+                + (page.isHasMore() ? page.getNextCursor() : "");
+        try {
+            if (!registerRange(key, range) && (pruneExpired() == 0 || !registerRange(key, range))) {
+                return page;
+            }
+            pages.put(key, page);
+            // Any write that finished since the load began may have scanned the ranges before this one
+            // was registered
+            if (generation() != generation) {
+                pages.evict(key);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not cache song page {}: {}", key, e.getMessage());
+            pages.evict(key);
+        }
+        return page;
+    }
+
+    // previous is the song as it was before an update (null for inserts); a retitled song leaves one
+    // position in the title order and lands in another
+    public void upsert(Song song, Song previous) {
+        cache(SONG).put(song.getId(), song);
+        evictPages(previous != null ? List.of(previous, song) : List.of(song));
+    }
+
+    // Batch variant for bulk writes: one page range scan for the whole batch
+    public void upsertAll(Collection<Song> songs) {
+        if (songs.isEmpty()) {
+            return;
+        }
+        Cache songCache = cache(SONG);
+        songs.forEach(song -> songCache.put(song.getId(), song));
+        evictPages(songs);
+    }
+
+    public void remove(Song song) {
+        removeAll(List.of(song));
+    }
+
+    public void removeAll(Collection<Song> songs) {
+        if (songs.isEmpty()) {
+            return;
+        }
+        Cache songCache = cache(SONG);
+        songs.forEach(song -> songCache.evict(song.getId()));
+        evictPages(songs);
+    }
+
+    // Drops cached songs whose stored fields moved underneath them, e.g. flushed play counts. Patching
+    // the cached copy instead would race with upsert and could put an edited song back to its old
+    // title; pages keep their counts until they expire.
+    public void evictSongs(Collection<String> songIds) {
+        Cache songCache = cache(SONG);
+        songIds.forEach(songCache::evict);
+    }
+
+    // A page starting after cursor S and ending at its last song E holds every song in (S, E]; one
+    // with no next page also takes anything appended after it
+    private void evictPages(Collection<Song> songs) {
+        Cache pages = cache(PAGES);
+        Map<String, String> ranges;
+        try {
+            // Before the scan, so pages still loading learn they may have missed this write
+            advanceGeneration();
+            ranges = readRanges();
+        } catch (RuntimeException e) {
+            log.warn("Could not read cached page ranges, clearing all pages: {}", e.getMessage());
+            pages.clear();
+            return;
+        }
+        if (ranges == null || ranges.isEmpty()) {
+            return;
+        }
+
+        long expiredBefore = System.currentTimeMillis() - PAGE_TTL.toMillis();
+        List<String> evicted = new ArrayList<>();
+        ranges.forEach((key, range) -> {
+            if (registeredAt(range) < expiredBefore) {
+                evicted.add(key);
+            } else if (covers(key, range.substring(range.indexOf(' ') + 1), songs)) {
+                pages.evict(key);
+                evicted.add(key);
+            }
+        });
+        if (!evicted.isEmpty()) {
+            removeRanges(evicted);
+        }
+        log.debug("Evicted {} of {} cached song pages", evicted.size(), ranges.size());
+    }
+
+    // Drops the ranges of pages that have expired from the cache; returns how many were dropped
+    private int pruneExpired() {
+        long expiredBefore = System.currentTimeMillis() - PAGE_TTL.toMillis();
+        List<String> expired = new ArrayList<>();
+        readRanges().forEach((key, range) -> {
+            if (registeredAt(range) < expiredBefore) {
+                expired.add(key);
+            }
+        });
+        if (!expired.isEmpty()) {
+            removeRanges(expired);
+        }
+        return expired.size();
+    }
+
+    private static long registeredAt(String range) {
+        try {
+            return Long.parseLong(range.substring(0, range.indexOf(' ')));
+        } catch (RuntimeException e) {
+            return 0;
+        }
+    }
+
+    private static boolean covers(String key, String range, Collection<Song> songs) {
+        try {
+            String sort = key.substring(0, key.indexOf(':'));
+            int split = range.indexOf(' ');
+            SongCursor start = split > 0 ? SongCursor.decode(range.substring(0, split), sort) : null;
+            SongCursor end = split < range.length() - 1 ? SongCursor.decode(range.substring(split + 1), sort) : null;
+            for (Song song : songs) {
+                SongCursor position = SongCursor.of(song, sort);
+                if ((start == null || position.compareTo(start) > 0) && (end == null || position.compareTo(end) <= 0)) {
+                    return true;
+                }
+            }
+            return false;
+        } catch (RuntimeException e) {
+            // Unreadable range: evict rather than risk serving a stale page
+            return true;
+        }
+    }
+
+    // Redis access, overridden by tests
+
+    long generation() {
+        byte[] value = redisTemplate.execute((RedisCallback<byte[]>) connection ->
+                connection.stringCommands().get(bytes(GENERATION)));
+        return value == null ? 0 : Long.parseLong(new String(value, StandardCharsets.UTF_8));
+    }
+
+    void advanceGeneration() {
+        redisTemplate.execute((RedisCallback<Long>) connection -> connection.stringCommands().incr(bytes(GENERATION)));
+    }
+
+    // False when the hash is full and the page should not be cached
+    boolean registerRange(String key, String range) {
+        Long registered = redisTemplate.execute(REGISTER_RANGE, List.of(PAGE_RANGES), key, range,
+                String.valueOf(MAX_CACHED_PAGES), String.valueOf(PAGE_RANGES_TTL.toSeconds()));
+        return registered != null && registered == 1;
+    }
+
+    Map<String, String> readRanges() {
+        Map<byte[], byte[]> raw = redisTemplate.execute((RedisCallback<Map<byte[], byte[]>>) connection ->
+                connection.hashCommands().hGetAll(bytes(PAGE_RANGES)));
+        Map<String, String> ranges = new HashMap<>();
+        if (raw != null) {
+            raw.forEach((key, range) ->
+                    ranges.put(new String(key, StandardCharsets.UTF_8), new String(range, StandardCharsets.UTF_8)));
+        }
+        return ranges;
+    }
+
+    void removeRanges(List<String> keys) {
+        byte[][] fields = keys.stream().map(SongCatalogCache::bytes).toArray(byte[][]::new);
+        redisTemplate.execute((RedisCallback<Long>) connection ->
+                connection.hashCommands().hDel(bytes(PAGE_RANGES), fields));
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private Cache cache(String name) {
+        return Objects.requireNonNull(cacheManager.getCache(name), "Cache not configured: " + name);
+    }
+}
@@ -0,0 +1,124 @@
+package com.sahil.musicplayer.cache;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.concurrent.Callable;
+
+// In-heap L1 in front of a Redis-backed L2. Reads fill L1 from L2; writes go to L2 first,
+// update the local L1 and ask the manager to invalidate the entry on every other node.
+public class TwoTierCache implements Cache {
+
+    private final String name;
+    private final Cache l2;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> l1;
+    private final TwoTierCacheManager manager;
+
+    TwoTierCache(String name, Cache l2, com.github.benmanes.caffeine.cache.Cache<String, Object> l1,
+                 TwoTierCacheManager manager) {
+        this.name = name;
+        this.l2 = l2;
+        this.l1 = l1;
+        this.manager = manager;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return l2.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String localKey = localKey(key);
+        Object value = l1.getIfPresent(localKey);
+        if (value != null) {
+            return new SimpleValueWrapper(value);
+        }
+        ValueWrapper wrapper = l2.get(key);
+        if (wrapper != null && wrapper.get() != null) {
+            l1.put(localKey, wrapper.get());
+        }
+        return wrapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException(
+                    "Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String localKey = localKey(key);
+        Object value = l1.getIfPresent(localKey);
+        if (value != null) {
+            return (T) value;
+        }
+        T loaded = l2.get(key, valueLoader);
+        if (loaded != null) {
+            l1.put(localKey, loaded);
+        }
+        return loaded;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        l2.put(key, value);
+        String localKey = localKey(key);
+        if (value != null) {
+            l1.put(localKey, value);
+        } else {
+            l1.invalidate(localKey);
+        }
+        manager.publishEvict(name, localKey);
+    }
+
+    @Override
+    public void evict(Object key) {
+        l2.evict(key);
+        String localKey = localKey(key);
+        l1.invalidate(localKey);
+        manager.publishEvict(name, localKey);
+    }
+
+    @Override
+    public void clear() {
+        l2.clear();
+        l1.invalidateAll();
+        manager.publishClear(name);
+    }
+
+    void evictLocal(String localKey) {
+        l1.invalidate(localKey);
+    }
+
+    void clearLocal() {
+        l1.invalidateAll();
+    }
+
+    CacheStats localStats() {
+        return l1.stats();
+    }
+
+    long localSize() {
+        return l1.estimatedSize();
+    }
+
+    // RedisCache stringifies keys the same way, so L1 and L2 agree on identity
+    private static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+}
@@ -0,0 +1,135 @@
+package com.sahil.musicplayer.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.sahil.musicplayer.dto.PlaylistPage;
+import com.sahil.musicplayer.dto.SongPage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+@Slf4j
+public class TwoTierCacheManager implements CacheManager {
+
+    public static final String INVALIDATION_CHANNEL = "cache:invalidate";
+
+    private static final String EVICT = "E";
+    private static final String CLEAR = "C";
+
+    private final CacheManager l2;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final long maxWeightPerCache;
+    private final Duration localTtl;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final ConcurrentMap<String, TwoTierCache> caches = new ConcurrentHashMap<>();
+
+    public TwoTierCacheManager(CacheManager l2, RedisTemplate<String, Object> redisTemplate,
+                               long maxWeightPerCache, Duration localTtl) {
+        this.l2 = l2;
+        this.redisTemplate = redisTemplate;
+        this.maxWeightPerCache = maxWeightPerCache;
+        this.localTtl = localTtl;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, cacheName -> {
+            Cache remote = l2.getCache(cacheName);
+            return remote == null ? null : new TwoTierCache(cacheName, remote, newLocalCache(), this);
+        });
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return l2.getCacheNames();
+    }
+
+    public Map<String, Object> getLocalStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        caches.forEach((name, cache) -> {
+            CacheStats cacheStats = cache.localStats();
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("size", cache.localSize());
+            entry.put("hitRate", cacheStats.hitRate());
+            entry.put("hits", cacheStats.hitCount());
+            entry.put("misses", cacheStats.missCount());
+            entry.put("evictions", cacheStats.evictionCount());
+            stats.put(name, entry);
+        });
+        return stats;
+    }
+
+    // Message format: <nodeId>|<cacheName>|<E|C>|<key>
+    public void onInvalidation(String message) {
+        String[] parts = message.split("\\|", 4);
+        if (parts.length < 3 || nodeId.equals(parts[0])) {
+            return;
+        }
+        TwoTierCache cache = caches.get(parts[1]);
+        if (cache == null) {
+            return;
+        }
+        if (CLEAR.equals(parts[2])) {
+            cache.clearLocal();
+        } else if (parts.length == 4) {
+            cache.evictLocal(parts[3]);
+        }
+    }
+
+    // Drops this node's L1 copy of a cache without touching L2 or other nodes
+    public void clearLocal(String cacheName) {
+        TwoTierCache cache = caches.get(cacheName);
+        if (cache != null) {
+            cache.clearLocal();
+        }
+    }
+
+    void publishEvict(String cacheName, String key) {
+        publish(nodeId + "|" + cacheName + "|" + EVICT + "|" + key);
+    }
+
+    void publishClear(String cacheName) {
+        publish(nodeId + "|" + cacheName + "|" + CLEAR);
+    }
+
+    private void publish(String message) {
+        try {
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, message);
+        } catch (Exception e) {
+            // Peers fall back to the L1 TTL if a broadcast is lost
+            log.warn("Failed to publish cache invalidation: {}", e.getMessage());
+        }
+    }
+
+    private com.github.benmanes.caffeine.cache.Cache<String, Object> newLocalCache() {
+        return Caffeine.newBuilder()
+                .maximumWeight(maxWeightPerCache)
+                .weigher((String key, Object value) -> weigh(value))
+                .expireAfterWrite(localTtl)
+                .recordStats()
+                .build();
+    }
+
+    // Roughly one unit per song/user held, so a cached catalog counts for its real size
+    private static int weigh(Object value) {
+        if (value instanceof Collection<?> collection) {
+            return 1 + collection.size();
+        }
+        if (value instanceof SongPage page && page.getItems() != null) {
+            return 1 + page.getItems().size();
+        }
+        if (value instanceof PlaylistPage page && page.getItems() != null) {
+            return 1 + page.getItems().size();
+        }
+        return 1;
+    }
+}
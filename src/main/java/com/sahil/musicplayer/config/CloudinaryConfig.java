@@ -3,10 +3,13 @@ package com.sahil.musicplayer.config;
 import com.cloudinary.Cloudinary;
 import com.cloudinary.utils.ObjectUtils;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+// Only needed, and its credentials only required, when songs are stored on Cloudinary
 @Configuration
+@ConditionalOnProperty(name = "storage.backend", havingValue = "cloudinary", matchIfMissing = true)
 public class CloudinaryConfig {
 
 
@@ -35,8 +35,9 @@ public class RateLimitFilter extends OncePerRequestFilter {
         String clientId = getClientIdentifier(request);
         String requestPath = request.getRequestURI();
 
-        Bandwidth bandwidth = getBandwidthForPath(requestPath);
-        String rateLimitKey = clientId + ":" + getRateLimitCategory(requestPath);
+        boolean upload = isUploadStart(request);
+        Bandwidth bandwidth = getBandwidthForPath(requestPath, upload);
+        String rateLimitKey = clientId + ":" + getRateLimitCategory(requestPath, upload);
 
         if (!rateLimitService.isAllowed(rateLimitKey, bandwidth)) {
             long waitTime = rateLimitService.getWaitTime(rateLimitKey, bandwidth);
@@ -65,10 +66,18 @@ public class RateLimitFilter extends OncePerRequestFilter {
         return "ip:" + request.getRemoteAddr();
     }
 
-    private Bandwidth getBandwidthForPath(String path) {
+    // Only requests that start an upload count against the upload budget; chunk PUTs and status
+    // polls of a resumable session would otherwise exhaust it after a few requests
+    private boolean isUploadStart(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        return "POST".equals(request.getMethod())
+                && (path.endsWith("/upload") || path.endsWith("/uploads") || path.endsWith("/upload/jobs"));
+    }
+
+    private Bandwidth getBandwidthForPath(String path, boolean upload) {
         if (path.startsWith("/api/auth/")) {
             return RedisConfig.RateLimit.AUTH_BANDWIDTH;
-        } else if (path.contains("/upload")) {
+        } else if (upload) {
             return RedisConfig.RateLimit.UPLOAD_BANDWIDTH;
         } else if (path.startsWith("/api/admin/")) {
             return RedisConfig.RateLimit.ADMIN_BANDWIDTH;
@@ -77,10 +86,10 @@ public class RateLimitFilter extends OncePerRequestFilter {
         }
     }
 
-    private String getRateLimitCategory(String path) {
+    private String getRateLimitCategory(String path, boolean upload) {
         if (path.startsWith("/api/auth/")) {
             return "auth";
-        } else if (path.contains("/upload")) {
+        } else if (upload) {
             return "upload";
         } else if (path.startsWith("/api/admin/")) {
             return "admin";
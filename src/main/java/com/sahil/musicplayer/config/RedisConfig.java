@@ -1,8 +1,11 @@
 package com.sahil.musicplayer.config;
 
+import com.sahil.musicplayer.cache.CacheValueSerializer;
+import com.sahil.musicplayer.cache.TwoTierCacheManager;
 import io.github.bucket4j.Bandwidth;
 import io.github.bucket4j.Bucket;
 import io.github.bucket4j.Refill;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
@@ -11,10 +14,12 @@ import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -37,27 +42,48 @@ public class RedisConfig {
     }
 
     @Bean
-    public CacheManager cacheManager(RedisConnectionFactory connectionFactory) {
+    public CacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                     RedisTemplate<String, Object> redisTemplate,
+                                     @Value("${cache.l1.max-weight:50000}") long l1MaxWeight,
+                                     @Value("${cache.l1.ttl-seconds:300}") long l1TtlSeconds,
+                                     @Value("${cache.codec.compression-threshold:1024}") int compressionThreshold) {
         RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
                 .entryTtl(Duration.ofMinutes(60)) // Default TTL of 60 minutes
                 .serializeKeysWith(
                         RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
                 .serializeValuesWith(RedisSerializationContext.SerializationPair
-                        .fromSerializer(new GenericJackson2JsonRedisSerializer()))
+                        .fromSerializer(new CacheValueSerializer(compressionThreshold)))
                 .disableCachingNullValues();
 
-        return RedisCacheManager.builder(connectionFactory)
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
                 .cacheDefaults(config)
-                .withCacheConfiguration("songs",
-                        RedisCacheConfiguration.defaultCacheConfig()
-                                .entryTtl(Duration.ofMinutes(30)))
+                .withCacheConfiguration("songPages",
+                        config.entryTtl(Duration.ofMinutes(10)))
+                .withCacheConfiguration("playlistPages",
+                        config.entryTtl(Duration.ofMinutes(10)))
                 .withCacheConfiguration("song",
-                        RedisCacheConfiguration.defaultCacheConfig()
-                                .entryTtl(Duration.ofMinutes(15)))
+                        config.entryTtl(Duration.ofMinutes(15)))
                 .withCacheConfiguration("user",
-                        RedisCacheConfiguration.defaultCacheConfig()
-                                .entryTtl(Duration.ofMinutes(45)))
+                        config.entryTtl(Duration.ofMinutes(45)))
                 .build();
+        redisCacheManager.afterPropertiesSet();
+
+        return new TwoTierCacheManager(redisCacheManager, redisTemplate, l1MaxWeight,
+                Duration.ofSeconds(l1TtlSeconds));
+    }
+
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListener(RedisConnectionFactory connectionFactory,
+                                                                   CacheManager cacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        if (cacheManager instanceof TwoTierCacheManager twoTierCacheManager) {
+            container.addMessageListener(
+                    (message, pattern) -> twoTierCacheManager.onInvalidation(
+                            new String(message.getBody(), StandardCharsets.UTF_8)),
+                    new ChannelTopic(TwoTierCacheManager.INVALIDATION_CHANNEL));
+        }
+        return container;
     }
 
     // Rate limiting configurations
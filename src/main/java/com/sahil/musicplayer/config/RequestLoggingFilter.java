@@ -9,11 +9,8 @@ import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
-import org.springframework.web.util.ContentCachingRequestWrapper;
-import org.springframework.web.util.ContentCachingResponseWrapper;
 
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.util.UUID;
 
 @Slf4j
@@ -28,23 +25,19 @@ public class RequestLoggingFilter extends OncePerRequestFilter {
         String requestId = UUID.randomUUID().toString();
         long startTime = System.currentTimeMillis();
 
-        ContentCachingRequestWrapper requestWrapper = new ContentCachingRequestWrapper(request);
-        ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
-
+        // Only the request line and status are logged, so bodies pass through unwrapped; caching
+        // wrappers would copy every upload and audio response onto the heap
         try {
             log.info("Request started - ID: {}, Method: {}, URI: {}, Client IP: {}",
                     requestId, request.getMethod(), request.getRequestURI(), getClientIP(request));
 
-            filterChain.doFilter(requestWrapper, responseWrapper);
+            filterChain.doFilter(request, response);
 
         } finally {
             long duration = System.currentTimeMillis() - startTime;
-            String responseBody = new String(responseWrapper.getContentAsByteArray(), StandardCharsets.UTF_8);
 
             log.info("Request completed - ID: {}, Duration: {}ms, Status: {}",
                     requestId, duration, response.getStatus());
-
-            responseWrapper.copyBodyToResponse();
         }
     }
 
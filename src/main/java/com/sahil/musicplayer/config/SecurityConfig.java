@@ -74,7 +74,12 @@ public class SecurityConfig {
                 .authorizeHttpRequests(authz -> authz
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers("/health").permitAll()
+                        // Audio elements and HLS players cannot send the Authorization header; both
+                        // endpoints check a signed grant themselves
+                        .requestMatchers("/api/songs/*/stream", "/api/songs/*/playlist.m3u8").permitAll()
                         .requestMatchers("/api/songs/upload").hasRole(ROLE_ADMIN)
+                        .requestMatchers("/api/songs/upload/**").hasRole(ROLE_ADMIN)
+                        .requestMatchers("/api/songs/uploads/**").hasRole(ROLE_ADMIN)
                         .requestMatchers("/api/songs/{id}").hasAnyRole(ROLE_ADMIN, "USER")
                         .requestMatchers("/api/songs").hasAnyRole(ROLE_ADMIN, "USER")
                         .requestMatchers("/api/admin/**").hasRole(ROLE_ADMIN)
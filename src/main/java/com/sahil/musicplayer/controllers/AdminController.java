@@ -1,9 +1,14 @@
 package com.sahil.musicplayer.controllers;
 
+import com.sahil.musicplayer.dto.BulkDeleteReport;
+import com.sahil.musicplayer.dto.BulkDeleteRequest;
 import com.sahil.musicplayer.model.Song;
 import com.sahil.musicplayer.model.User;
 import com.sahil.musicplayer.service.AdminService;
+import com.sahil.musicplayer.service.RecommendationService;
 import com.sahil.musicplayer.service.SongService;
+import com.sahil.musicplayer.service.StorageOutbox;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -11,6 +16,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/admin")
@@ -20,6 +26,8 @@ public class AdminController {
 
     private final SongService songService;
     private final AdminService adminService;
+    private final StorageOutbox storageOutbox;
+    private final RecommendationService recommendationService;
 
     @GetMapping("/dashboard")
     public ResponseEntity<?> getDashboard() {
@@ -62,6 +70,21 @@ public class AdminController {
         }
     }
 
+    @PostMapping("/songs/bulk-delete")
+    public ResponseEntity<BulkDeleteReport> deleteSongs(@Valid @RequestBody BulkDeleteRequest request) {
+        return ResponseEntity.ok(songService.deleteSongs(request.getIds()));
+    }
+
+    @GetMapping("/storage/outbox")
+    public ResponseEntity<Map<String, Object>> getStorageOutbox() {
+        return ResponseEntity.ok(storageOutbox.getStats());
+    }
+
+    @GetMapping("/recommendations/stats")
+    public ResponseEntity<Map<String, Object>> getRecommendationStats() {
+        return ResponseEntity.ok(recommendationService.getStats());
+    }
+
     @PutMapping("/users/{id}/status")
     public ResponseEntity<?> toggleUserStatus(@PathVariable String id) {
         try {
@@ -1,5 +1,6 @@
 package com.sahil.musicplayer.controllers;
 
+import com.sahil.musicplayer.cache.TwoTierCacheManager;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.CacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
@@ -44,10 +45,13 @@ public class CacheStatsController {
                 cacheStats.put(name, "Cache exists");
             });
             stats.put("caches", cacheStats);
+            if (cacheManager instanceof TwoTierCacheManager twoTierCacheManager) {
+                stats.put("local", twoTierCacheManager.getLocalStats());
+            }
         } catch (Exception e) {
             stats.put("caches", "Error fetching cache stats: " + e.getMessage());
         }
 
         return ResponseEntity.ok(stats);
     }
-}
\ No newline at end of file
+}
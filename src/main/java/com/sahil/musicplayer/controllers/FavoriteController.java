@@ -0,0 +1,50 @@
+package com.sahil.musicplayer.controllers;
+
+import com.sahil.musicplayer.dto.FavoriteRequest;
+import com.sahil.musicplayer.model.Song;
+import com.sahil.musicplayer.model.User;
+import com.sahil.musicplayer.service.FavoriteService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/favorites")
+@PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+@RequiredArgsConstructor
+public class FavoriteController {
+
+    private final FavoriteService favoriteService;
+
+    @GetMapping
+    public ResponseEntity<List<Song>> getFavorites(@AuthenticationPrincipal User user) {
+        return ResponseEntity.ok(favoriteService.getFavoriteSongs(user.getId()));
+    }
+
+    @PostMapping
+    public ResponseEntity<String> addFavorite(@Valid @RequestBody FavoriteRequest request,
+                                              @AuthenticationPrincipal User user) {
+        favoriteService.addFavorite(user.getId(), request.getSongId());
+        return ResponseEntity.status(HttpStatus.CREATED).body("Song added to favorites");
+    }
+
+    @DeleteMapping("/{songId}")
+    public ResponseEntity<String> removeFavorite(@PathVariable String songId,
+                                                 @AuthenticationPrincipal User user) {
+        favoriteService.removeFavorite(user.getId(), songId);
+        return ResponseEntity.ok("Song removed from favorites");
+    }
+
+    @GetMapping("/{songId}/check")
+    public ResponseEntity<Map<String, Boolean>> checkFavorite(@PathVariable String songId,
+                                                              @AuthenticationPrincipal User user) {
+        return ResponseEntity.ok(Map.of("isFavorite", favoriteService.isFavorite(user.getId(), songId)));
+    }
+}
@@ -0,0 +1,98 @@
+package com.sahil.musicplayer.controllers;
+
+import com.sahil.musicplayer.dto.PlaylistEntryRequest;
+import com.sahil.musicplayer.dto.PlaylistItem;
+import com.sahil.musicplayer.dto.PlaylistMoveRequest;
+import com.sahil.musicplayer.dto.PlaylistPage;
+import com.sahil.musicplayer.dto.PlaylistRequest;
+import com.sahil.musicplayer.model.Playlist;
+import com.sahil.musicplayer.model.User;
+import com.sahil.musicplayer.service.PlaylistService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/playlists")
+@PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+@RequiredArgsConstructor
+public class PlaylistController {
+
+    private final PlaylistService playlistService;
+
+    @Value("${playlists.page.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${playlists.page.max-size:200}")
+    private int maxPageSize;
+
+    @GetMapping
+    public ResponseEntity<List<Playlist>> getPlaylists(@AuthenticationPrincipal User user) {
+        return ResponseEntity.ok(playlistService.getPlaylists(user.getId()));
+    }
+
+    @PostMapping
+    public ResponseEntity<Playlist> createPlaylist(@Valid @RequestBody PlaylistRequest request,
+                                                   @AuthenticationPrincipal User user) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(playlistService.createPlaylist(user.getId(), request));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<Playlist> getPlaylist(@PathVariable String id,
+                                                @AuthenticationPrincipal User user) {
+        return ResponseEntity.ok(playlistService.getPlaylist(user.getId(), id));
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<Playlist> updatePlaylist(@PathVariable String id,
+                                                   @Valid @RequestBody PlaylistRequest request,
+                                                   @AuthenticationPrincipal User user) {
+        return ResponseEntity.ok(playlistService.updatePlaylist(user.getId(), id, request));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<String> deletePlaylist(@PathVariable String id,
+                                                 @AuthenticationPrincipal User user) {
+        playlistService.deletePlaylist(user.getId(), id);
+        return ResponseEntity.ok("Playlist deleted successfully");
+    }
+
+    @GetMapping("/{id}/entries")
+    public ResponseEntity<PlaylistPage> getEntries(@PathVariable String id,
+                                                   @RequestParam(value = "cursor", required = false) String cursor,
+                                                   @RequestParam(value = "limit", required = false) Integer limit,
+                                                   @AuthenticationPrincipal User user) {
+        int pageSize = limit == null ? defaultPageSize : Math.max(1, Math.min(limit, maxPageSize));
+        return ResponseEntity.ok(playlistService.getEntries(user.getId(), id, cursor, pageSize));
+    }
+
+    @PostMapping("/{id}/entries")
+    public ResponseEntity<PlaylistItem> addEntry(@PathVariable String id,
+                                                 @Valid @RequestBody PlaylistEntryRequest request,
+                                                 @AuthenticationPrincipal User user) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(playlistService.addEntry(user.getId(), id, request));
+    }
+
+    @PutMapping("/{id}/entries/{entryId}/position")
+    public ResponseEntity<PlaylistItem> moveEntry(@PathVariable String id,
+                                                  @PathVariable String entryId,
+                                                  @RequestBody PlaylistMoveRequest request,
+                                                  @AuthenticationPrincipal User user) {
+        return ResponseEntity.ok(playlistService.moveEntry(user.getId(), id, entryId, request));
+    }
+
+    @DeleteMapping("/{id}/entries/{entryId}")
+    public ResponseEntity<String> removeEntry(@PathVariable String id,
+                                              @PathVariable String entryId,
+                                              @AuthenticationPrincipal User user) {
+        playlistService.removeEntry(user.getId(), id, entryId);
+        return ResponseEntity.ok("Song removed from playlist");
+    }
+}
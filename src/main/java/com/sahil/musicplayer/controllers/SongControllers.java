@@ -1,12 +1,27 @@
 package com.sahil.musicplayer.controllers;
 
+import com.sahil.musicplayer.dto.PlayEventRequest;
+import com.sahil.musicplayer.dto.SongPage;
+import com.sahil.musicplayer.dto.Suggestion;
 import com.sahil.musicplayer.model.Song;
+import com.sahil.musicplayer.model.User;
+import com.sahil.musicplayer.play.PopularWindow;
+import com.sahil.musicplayer.service.CatalogVersionService;
+import com.sahil.musicplayer.service.FavoriteService;
+import com.sahil.musicplayer.service.PlayEventService;
+import com.sahil.musicplayer.service.PopularityService;
+import com.sahil.musicplayer.service.RecommendationService;
 import com.sahil.musicplayer.service.SongService;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
@@ -17,6 +32,17 @@ import java.util.List;
 public class SongControllers {
 
     private final SongService songService;
+    private final FavoriteService favoriteService;
+    private final PlayEventService playEventService;
+    private final PopularityService popularityService;
+    private final RecommendationService recommendationService;
+    private final CatalogVersionService catalogVersion;
+
+    @Value("${songs.page.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${songs.page.max-size:200}")
+    private int maxPageSize;
 
     @PostMapping("/upload")
     @PreAuthorize("hasRole('ADMIN')")
@@ -26,6 +52,8 @@ public class SongControllers {
         try {
             Song uploaded = songService.uploadSong(file, title, artist);
             return ResponseEntity.ok(uploaded);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Failed to upload song: " + e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Failed to upload song: " + e.getMessage());
@@ -34,16 +62,88 @@ public class SongControllers {
 
     @GetMapping
     @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
-    public ResponseEntity<List<Song>> getAllSongs() {
-        List<Song> songs = songService.getAllSongs();
+    public ResponseEntity<SongPage> getAllSongs(@RequestParam(value = "cursor", required = false) String cursor,
+                                                @RequestParam(value = "limit", required = false) Integer limit,
+                                                @RequestParam(value = "sort", defaultValue = "id") String sort,
+                                                WebRequest request) {
+        int pageSize = limit == null ? defaultPageSize : Math.max(1, Math.min(limit, maxPageSize));
+        // Any catalog change moves the version, so a matching poll is answered before a page is loaded.
+        // The version must be read before the page: writers bump it only after evicting the pages they
+        // touch, and SongCatalogCache never keeps a page loaded across a write, so the body served is
+        // never older than the tag.
+        String etag = "\"c" + catalogVersion.current() + "\"";
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        SongPage page = songService.getSongsPage(cursor, pageSize, sort);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(etag)
+                .body(page);
+    }
+
+    @GetMapping("/search")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
+    public ResponseEntity<List<Song>> searchSongs(@RequestParam("q") String query,
+                                                  @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        List<Song> songs = songService.searchSongs(query, Math.max(1, Math.min(limit, maxPageSize)));
         return ResponseEntity.ok(songs);
     }
 
+    @GetMapping("/suggest")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
+    public ResponseEntity<List<Suggestion>> suggestSongs(@RequestParam("q") String prefix,
+                                                         @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        List<Suggestion> suggestions = songService.suggestSongs(prefix, Math.max(1, limit));
+        return ResponseEntity.ok(suggestions);
+    }
+
+    @GetMapping("/recent")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
+    public ResponseEntity<List<Song>> getRecentlyPlayed(@RequestParam(value = "limit", defaultValue = "20") int limit,
+                                                        @AuthenticationPrincipal User user) {
+        return ResponseEntity.ok(playEventService.getRecentlyPlayed(user.getId(), limit));
+    }
+
+    @GetMapping("/popular")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
+    public ResponseEntity<List<Song>> getPopularSongs(@RequestParam(value = "window", defaultValue = "day") String window,
+                                                      @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        return ResponseEntity.ok(popularityService.getPopular(PopularWindow.parse(window), limit));
+    }
+
+    @GetMapping("/{id}/recommendations")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
+    public ResponseEntity<List<Song>> getRecommendations(@PathVariable String id,
+                                                         @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        return ResponseEntity.ok(recommendationService.getRecommendations(id, Math.max(1, Math.min(limit, maxPageSize))));
+    }
+
+    @PostMapping("/{id}/plays")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<Void> recordPlay(@PathVariable String id,
+                                           @Valid @RequestBody(required = false) PlayEventRequest request,
+                                           @AuthenticationPrincipal User user) {
+        songService.getSongById(id);
+        Long listenedMs = request != null ? request.getListenedMs() : null;
+        if (!playEventService.record(user.getId(), id, listenedMs)) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "1").build();
+        }
+        return ResponseEntity.accepted().build();
+    }
+
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
-    public ResponseEntity<Song> getSongById(@PathVariable String id) {
+    public ResponseEntity<Song> getSongById(@PathVariable String id, WebRequest request) {
         Song song = songService.getSongById(id);
-        return ResponseEntity.ok(song);
+        String etag = songEtag(song);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(etag)
+                .body(song);
     }
 
 
@@ -74,13 +174,21 @@ public class SongControllers {
 
     @PutMapping("/{id}/favorite")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-    public ResponseEntity<String> toggleFavorite(@PathVariable String id) {
+    public ResponseEntity<String> toggleFavorite(@PathVariable String id,
+                                                 @AuthenticationPrincipal User user) {
         try {
-            songService.toggleFavorite(id);
+            favoriteService.toggleFavorite(user.getId(), id);
             return ResponseEntity.ok("Favorite status updated");
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body("Failed to update favorite: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    // Edits bump the version; play counts change without one, so they are part of the tag as well
+    private static String songEtag(Song song) {
+        long version = song.getVersion() != null ? song.getVersion() : 0L;
+        long playCount = song.getPlayCount() != null ? song.getPlayCount() : 0L;
+        return "\"" + song.getId() + "." + version + "." + playCount + "\"";
+    }
+}
@@ -0,0 +1,37 @@
+package com.sahil.musicplayer.controllers;
+
+import com.sahil.musicplayer.dto.ImportManifest;
+import com.sahil.musicplayer.dto.ImportReport;
+import com.sahil.musicplayer.service.SongImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/api/admin/songs/import")
+@PreAuthorize("hasRole('ADMIN')")
+@RequiredArgsConstructor
+public class SongImportController {
+
+    private final SongImportService songImportService;
+
+    // Zip archive as the raw request body; "Artist - Title.mp3" entry names supply the metadata
+    @PostMapping(consumes = {"application/zip", MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<ImportReport> importArchive(HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(songImportService.importArchive(request.getInputStream()));
+    }
+
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ImportReport> importManifest(@Valid @RequestBody ImportManifest manifest) {
+        return ResponseEntity.ok(songImportService.importManifest(manifest));
+    }
+}
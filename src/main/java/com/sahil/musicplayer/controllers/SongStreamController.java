@@ -0,0 +1,276 @@
+package com.sahil.musicplayer.controllers;
+
+import com.sahil.musicplayer.audio.HlsPlaylist;
+import com.sahil.musicplayer.audio.SeekIndex;
+import com.sahil.musicplayer.audio.Waveform;
+import com.sahil.musicplayer.model.Song;
+import com.sahil.musicplayer.service.MediaPipeline;
+import com.sahil.musicplayer.service.SongService;
+import com.sahil.musicplayer.service.StreamTokenService;
+import com.sahil.musicplayer.storage.StorageBackend;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Serves song audio with single-range support. Files on local storage go out through Tomcat's
+// sendfile when the connector offers it, otherwise through FileChannel.transferTo; either way the
+// bytes are never copied onto the heap. Songs held elsewhere redirect to the storage URL.
+//
+// Audio elements cannot send the Authorization header, so the media endpoints also accept a signed,
+// expiring grant from /stream-url in the query string.
+@Slf4j
+@RestController
+@RequestMapping("/api/songs")
+@RequiredArgsConstructor
+public class SongStreamController {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final Pattern SINGLE_RANGE = Pattern.compile("^bytes=(\\d*)-(\\d*)$");
+    // Stored files are never rewritten in place, but access is per user, so only the browser may keep them
+    private static final String CACHE_CONTROL = CacheControl.maxAge(Duration.ofHours(1))
+            .cachePrivate().getHeaderValue();
+
+    private final SongService songService;
+    private final StorageBackend storageBackend;
+    private final MediaPipeline mediaPipeline;
+    private final StreamTokenService streamTokenService;
+
+    @Value("${media.hls.segment-seconds:6}")
+    private double segmentSeconds;
+
+    @GetMapping("/{id}/stream-url")
+    public ResponseEntity<Map<String, Object>> getStreamUrl(@PathVariable String id) {
+        songService.getSongById(id);
+        StreamTokenService.Grant grant = streamTokenService.issue(id);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("streamUrl", "/api/songs/" + id + "/stream?" + grant.query());
+        result.put("playlistUrl", "/api/songs/" + id + "/playlist.m3u8?" + grant.query());
+        result.put("expiresAt", Instant.ofEpochSecond(grant.expires()));
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(result);
+    }
+
+    @GetMapping("/{id}/stream")
+    public void streamSong(@PathVariable String id,
+                           @RequestParam(value = "expires", required = false) Long expires,
+                           @RequestParam(value = "token", required = false) String token,
+                           HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (!authorized(id, expires, token)) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+        Song song = songService.getSongById(id);
+        Path file = song.getPublicId() != null ? storageBackend.localPath(song.getPublicId()).orElse(null) : null;
+        if (file == null) {
+            if (song.getUrl() == null) {
+                response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            } else {
+                response.sendRedirect(song.getUrl());
+            }
+            return;
+        }
+
+        long length = Files.size(file);
+        long lastModified = Files.getLastModifiedTime(file).toMillis();
+        String etag = etag(song, length, lastModified);
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        // Sets ETag and Last-Modified, and answers 304 on a conditional hit
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            return;
+        }
+
+        long start = 0;
+        long end = length;
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader != null && ifRangeMatches(request, etag, lastModified)) {
+            Matcher matcher = SINGLE_RANGE.matcher(rangeHeader.trim());
+            // Multi-range and malformed headers are ignored and the whole file is sent, as RFC 9110 allows
+            if (matcher.matches() && !(matcher.group(1).isEmpty() && matcher.group(2).isEmpty())) {
+                if (matcher.group(1).isEmpty()) {
+                    start = Math.max(0, length - parseOrMax(matcher.group(2)));
+                } else {
+                    start = parseOrMax(matcher.group(1));
+                    if (!matcher.group(2).isEmpty()) {
+                        end = Math.min(length, parseOrMax(matcher.group(2)) + 1);
+                    }
+                }
+                if (start >= length || start >= end) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    return;
+                }
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + (end - 1) + "/" + length);
+            }
+        }
+
+        response.setContentType("audio/mpeg");
+        response.setContentLengthLong(end - start);
+        if ("HEAD".equals(request.getMethod()) || end == start) {
+            return;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end);
+            return;
+        }
+
+        try (FileChannel source = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel sink = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position < end) {
+                position += source.transferTo(position, end - position, sink);
+            }
+        } catch (IOException e) {
+            // Players drop connections whenever the user seeks
+            log.debug("Stream of song {} ended early: {}", id, e.getMessage());
+        }
+    }
+
+    // HLS playlist of byte-range segments of the song's file; 404 until the seek index is built
+    @GetMapping("/{id}/playlist.m3u8")
+    public ResponseEntity<String> getPlaylist(@PathVariable String id,
+                                              @RequestParam(value = "expires", required = false) Long expires,
+                                              @RequestParam(value = "token", required = false) String token) {
+        if (!authorized(id, expires, token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        songService.getSongById(id);
+        SeekIndex index = mediaPipeline.getSeekIndex(id).orElse(null);
+        if (index == null) {
+            return ResponseEntity.notFound().build();
+        }
+        // Segments always go through /stream relative to this playlist, with a grant since players
+        // fetch them without headers; the storage URL is never exposed
+        StreamTokenService.Grant grant = streamTokenService.verify(id, expires, token)
+                ? new StreamTokenService.Grant(expires, token)
+                : streamTokenService.issue(id);
+        String playlist = HlsPlaylist.render(index, segmentSeconds, "stream?" + grant.query());
+        long validFor = Math.max(0, grant.expires() - Instant.now().getEpochSecond());
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(HlsPlaylist.CONTENT_TYPE))
+                .cacheControl(CacheControl.maxAge(Duration.ofSeconds(Math.min(validFor, 3600))).cachePrivate())
+                .eTag("\"" + DigestUtils.md5DigestAsHex(playlist.getBytes(StandardCharsets.UTF_8)) + "\"")
+                .body(playlist);
+    }
+
+    // Waveform peaks, one unsigned byte (0-255) per point; 404 until the song has been analysed
+    @GetMapping("/{id}/waveform")
+    public ResponseEntity<byte[]> getWaveform(@PathVariable String id,
+                                              @RequestParam(value = "points", defaultValue = "200") int points) {
+        songService.getSongById(id);
+        Waveform waveform = mediaPipeline.getWaveform(id).orElse(null);
+        if (waveform == null) {
+            return ResponseEntity.notFound().build();
+        }
+        byte[] peaks = waveform.peaks(points);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .cacheControl(CacheControl.maxAge(Duration.ofDays(1)).cachePrivate())
+                .eTag("\"" + DigestUtils.md5DigestAsHex(peaks) + "\"")
+                .header("X-Waveform-Max-Points", String.valueOf(waveform.getMaxPoints()))
+                .body(peaks);
+    }
+
+    // Frame-accurate byte offset for a playback position, for clients that seek with a plain Range request
+    @GetMapping("/{id}/seek")
+    public ResponseEntity<Map<String, Object>> seek(@PathVariable String id, @RequestParam("ms") long positionMs) {
+        songService.getSongById(id);
+        SeekIndex index = mediaPipeline.getSeekIndex(id).orElse(null);
+        if (index == null) {
+            return ResponseEntity.notFound().build();
+        }
+        int frame = index.frameAt(positionMs);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("frame", frame);
+        result.put("timeMs", index.timeOfMs(frame));
+        result.put("offset", index.offsetOf(frame));
+        result.put("durationMs", index.getDurationMs());
+        return ResponseEntity.ok(result);
+    }
+
+    // A valid grant for this song, or a request that authenticated the usual way
+    private boolean authorized(String id, Long expires, String token) {
+        if (streamTokenService.verify(id, expires, token)) {
+            return true;
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken);
+    }
+
+    // The content hash identifies the bytes exactly; older songs fall back to size and mtime
+    private static String etag(Song song, long length, long lastModified) {
+        String tag = song.getContentHash() != null
+                ? song.getContentHash()
+                : Long.toHexString(length) + "-" + Long.toHexString(lastModified);
+        return "\"" + tag + "\"";
+    }
+
+    // A stale If-Range means the client's partial copy is out of date, so it gets the full file
+    private static boolean ifRangeMatches(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        ifRange = ifRange.trim();
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            // Strong comparison: a weak validator never matches
+            return ifRange.equals(etag);
+        }
+        try {
+            return request.getDateHeader(HttpHeaders.IF_RANGE) / 1000 == lastModified / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static long parseOrMax(String digits) {
+        try {
+            return Long.parseLong(digits);
+        } catch (NumberFormatException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+}
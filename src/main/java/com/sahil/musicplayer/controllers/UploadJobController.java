@@ -0,0 +1,47 @@
+package com.sahil.musicplayer.controllers;
+
+import com.sahil.musicplayer.dto.UploadJobStatus;
+import com.sahil.musicplayer.model.User;
+import com.sahil.musicplayer.service.UploadJobService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.net.URI;
+
+@RestController
+@RequestMapping("/api/songs/upload/jobs")
+@PreAuthorize("hasRole('ADMIN')")
+@RequiredArgsConstructor
+public class UploadJobController {
+
+    private final UploadJobService uploadJobService;
+
+    @PostMapping
+    public ResponseEntity<UploadJobStatus> submit(@RequestParam("file") MultipartFile file,
+                                                  @RequestParam("title") String title,
+                                                  @RequestParam("artist") String artist,
+                                                  @AuthenticationPrincipal User user) throws IOException {
+        UploadJobStatus job = uploadJobService.submit(user.getId(), file, title, artist);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/songs/upload/jobs/" + job.getId()))
+                .body(job);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<UploadJobStatus> getStatus(@PathVariable String id,
+                                                     @AuthenticationPrincipal User user) {
+        return ResponseEntity.ok(uploadJobService.getStatus(id, user.getId()));
+    }
+
+    @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(@PathVariable String id, @AuthenticationPrincipal User user) throws IOException {
+        return uploadJobService.subscribe(id, user.getId());
+    }
+}
@@ -0,0 +1,65 @@
+package com.sahil.musicplayer.controllers;
+
+import com.sahil.musicplayer.dto.UploadSessionRequest;
+import com.sahil.musicplayer.dto.UploadSessionStatus;
+import com.sahil.musicplayer.model.User;
+import com.sahil.musicplayer.service.UploadSessionService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/api/songs/uploads")
+@PreAuthorize("hasRole('ADMIN')")
+@RequiredArgsConstructor
+public class UploadSessionController {
+
+    public static final String CHECKSUM_HEADER = "X-Chunk-SHA256";
+
+    private final UploadSessionService uploadSessionService;
+
+    @PostMapping
+    public ResponseEntity<UploadSessionStatus> createSession(@Valid @RequestBody UploadSessionRequest request,
+                                                             @AuthenticationPrincipal User user) {
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(uploadSessionService.createSession(user.getId(), request));
+    }
+
+    // Raw chunk bytes in the body; read straight from the request stream without multipart parsing
+    @PutMapping(value = "/{id}/chunks/{index}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<UploadSessionStatus> putChunk(@PathVariable String id,
+                                                        @PathVariable int index,
+                                                        @RequestHeader(CHECKSUM_HEADER) String checksum,
+                                                        HttpServletRequest request,
+                                                        @AuthenticationPrincipal User user) throws IOException {
+        return ResponseEntity.ok(uploadSessionService.putChunk(id, user.getId(), index, checksum,
+                request.getInputStream()));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<UploadSessionStatus> getStatus(@PathVariable String id,
+                                                         @AuthenticationPrincipal User user) throws IOException {
+        return ResponseEntity.ok(uploadSessionService.getStatus(id, user.getId()));
+    }
+
+    @PostMapping("/{id}/complete")
+    public ResponseEntity<UploadSessionStatus> complete(@PathVariable String id,
+                                                        @AuthenticationPrincipal User user) throws IOException {
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(uploadSessionService.complete(id, user.getId()));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> abort(@PathVariable String id, @AuthenticationPrincipal User user) {
+        uploadSessionService.abort(id, user.getId());
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,10 +1,12 @@
 package com.sahil.musicplayer.controllers;
 
 import com.sahil.musicplayer.model.Song;
-import com.sahil.musicplayer.service.SongService;
+import com.sahil.musicplayer.model.User;
+import com.sahil.musicplayer.service.FavoriteService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -15,13 +17,11 @@ import java.util.List;
 @RequiredArgsConstructor
 public class UserController {
 
-    private final SongService songService;
+    private final FavoriteService favoriteService;
 
     @GetMapping("/songs/favorites")
-    public ResponseEntity<List<Song>> getFavoriteSongs() {
-        List<Song> favoriteSongs = songService.getAllSongs().stream()
-                .filter(Song::isFavorite)
-                .toList();
+    public ResponseEntity<List<Song>> getFavoriteSongs(@AuthenticationPrincipal User user) {
+        List<Song> favoriteSongs = favoriteService.getFavoriteSongs(user.getId());
         return ResponseEntity.ok(favoriteSongs);
     }
-}
\ No newline at end of file
+}
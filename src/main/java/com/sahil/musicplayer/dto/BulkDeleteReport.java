@@ -0,0 +1,21 @@
+package com.sahil.musicplayer.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkDeleteReport {
+    private int requested;
+    private int deleted;
+    private List<String> notFound;
+    // Removed from storage in the background by the outbox
+    private int queuedAssetDeletes;
+    private long durationMs;
+}
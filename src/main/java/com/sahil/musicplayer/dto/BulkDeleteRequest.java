@@ -0,0 +1,20 @@
+package com.sahil.musicplayer.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkDeleteRequest {
+    @NotEmpty(message = "At least one song id is required")
+    @Size(max = 5000, message = "At most 5000 songs can be deleted at once")
+    private List<String> ids;
+}
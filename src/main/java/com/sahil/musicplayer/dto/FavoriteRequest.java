@@ -0,0 +1,16 @@
+package com.sahil.musicplayer.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class FavoriteRequest {
+    @NotBlank(message = "Song id is required")
+    private String songId;
+}
@@ -0,0 +1,22 @@
+package com.sahil.musicplayer.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportItemResult {
+    private int index;
+    private String source;
+    private Status status;
+    private String songId;
+    private String error;
+
+    public enum Status {
+        IMPORTED, SKIPPED, FAILED
+    }
+}
@@ -0,0 +1,19 @@
+package com.sahil.musicplayer.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportManifest {
+    @NotEmpty(message = "At least one track is required")
+    private List<@Valid ImportTrack> tracks;
+}
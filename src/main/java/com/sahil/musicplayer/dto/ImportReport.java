@@ -0,0 +1,21 @@
+package com.sahil.musicplayer.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportReport {
+    private int total;
+    private int imported;
+    private int skipped;
+    private int failed;
+    private long durationMs;
+    private List<ImportItemResult> items;
+}
@@ -0,0 +1,19 @@
+package com.sahil.musicplayer.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportTrack {
+    @NotBlank(message = "Track url is required")
+    private String url;
+    private String fileName;
+    private String title;
+    private String artist;
+}
@@ -0,0 +1,16 @@
+package com.sahil.musicplayer.dto;
+
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PlayEventRequest {
+    @PositiveOrZero(message = "Listened time cannot be negative")
+    private Long listenedMs;
+}
@@ -0,0 +1,19 @@
+package com.sahil.musicplayer.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Goes after afterEntryId, or before beforeEntryId, or at the end when neither is given
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PlaylistEntryRequest {
+    @NotBlank(message = "Song id is required")
+    private String songId;
+    private String afterEntryId;
+    private String beforeEntryId;
+}
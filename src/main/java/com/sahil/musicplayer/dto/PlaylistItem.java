@@ -0,0 +1,18 @@
+package com.sahil.musicplayer.dto;
+
+import com.sahil.musicplayer.model.Song;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder(toBuilder = true)
+@AllArgsConstructor
+@NoArgsConstructor
+public class PlaylistItem {
+    private String entryId;
+    private String rank;
+    private String songId;
+    private Song song;
+}
@@ -0,0 +1,16 @@
+package com.sahil.musicplayer.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Moves the entry after afterEntryId, or before beforeEntryId; neither moves it to the end
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PlaylistMoveRequest {
+    private String afterEntryId;
+    private String beforeEntryId;
+}
@@ -0,0 +1,18 @@
+package com.sahil.musicplayer.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder(toBuilder = true)
+@AllArgsConstructor
+@NoArgsConstructor
+public class PlaylistPage {
+    private List<PlaylistItem> items;
+    private String nextCursor;
+    private boolean hasMore;
+}
@@ -0,0 +1,21 @@
+package com.sahil.musicplayer.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PlaylistRequest {
+    @NotBlank(message = "Playlist name is required")
+    @Size(max = 100, message = "Playlist name must be at most 100 characters")
+    private String name;
+
+    @Size(max = 500, message = "Description must be at most 500 characters")
+    private String description;
+}
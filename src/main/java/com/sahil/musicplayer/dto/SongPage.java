@@ -0,0 +1,19 @@
+package com.sahil.musicplayer.dto;
+
+import com.sahil.musicplayer.model.Song;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SongPage {
+    private List<Song> items;
+    private String nextCursor;
+    private boolean hasMore;
+}
@@ -0,0 +1,20 @@
+package com.sahil.musicplayer.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class Suggestion {
+    private String text;
+    private Type type;
+    private long weight;
+
+    public enum Type {
+        TITLE, ARTIST
+    }
+}
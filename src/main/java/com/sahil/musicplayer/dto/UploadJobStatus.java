@@ -0,0 +1,37 @@
+package com.sahil.musicplayer.dto;
+
+import com.sahil.musicplayer.model.UploadJob;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class UploadJobStatus {
+    private String id;
+    private UploadJob.Status status;
+    private String fileName;
+    private int attempts;
+    private String songId;
+    private String error;
+    private Instant createdAt;
+    private Instant finishedAt;
+
+    public static UploadJobStatus from(UploadJob job) {
+        return UploadJobStatus.builder()
+                .id(job.getId())
+                .status(job.getStatus())
+                .fileName(job.getFileName())
+                .attempts(job.getAttempts())
+                .songId(job.getSongId())
+                .error(job.getError())
+                .createdAt(job.getCreatedAt())
+                .finishedAt(job.getFinishedAt())
+                .build();
+    }
+}
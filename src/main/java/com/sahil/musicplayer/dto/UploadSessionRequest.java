@@ -0,0 +1,26 @@
+package com.sahil.musicplayer.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class UploadSessionRequest {
+    @NotBlank(message = "File name is required")
+    private String fileName;
+
+    @NotBlank(message = "Title is required")
+    private String title;
+
+    @NotBlank(message = "Artist is required")
+    private String artist;
+
+    @Positive(message = "Total size must be positive")
+    private long totalSize;
+}
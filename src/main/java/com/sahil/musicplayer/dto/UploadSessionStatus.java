@@ -0,0 +1,24 @@
+package com.sahil.musicplayer.dto;
+
+import com.sahil.musicplayer.model.UploadSession;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class UploadSessionStatus {
+    private String id;
+    private UploadSession.Status status;
+    private long totalSize;
+    private int chunkSize;
+    private int totalChunks;
+    private List<Integer> receivedChunks;
+    private String songId;
+    private String error;
+}
@@ -0,0 +1,10 @@
+package com.sahil.musicplayer.event;
+
+import com.sahil.musicplayer.model.PlayEvent;
+
+import java.util.List;
+
+// Published on the play event writer thread after each batch is written; listeners run inline
+// and should stay cheap
+public record PlaysRecordedEvent(List<PlayEvent> events) {
+}
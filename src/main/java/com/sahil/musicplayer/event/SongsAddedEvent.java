@@ -0,0 +1,9 @@
+package com.sahil.musicplayer.event;
+
+import com.sahil.musicplayer.model.Song;
+
+import java.util.List;
+
+// Published after new songs are saved, once per upload or bulk insert
+public record SongsAddedEvent(List<Song> songs) {
+}
@@ -0,0 +1,7 @@
+package com.sahil.musicplayer.event;
+
+import java.util.List;
+
+// Published after songs are deleted from the catalog
+public record SongsRemovedEvent(List<String> songIds) {
+}
@@ -30,11 +30,36 @@ public class GlobalExceptionHandler {
         return buildErrorResponse(HttpStatus.NOT_FOUND, "SONG_NOT_FOUND", ex.getMessage());
     }
 
+    @ExceptionHandler(UploadSessionNotFoundException.class)
+    public ResponseEntity<ApiErrorResponse> handleUploadSessionNotFound(UploadSessionNotFoundException ex) {
+        return buildErrorResponse(HttpStatus.NOT_FOUND, "UPLOAD_SESSION_NOT_FOUND", ex.getMessage());
+    }
+
+    @ExceptionHandler(UploadJobNotFoundException.class)
+    public ResponseEntity<ApiErrorResponse> handleUploadJobNotFound(UploadJobNotFoundException ex) {
+        return buildErrorResponse(HttpStatus.NOT_FOUND, "UPLOAD_JOB_NOT_FOUND", ex.getMessage());
+    }
+
+    @ExceptionHandler(PlaylistNotFoundException.class)
+    public ResponseEntity<ApiErrorResponse> handlePlaylistNotFound(PlaylistNotFoundException ex) {
+        return buildErrorResponse(HttpStatus.NOT_FOUND, "PLAYLIST_NOT_FOUND", ex.getMessage());
+    }
+
+    @ExceptionHandler(PlaylistEntryNotFoundException.class)
+    public ResponseEntity<ApiErrorResponse> handlePlaylistEntryNotFound(PlaylistEntryNotFoundException ex) {
+        return buildErrorResponse(HttpStatus.NOT_FOUND, "PLAYLIST_ENTRY_NOT_FOUND", ex.getMessage());
+    }
+
     @ExceptionHandler(UserAlreadyExistsException.class)
     public ResponseEntity<ApiErrorResponse> handleUserAlreadyExists(UserAlreadyExistsException ex) {
         return buildErrorResponse(HttpStatus.CONFLICT, "USER_ALREADY_EXISTS", ex.getMessage());
     }
 
+    @ExceptionHandler(PlaylistConflictException.class)
+    public ResponseEntity<ApiErrorResponse> handlePlaylistConflict(PlaylistConflictException ex) {
+        return buildErrorResponse(HttpStatus.CONFLICT, "PLAYLIST_CONFLICT", ex.getMessage());
+    }
+
     @ExceptionHandler(BadCredentialsException.class)
     public ResponseEntity<ApiErrorResponse> handleBadCredentials(BadCredentialsException ex) {
         return buildErrorResponse(HttpStatus.UNAUTHORIZED, "INVALID_CREDENTIALS", "Invalid username or password");
@@ -0,0 +1,8 @@
+package com.sahil.musicplayer.exception;
+
+// Extends IllegalArgumentException so it is reported as a 400 like other bad input
+public class InvalidAudioException extends IllegalArgumentException {
+    public InvalidAudioException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.sahil.musicplayer.exception;
+
+public class PlaylistConflictException extends RuntimeException {
+    public PlaylistConflictException(String message) {
+        super(message);
+    }
+}
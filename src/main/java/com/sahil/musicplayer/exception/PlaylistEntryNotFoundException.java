@@ -0,0 +1,7 @@
+package com.sahil.musicplayer.exception;
+
+public class PlaylistEntryNotFoundException extends RuntimeException {
+    public PlaylistEntryNotFoundException(String entryId) {
+        super("Playlist entry not found with id: " + entryId);
+    }
+}
@@ -0,0 +1,7 @@
+package com.sahil.musicplayer.exception;
+
+public class PlaylistNotFoundException extends RuntimeException {
+    public PlaylistNotFoundException(String playlistId) {
+        super("Playlist not found with id: " + playlistId);
+    }
+}
@@ -0,0 +1,7 @@
+package com.sahil.musicplayer.exception;
+
+public class UploadJobNotFoundException extends RuntimeException {
+    public UploadJobNotFoundException(String jobId) {
+        super("Upload job not found with id: " + jobId);
+    }
+}
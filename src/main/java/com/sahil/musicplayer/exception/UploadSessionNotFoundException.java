@@ -0,0 +1,7 @@
+package com.sahil.musicplayer.exception;
+
+public class UploadSessionNotFoundException extends RuntimeException {
+    public UploadSessionNotFoundException(String sessionId) {
+        super("Upload session not found with id: " + sessionId);
+    }
+}
@@ -33,7 +33,8 @@ public class RateLimitInterceptor implements HandlerInterceptor {
 
     private String getBucketKey(HttpServletRequest request) {
         String path = request.getRequestURI();
-        if (path.contains("/upload")) {
+        if ("POST".equals(request.getMethod()) && (path.endsWith("/upload") || path.endsWith("/uploads")
+                || path.endsWith("/upload/jobs"))) {
             return "upload";
         } else if (path.contains("/search")) {
             return "search";
@@ -0,0 +1,26 @@
+package com.sahil.musicplayer.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+@Document(collection = "favorites")
+@CompoundIndex(name = "user_song_idx", def = "{'userId': 1, 'songId': 1}", unique = true)
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class Favorite {
+
+    @Id
+    private String id;
+    private String userId;
+    @Indexed
+    private String songId;
+    @Indexed
+    private Instant createdAt;
+}
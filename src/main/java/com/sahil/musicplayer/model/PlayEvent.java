@@ -0,0 +1,28 @@
+package com.sahil.musicplayer.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.TimeSeries;
+import org.springframework.data.mongodb.core.timeseries.Granularity;
+
+import java.time.Instant;
+
+// One listen. Stored in a time-series collection bucketed by song, so a burst of plays for a track
+// lands in a handful of bucket documents instead of one document per event.
+@Document(collection = "play_events")
+@TimeSeries(timeField = "playedAt", metaField = "songId", granularity = Granularity.MINUTES)
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PlayEvent {
+
+    @Id
+    private String id;
+    private String songId;
+    private String userId;
+    private Instant playedAt;
+    // How much of the song was heard, when the client reports it
+    private Long listenedMs;
+}
@@ -0,0 +1,30 @@
+package com.sahil.musicplayer.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+// Playlist metadata only; the songs are PlaylistEntry documents, so editing the list never
+// rewrites this document beyond its counters
+@Document(collection = "playlists")
+@CompoundIndex(name = "owner_created_idx", def = "{'ownerId': 1, 'createdAt': -1}")
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class Playlist {
+
+    @Id
+    private String id;
+    private String ownerId;
+    private String name;
+    private String description;
+    private long entryCount;
+    private Instant createdAt;
+    private Instant updatedAt;
+    // Bumped by every entry change, so a first page loaded before the change is never cached
+    private long entriesVersion;
+}
@@ -0,0 +1,28 @@
+package com.sahil.musicplayer.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+// One song in a playlist. Position is a RankKeys key: entries sort by rank within the playlist,
+// and moving an entry rewrites its rank and nothing else.
+@Document(collection = "playlist_entries")
+@CompoundIndex(name = "playlist_rank_idx", def = "{'playlistId': 1, 'rank': 1}", unique = true)
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PlaylistEntry {
+
+    @Id
+    private String id;
+    private String playlistId;
+    @Indexed
+    private String songId;
+    private String rank;
+    private Instant addedAt;
+}
@@ -1,13 +1,18 @@
 package com.sahil.musicplayer.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.*;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import java.time.Instant;
+
 @Document(collection = "songs")
+@CompoundIndex(name = "title_id_idx", def = "{'title': 1, '_id': 1}")
 @Data
-@Builder
+@Builder(toBuilder = true)
 @AllArgsConstructor
 @NoArgsConstructor
 public class Song {
@@ -21,6 +26,28 @@ public class Song {
     private String artist;
     private String url;
     private String publicId;
+    // SHA-256 of the uploaded file, so a re-upload links to this song instead of storing a copy
+    @Indexed(unique = true, sparse = true)
+    private String contentHash;
+
+    // Read from the MP3 itself at upload time; null for songs uploaded before it was recorded
+    private String album;
+    private String genre;
+    private Integer year;
+    private Long durationMs;
+    private Integer bitrateKbps;
+    private Integer sampleRate;
+    private Boolean vbr;
+
+    // Maintained by PlayCountService in periodic batches, so it can trail the latest plays by a few seconds
+    private Long playCount;
+
+    // Incremented by every edit; with playCount it makes up the song's ETag
+    private Long version;
+
+    // Set by MediaPipeline once the song's media is built or has failed for good; songs without it are
+    // its backfill queue. Bookkeeping only, so it is neither served nor cached.
     @Indexed
-    private boolean isFavorite;
+    @JsonIgnore
+    private Instant mediaBuiltAt;
 }
@@ -0,0 +1,32 @@
+package com.sahil.musicplayer.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+// Derived delivery data for a song, built in the background after upload. Shares the song's id.
+@Document(collection = "song_media")
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SongMedia {
+
+    @Id
+    private String id;
+    private Status status;
+    // SeekIndex in its compact stored form
+    private byte[] seekIndex;
+    // Waveform peak pyramid in its compact stored form
+    private byte[] waveform;
+    private Integer frameCount;
+    private Long durationMs;
+    private String error;
+    private Instant builtAt;
+
+    public enum Status {
+        READY, FAILED
+    }
+}
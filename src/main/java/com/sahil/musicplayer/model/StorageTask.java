@@ -0,0 +1,41 @@
+package com.sahil.musicplayer.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+// A storage side effect waiting to be applied by StorageOutbox. Done tasks are deleted; tasks that
+// run out of attempts stay behind as FAILED for inspection.
+@Document(collection = "storage_outbox")
+@CompoundIndex(name = "due_idx", def = "{'status': 1, 'notBefore': 1}")
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class StorageTask {
+
+    @Id
+    private String id;
+    private Type type;
+    private String key;
+    private String songId;
+    private Status status;
+    private int attempts;
+    private Instant notBefore;
+    // Set while a dispatcher holds the task; an expired lease makes it claimable again
+    private String claimToken;
+    private Instant leaseUntil;
+    private String lastError;
+    private Instant createdAt;
+
+    public enum Type {
+        DELETE
+    }
+
+    public enum Status {
+        PENDING, FAILED
+    }
+}
@@ -0,0 +1,50 @@
+package com.sahil.musicplayer.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+@Document(collection = "upload_jobs")
+@CompoundIndex(name = "claim_idx", def = "{'stagedOn': 1, 'status': 1, 'notBefore': 1, 'createdAt': 1}")
+@CompoundIndex(name = "lease_idx", def = "{'status': 1, 'leaseUntil': 1}")
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class UploadJob {
+
+    @Id
+    private String id;
+    private String ownerId;
+    private String fileName;
+    private String title;
+    private String artist;
+    private long size;
+    // Process that owns the job; the staged file only exists on the node that accepted the upload
+    private String stagedOn;
+    private String stagedPath;
+    private Status status;
+    private int attempts;
+    private String songId;
+    private String error;
+    private Instant createdAt;
+    private Instant notBefore;
+    private Instant startedAt;
+    private Instant leaseUntil;
+    private Instant finishedAt;
+    // Mongo drops finished jobs once this passes
+    @Indexed(expireAfter = "0s")
+    private Instant expiresAt;
+
+    public enum Status {
+        QUEUED, RUNNING, SUCCEEDED, FAILED;
+
+        public boolean isFinished() {
+            return this == SUCCEEDED || this == FAILED;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.sahil.musicplayer.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+@Document(collection = "upload_sessions")
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class UploadSession {
+
+    @Id
+    private String id;
+    private String ownerId;
+    private String fileName;
+    private String title;
+    private String artist;
+    private long totalSize;
+    private int chunkSize;
+    private int totalChunks;
+    private Status status;
+    private String songId;
+    private String error;
+    // Process assembling the session and how long it holds it; the owner renews the lease while it
+    // works, so an ASSEMBLING session whose lease ran out lost its assembler and can be finalized again
+    private String assemblingBy;
+    private Instant leaseUntil;
+    private Instant createdAt;
+    // Mongo drops abandoned sessions once this passes; their chunk directories are swept separately
+    @Indexed(expireAfter = "0s")
+    private Instant expiresAt;
+
+    public enum Status {
+        ACTIVE, ASSEMBLING, COMPLETED, FAILED
+    }
+}
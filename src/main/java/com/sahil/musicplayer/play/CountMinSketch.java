@@ -0,0 +1,117 @@
+package com.sahil.musicplayer.play;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// Count-min sketch over string keys: depth rows of width counters, each key hashed to one counter
+// per row. Estimates never undercount; with width w they overcount by at most about 2N/w with high
+// probability, where N is the total added. Sketches of the same shape merge by adding counters.
+public final class CountMinSketch {
+
+    private final int width;
+    private final int depth;
+    private final int mask;
+    private final int[] table;
+
+    public CountMinSketch(int width, int depth) {
+        if (width < 2 || Integer.bitCount(width) != 1 || depth < 1) {
+            throw new IllegalArgumentException("Width must be a power of two and depth positive");
+        }
+        this.width = width;
+        this.depth = depth;
+        this.mask = width - 1;
+        this.table = new int[width * depth];
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    // Adds count for the key and returns its new estimate
+    public int add(String key, int count) {
+        long h1 = mix(key.hashCode());
+        long h2 = mix(h1) | 1;
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int cell = row * width + (int) ((h1 + row * h2) & mask);
+            int value = table[cell] + count;
+            table[cell] = value;
+            estimate = Math.min(estimate, value);
+        }
+        return estimate;
+    }
+
+    public int estimate(String key) {
+        long h1 = mix(key.hashCode());
+        long h2 = mix(h1) | 1;
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, table[row * width + (int) ((h1 + row * h2) & mask)]);
+        }
+        return estimate;
+    }
+
+    public void merge(CountMinSketch other) {
+        if (other.width != width || other.depth != depth) {
+            throw new IllegalArgumentException("Cannot merge sketches of different shapes");
+        }
+        for (int i = 0; i < table.length; i++) {
+            table[i] += other.table[i];
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(table, 0);
+    }
+
+    // Width and depth followed by every counter as a varint; a sparse table is mostly single zero bytes
+    public byte[] toBytes() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(table.length + 8);
+        writeVarInt(out, width);
+        writeVarInt(out, depth);
+        for (int value : table) {
+            writeVarInt(out, value);
+        }
+        return out.toByteArray();
+    }
+
+    public static CountMinSketch decode(ByteBuffer in) {
+        CountMinSketch sketch = new CountMinSketch(readVarInt(in), readVarInt(in));
+        for (int i = 0; i < sketch.table.length; i++) {
+            sketch.table[i] = readVarInt(in);
+        }
+        return sketch;
+    }
+
+    static void writeVarInt(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    static int readVarInt(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint in sketch");
+    }
+
+    // SplitMix64 finalizer, so nearby hash codes land on unrelated counters
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
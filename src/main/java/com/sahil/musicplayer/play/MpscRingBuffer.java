@@ -0,0 +1,63 @@
+package com.sahil.musicplayer.play;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+// Bounded multi-producer, single-consumer ring. Producers claim a slot with one CAS on the tail and
+// publish by writing the slot; the consumer takes slots in order and stops at the first one whose
+// producer has claimed it but not yet written it. Nothing blocks: a full ring rejects the offer.
+public final class MpscRingBuffer<E> {
+
+    private final AtomicReferenceArray<E> slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    // Only the consumer advances head; producers read it to detect a full ring
+    private volatile long head;
+
+    public MpscRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    public boolean offer(E element) {
+        while (true) {
+            long claimed = tail.get();
+            if (claimed - head >= slots.length()) {
+                return false;
+            }
+            if (tail.compareAndSet(claimed, claimed + 1)) {
+                slots.lazySet((int) (claimed & mask), element);
+                return true;
+            }
+        }
+    }
+
+    // Consumer side only
+    public int drain(Consumer<E> sink, int max) {
+        long position = head;
+        int taken = 0;
+        while (taken < max) {
+            int index = (int) (position & mask);
+            E element = slots.get(index);
+            if (element == null) {
+                break;
+            }
+            slots.lazySet(index, null);
+            sink.accept(element);
+            position++;
+            taken++;
+        }
+        head = position;
+        return taken;
+    }
+
+    public int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+
+    public int capacity() {
+        return slots.length();
+    }
+}
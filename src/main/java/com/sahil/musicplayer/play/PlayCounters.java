@@ -0,0 +1,58 @@
+package com.sahil.musicplayer.play;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Per-song play counts for many concurrent writers and one flusher. Each song gets a LongAdder, which
+// spreads contended increments over striped cells; the adder is never reset, the flusher instead
+// remembers how much it has already written, so an increment racing a flush is picked up next time.
+public final class PlayCounters {
+
+    private final ConcurrentHashMap<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public void increment(String songId) {
+        Counter counter = counters.get(songId);
+        if (counter == null) {
+            counter = counters.computeIfAbsent(songId, id -> new Counter());
+        }
+        counter.plays.increment();
+    }
+
+    // Plays not yet written, per song; flusher only
+    public Map<String, Long> pending() {
+        Map<String, Long> pending = new HashMap<>();
+        counters.forEach((songId, counter) -> {
+            long delta = counter.plays.sum() - counter.flushed;
+            if (delta > 0) {
+                pending.put(songId, delta);
+            }
+        });
+        return pending;
+    }
+
+    // Records that the deltas returned by pending() are now stored; flusher only
+    public void markFlushed(Map<String, Long> flushed) {
+        flushed.forEach((songId, delta) -> {
+            Counter counter = counters.get(songId);
+            if (counter != null) {
+                counter.flushed += delta;
+            }
+        });
+    }
+
+    public void remove(Collection<String> songIds) {
+        songIds.forEach(counters::remove);
+    }
+
+    public int size() {
+        return counters.size();
+    }
+
+    private static final class Counter {
+        private final LongAdder plays = new LongAdder();
+        private long flushed;
+    }
+}
@@ -0,0 +1,39 @@
+package com.sahil.musicplayer.play;
+
+import java.time.Duration;
+import java.util.Locale;
+
+// Sliding windows for popularity, each a ring of equal buckets; the window advances a bucket at a time
+public enum PopularWindow {
+    HOUR(Duration.ofMinutes(5), 12),
+    DAY(Duration.ofHours(1), 24),
+    WEEK(Duration.ofHours(6), 28);
+
+    private final Duration bucket;
+    private final int buckets;
+
+    PopularWindow(Duration bucket, int buckets) {
+        this.bucket = bucket;
+        this.buckets = buckets;
+    }
+
+    public Duration getBucket() {
+        return bucket;
+    }
+
+    public int getBuckets() {
+        return buckets;
+    }
+
+    public Duration getLength() {
+        return bucket.multipliedBy(buckets);
+    }
+
+    public static PopularWindow parse(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown window: " + value + " (expected hour, day or week)");
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.sahil.musicplayer.play;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+// The k keys with the highest counts seen so far, fed with running estimates from a sketch. A min-heap
+// keeps the weakest candidate on top so a newcomer only has to beat that one to get in.
+public final class TopK {
+
+    private final int capacity;
+    private final Map<String, Entry> entries;
+    private final PriorityQueue<Entry> heap;
+
+    public TopK(int capacity) {
+        this.capacity = capacity;
+        this.entries = new HashMap<>(capacity * 2);
+        this.heap = new PriorityQueue<>(capacity, Comparator.comparingLong(Entry::count));
+    }
+
+    public void offer(String key, long count) {
+        Entry existing = entries.get(key);
+        if (existing != null) {
+            if (count > existing.count()) {
+                heap.remove(existing);
+                add(key, count);
+            }
+            return;
+        }
+        if (entries.size() < capacity) {
+            add(key, count);
+        } else if (count > heap.peek().count()) {
+            entries.remove(heap.poll().key());
+            add(key, count);
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public List<String> keys() {
+        return new ArrayList<>(entries.keySet());
+    }
+
+    // Highest count first
+    public List<Entry> ranked() {
+        List<Entry> ranked = new ArrayList<>(entries.values());
+        ranked.sort(Comparator.comparingLong(Entry::count).reversed().thenComparing(Entry::key));
+        return ranked;
+    }
+
+    public void clear() {
+        entries.clear();
+        heap.clear();
+    }
+
+    private void add(String key, long count) {
+        Entry entry = new Entry(key, count);
+        entries.put(key, entry);
+        heap.add(entry);
+    }
+
+    public record Entry(String key, long count) {
+    }
+}
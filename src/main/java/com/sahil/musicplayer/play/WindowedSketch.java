@@ -0,0 +1,134 @@
+package com.sahil.musicplayer.play;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+// One node's plays for a sliding window: a ring of buckets, each holding a count-min sketch and the
+// bucket's heaviest keys. A bucket is reset when the ring wraps onto it, and events older than the
+// bucket now in their slot are dropped. Not thread safe.
+public final class WindowedSketch {
+
+    private final PopularWindow window;
+    private final long bucketMillis;
+    private final Bucket[] ring;
+
+    public WindowedSketch(PopularWindow window, int width, int depth, int candidates) {
+        this.window = window;
+        this.bucketMillis = window.getBucket().toMillis();
+        this.ring = new Bucket[window.getBuckets()];
+        for (int i = 0; i < ring.length; i++) {
+            ring[i] = new Bucket(new CountMinSketch(width, depth), new TopK(candidates));
+        }
+    }
+
+    public PopularWindow getWindow() {
+        return window;
+    }
+
+    public long bucketIndex(long epochMillis) {
+        return epochMillis / bucketMillis;
+    }
+
+    public void add(String key, long epochMillis) {
+        long index = bucketIndex(epochMillis);
+        Bucket bucket = ring[(int) (index % ring.length)];
+        if (index < bucket.index) {
+            // A late event whose slot already holds a newer bucket is outside the window; resetting
+            // the slot for it would wipe the current counts
+            return;
+        }
+        if (index > bucket.index) {
+            bucket.reset(index);
+        }
+        bucket.candidates.offer(key, bucket.sketch.add(key, 1));
+        bucket.dirty = true;
+    }
+
+    // Encoded buckets that changed since the last call, keyed by bucket index
+    public List<Payload> takeDirty(long nowMillis) {
+        long oldest = bucketIndex(nowMillis) - ring.length + 1;
+        List<Payload> dirty = new ArrayList<>();
+        for (Bucket bucket : ring) {
+            if (bucket.dirty && bucket.index >= oldest) {
+                dirty.add(new Payload(bucket.index, encode(bucket.sketch, bucket.candidates)));
+            }
+            bucket.dirty = false;
+        }
+        return dirty;
+    }
+
+    // This node's buckets still inside the window, for when the shared copies cannot be read
+    public List<byte[]> live(long nowMillis) {
+        long oldest = bucketIndex(nowMillis) - ring.length + 1;
+        List<byte[]> live = new ArrayList<>();
+        for (Bucket bucket : ring) {
+            if (bucket.index >= oldest) {
+                live.add(encode(bucket.sketch, bucket.candidates));
+            }
+        }
+        return live;
+    }
+
+    // Sums encoded buckets, from any node, into one sketch and ranks the union of their candidates
+    public static List<TopK.Entry> rank(List<byte[]> payloads, int width, int depth, int limit) {
+        CountMinSketch total = new CountMinSketch(width, depth);
+        List<String> candidates = new ArrayList<>();
+        for (byte[] payload : payloads) {
+            ByteBuffer in = ByteBuffer.wrap(payload);
+            CountMinSketch sketch = CountMinSketch.decode(in);
+            if (sketch.getWidth() != width || sketch.getDepth() != depth) {
+                continue;
+            }
+            total.merge(sketch);
+            int count = CountMinSketch.readVarInt(in);
+            for (int i = 0; i < count; i++) {
+                byte[] key = new byte[CountMinSketch.readVarInt(in)];
+                in.get(key);
+                candidates.add(new String(key, StandardCharsets.UTF_8));
+            }
+        }
+        TopK top = new TopK(limit);
+        for (String key : candidates) {
+            top.offer(key, total.estimate(key));
+        }
+        return top.ranked();
+    }
+
+    private static byte[] encode(CountMinSketch sketch, TopK candidates) {
+        byte[] table = sketch.toBytes();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(table.length + candidates.size() * 26);
+        out.write(table, 0, table.length);
+        List<String> keys = candidates.keys();
+        CountMinSketch.writeVarInt(out, keys.size());
+        for (String key : keys) {
+            byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+            CountMinSketch.writeVarInt(out, bytes.length);
+            out.write(bytes, 0, bytes.length);
+        }
+        return out.toByteArray();
+    }
+
+    public record Payload(long bucketIndex, byte[] bytes) {
+    }
+
+    private static final class Bucket {
+        private final CountMinSketch sketch;
+        private final TopK candidates;
+        private long index = -1;
+        private boolean dirty;
+
+        private Bucket(CountMinSketch sketch, TopK candidates) {
+            this.sketch = sketch;
+            this.candidates = candidates;
+        }
+
+        private void reset(long newIndex) {
+            sketch.clear();
+            candidates.clear();
+            index = newIndex;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.sahil.musicplayer.playlist;
+
+// Lexicographic fractional keys for ordered lists. Keys are base-62 digit strings compared as plain
+// strings (0-9 < A-Z < a-z, which is also their byte order in Mongo), read as fractions 0.d1d2d3...
+// There is always room between two keys, so placing an entry means writing that entry's key alone.
+// Keys never end in '0'; otherwise nothing would fit between "x" and "x0". Appending and prepending
+// step by one unit in the sixth digit instead of halving the gap, so keys at the ends of a list stay
+// six characters long instead of growing with every append.
+public final class RankKeys {
+
+    private static final String DIGITS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+    private static final int BASE = DIGITS.length();
+    private static final int STEP_DIGITS = 6;
+
+    private RankKeys() {
+    }
+
+    // A key strictly between after and before; either may be null for the start or end of the list
+    public static String between(String after, String before) {
+        String low = after != null ? after : "";
+        if (before != null && low.compareTo(before) >= 0) {
+            throw new IllegalArgumentException("Rank " + after + " does not sort before " + before);
+        }
+        if (before == null && after != null) {
+            String next = step(after, 1);
+            if (next != null) {
+                return next;
+            }
+        } else if (after == null && before != null) {
+            String previous = step(before, -1);
+            if (previous != null) {
+                return previous;
+            }
+        }
+        StringBuilder key = new StringBuilder();
+        String high = before;
+        for (int i = 0; ; i++) {
+            int lo = i < low.length() ? digit(low.charAt(i)) : 0;
+            int hi = high != null ? (i < high.length() ? digit(high.charAt(i)) : 0) : BASE;
+            if (lo == hi) {
+                key.append(DIGITS.charAt(lo));
+                continue;
+            }
+            int mid = (lo + hi) >>> 1;
+            if (mid > lo) {
+                return key.append(DIGITS.charAt(mid)).toString();
+            }
+            // Adjacent digits: keep the lower one, after which any suffix greater than the rest of
+            // the lower key also sorts below the upper key
+            key.append(DIGITS.charAt(lo));
+            high = null;
+        }
+    }
+
+    // The key cut to STEP_DIGITS digits and moved one unit up or down; null when that runs off either end
+    private static String step(String key, int direction) {
+        int[] digits = new int[STEP_DIGITS];
+        for (int i = 0; i < STEP_DIGITS && i < key.length(); i++) {
+            digits[i] = digit(key.charAt(i));
+        }
+        // Cutting off a nonzero tail already lands below the key
+        boolean truncated = key.length() > STEP_DIGITS;
+        if (direction > 0 || !truncated) {
+            int i = STEP_DIGITS - 1;
+            while (i >= 0 && digits[i] == (direction > 0 ? BASE - 1 : 0)) {
+                digits[i] = direction > 0 ? 0 : BASE - 1;
+                i--;
+            }
+            if (i < 0) {
+                return null;
+            }
+            digits[i] += direction;
+        }
+        int length = STEP_DIGITS;
+        while (length > 0 && digits[length - 1] == 0) {
+            length--;
+        }
+        if (length == 0) {
+            return null;
+        }
+        StringBuilder stepped = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            stepped.append(DIGITS.charAt(digits[i]));
+        }
+        return stepped.toString();
+    }
+
+    public static boolean isValid(String key) {
+        if (key == null || key.isEmpty() || key.charAt(key.length() - 1) == '0') {
+            return false;
+        }
+        for (int i = 0; i < key.length(); i++) {
+            if (DIGITS.indexOf(key.charAt(i)) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int digit(char c) {
+        int digit = DIGITS.indexOf(c);
+        if (digit < 0) {
+            throw new IllegalArgumentException("Invalid rank character: " + c);
+        }
+        return digit;
+    }
+}
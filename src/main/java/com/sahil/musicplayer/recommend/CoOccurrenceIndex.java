@@ -0,0 +1,190 @@
+package com.sahil.musicplayer.recommend;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+// Sparse, symmetric song co-occurrence counts. Song ids are interned to dense ints, each song keeps
+// an IntIntHashMap of neighbour -> count, and a small per-user history decides what co-occurs: a new
+// activity pairs with the user's previous activities inside the session gap. Neighbours are ranked by
+// cosine similarity, count / sqrt(occurrences(a) * occurrences(b)), so hits do not dominate every list.
+// Not thread safe.
+public final class CoOccurrenceIndex {
+
+    private final int historySize;
+    private final long sessionGapMillis;
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> songIds = new ArrayList<>();
+    private final List<IntIntHashMap> neighbours = new ArrayList<>();
+    private final BitSet removed = new BitSet();
+    private final Map<String, History> histories;
+    private int[] occurrences = new int[1024];
+    private long pairs;
+
+    public CoOccurrenceIndex(int historySize, long sessionGapMillis, int maxUsers) {
+        this.historySize = historySize;
+        this.sessionGapMillis = sessionGapMillis;
+        this.histories = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, History> eldest) {
+                return size() > maxUsers;
+            }
+        };
+    }
+
+    public void observe(String userId, String songId, long epochMillis, int weight) {
+        int song = intern(songId);
+        if (removed.get(song)) {
+            return;
+        }
+        occurrences[song] += weight;
+        History history = histories.computeIfAbsent(userId, id -> new History(historySize));
+        int[] paired = new int[history.size];
+        int pairedCount = 0;
+        for (int i = 0; i < history.size; i++) {
+            int other = history.songs[i];
+            if (other == song || epochMillis - history.times[i] > sessionGapMillis || removed.get(other)
+                    || contains(paired, pairedCount, other)) {
+                continue;
+            }
+            // A song repeated within the session still counts once per pairing
+            paired[pairedCount++] = other;
+            addPair(song, other, weight);
+        }
+        history.push(song, epochMillis);
+    }
+
+    public List<Neighbour> neighbours(String songId, int limit) {
+        Integer song = ids.get(songId);
+        if (song == null || removed.get(song) || limit <= 0) {
+            return List.of();
+        }
+        PriorityQueue<Neighbour> top = new PriorityQueue<>(limit + 1, Comparator.comparingDouble(Neighbour::score));
+        double own = occurrences[song];
+        neighbours.get(song).forEach((other, count) -> {
+            if (removed.get(other)) {
+                return;
+            }
+            double score = count / Math.sqrt(own * Math.max(1, occurrences[other]));
+            if (top.size() < limit) {
+                top.add(new Neighbour(songIds.get(other), score));
+            } else if (score > top.peek().score()) {
+                top.poll();
+                top.add(new Neighbour(songIds.get(other), score));
+            }
+        });
+        List<Neighbour> ranked = new ArrayList<>(top);
+        ranked.sort(Comparator.comparingDouble(Neighbour::score).reversed());
+        return ranked;
+    }
+
+    public void remove(Collection<String> removedSongIds) {
+        for (String songId : removedSongIds) {
+            Integer song = ids.get(songId);
+            if (song != null && !removed.get(song)) {
+                removed.set(song);
+                pairs -= neighbours.get(song).size();
+                neighbours.set(song, new IntIntHashMap(0));
+                occurrences[song] = 0;
+            }
+        }
+    }
+
+    // Drops entries pointing at removed songs and caps every list at maxNeighbours by count. While
+    // the index holds more than maxPairs entries, pairs seen fewer than minCount times go as well.
+    public void prune(int maxNeighbours, long maxPairs, int minCount) {
+        boolean overBudget = pairs > maxPairs;
+        long kept = 0;
+        for (int song = 0; song < neighbours.size(); song++) {
+            IntIntHashMap list = neighbours.get(song);
+            if (list.size() == 0) {
+                continue;
+            }
+            int floor = Math.max(overBudget ? minCount : 1, list.nthLargestValue(maxNeighbours));
+            // Ties at the cap may keep a few extra entries; they go once the counts move apart
+            list.retain((other, count) -> count >= floor && !removed.get(other));
+            kept += list.size();
+        }
+        pairs = kept;
+    }
+
+    public long getPairs() {
+        return pairs;
+    }
+
+    public int getSongs() {
+        return songIds.size() - removed.cardinality();
+    }
+
+    // Neighbour tables and occurrence counts; the id dictionary and user histories come on top
+    public long memoryBytes() {
+        long bytes = 4L * occurrences.length;
+        for (IntIntHashMap list : neighbours) {
+            bytes += list.memoryBytes();
+        }
+        return bytes;
+    }
+
+    private void addPair(int a, int b, int weight) {
+        if (neighbours.get(a).addTo(b, weight) == weight) {
+            pairs++;
+        }
+        if (neighbours.get(b).addTo(a, weight) == weight) {
+            pairs++;
+        }
+    }
+
+    private static boolean contains(int[] values, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int intern(String songId) {
+        Integer existing = ids.get(songId);
+        if (existing != null) {
+            return existing;
+        }
+        int song = songIds.size();
+        ids.put(songId, song);
+        songIds.add(songId);
+        neighbours.add(new IntIntHashMap(8));
+        if (song == occurrences.length) {
+            occurrences = Arrays.copyOf(occurrences, song * 2);
+        }
+        return song;
+    }
+
+    public record Neighbour(String songId, double score) {
+    }
+
+    // The user's last few activities, oldest overwritten first
+    private static final class History {
+        private final int[] songs;
+        private final long[] times;
+        private int size;
+        private int next;
+
+        private History(int capacity) {
+            this.songs = new int[capacity];
+            this.times = new long[capacity];
+        }
+
+        private void push(int song, long epochMillis) {
+            songs[next] = song;
+            times[next] = epochMillis;
+            next = (next + 1) % songs.length;
+            size = Math.min(size + 1, songs.length);
+        }
+    }
+}
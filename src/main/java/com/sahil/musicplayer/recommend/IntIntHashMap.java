@@ -0,0 +1,177 @@
+package com.sahil.musicplayer.recommend;
+
+import java.util.Arrays;
+
+// Open-addressing int -> int map with linear probing over two parallel arrays: about 8 bytes per slot
+// and no boxing, against roughly 60 bytes per entry for a HashMap<Integer, Integer>. Keys must be
+// non-negative. Not thread safe.
+final class IntIntHashMap {
+
+    private static final int EMPTY = -1;
+    private static final float LOAD_FACTOR = 0.7f;
+
+    private int[] keys;
+    private int[] values;
+    private int size;
+    private int threshold;
+
+    IntIntHashMap(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expected / LOAD_FACTOR)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    int size() {
+        return size;
+    }
+
+    int get(int key) {
+        int mask = keys.length - 1;
+        for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+            if (keys[slot] == EMPTY) {
+                return 0;
+            }
+        }
+    }
+
+    // Adds delta to the key's value, inserting it at zero first; returns the new value
+    int addTo(int key, int delta) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                values[slot] += delta;
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = delta;
+        if (++size > threshold) {
+            rehash(keys.length << 1);
+        }
+        return delta;
+    }
+
+    boolean remove(int key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (keys[slot] != key) {
+            if (keys[slot] == EMPTY) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        // Backward-shift deletion: pull later entries of the probe run into the gap, so lookups
+        // never need tombstones
+        int gap = slot;
+        for (int next = (gap + 1) & mask; keys[next] != EMPTY; next = (next + 1) & mask) {
+            int home = hash(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+        }
+        keys[gap] = EMPTY;
+        values[gap] = 0;
+        size--;
+        return true;
+    }
+
+    void forEach(Visitor visitor) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != EMPTY) {
+                visitor.visit(keys[slot], values[slot]);
+            }
+        }
+    }
+
+    // Keeps only entries the filter accepts, then shrinks the table if it became mostly empty
+    void retain(Filter filter) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        int kept = 0;
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldKeys[slot] != EMPTY && filter.keep(oldKeys[slot], oldValues[slot])) {
+                kept++;
+            }
+        }
+        if (kept == size) {
+            return;
+        }
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (kept / LOAD_FACTOR)) - 1) << 1;
+        allocate(capacity);
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldKeys[slot] != EMPTY && filter.keep(oldKeys[slot], oldValues[slot])) {
+                insert(oldKeys[slot], oldValues[slot]);
+            }
+        }
+    }
+
+    // The value of the n-th largest entry, or 0 when there are fewer than n entries
+    int nthLargestValue(int n) {
+        if (n <= 0 || n > size) {
+            return 0;
+        }
+        int[] sorted = new int[size];
+        int i = 0;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != EMPTY) {
+                sorted[i++] = values[slot];
+            }
+        }
+        Arrays.sort(sorted);
+        return sorted[size - n];
+    }
+
+    long memoryBytes() {
+        return 8L * keys.length;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldKeys[slot] != EMPTY) {
+                insert(oldKeys[slot], oldValues[slot]);
+            }
+        }
+    }
+
+    private void insert(int key, int value) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (keys[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+        threshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    // Song ids are handed out sequentially, so spread them before masking
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    interface Visitor {
+        void visit(int key, int value);
+    }
+
+    interface Filter {
+        boolean keep(int key, int value);
+    }
+}
@@ -0,0 +1,15 @@
+package com.sahil.musicplayer.repository;
+
+import com.sahil.musicplayer.model.Favorite;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface FavoriteRepository extends MongoRepository<Favorite, String> {
+    List<Favorite> findByUserId(String userId);
+    boolean existsByUserIdAndSongId(String userId, String songId);
+    long deleteByUserIdAndSongId(String userId, String songId);
+    long deleteBySongId(String songId);
+    long deleteBySongIdIn(Collection<String> songIds);
+}
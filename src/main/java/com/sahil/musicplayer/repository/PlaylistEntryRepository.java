@@ -0,0 +1,33 @@
+package com.sahil.musicplayer.repository;
+
+import com.sahil.musicplayer.model.PlaylistEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+// Every lookup here is a range scan on playlist_rank_idx
+@Repository
+public interface PlaylistEntryRepository extends MongoRepository<PlaylistEntry, String> {
+
+    List<PlaylistEntry> findByPlaylistIdOrderByRankAsc(String playlistId, Pageable pageable);
+
+    List<PlaylistEntry> findByPlaylistIdAndRankGreaterThanOrderByRankAsc(String playlistId, String rank, Pageable pageable);
+
+    Optional<PlaylistEntry> findFirstByPlaylistIdAndRankGreaterThanOrderByRankAsc(String playlistId, String rank);
+
+    Optional<PlaylistEntry> findFirstByPlaylistIdAndRankLessThanOrderByRankDesc(String playlistId, String rank);
+
+    Optional<PlaylistEntry> findFirstByPlaylistIdOrderByRankDesc(String playlistId);
+
+    Optional<PlaylistEntry> findFirstByPlaylistIdOrderByRankAsc(String playlistId);
+
+    List<PlaylistEntry> findBySongIdIn(Collection<String> songIds);
+
+    long deleteByPlaylistId(String playlistId);
+
+    long deleteBySongIdIn(Collection<String> songIds);
+}
@@ -0,0 +1,13 @@
+package com.sahil.musicplayer.repository;
+
+import com.sahil.musicplayer.model.Playlist;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PlaylistRepository extends MongoRepository<Playlist, String> {
+
+    List<Playlist> findByOwnerIdOrderByCreatedAtDesc(String ownerId);
+}
@@ -0,0 +1,9 @@
+package com.sahil.musicplayer.repository;
+
+import com.sahil.musicplayer.model.SongMedia;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SongMediaRepository extends MongoRepository<SongMedia, String> {
+}
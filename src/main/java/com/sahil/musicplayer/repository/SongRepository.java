@@ -1,7 +1,30 @@
 package com.sahil.musicplayer.repository;
 
 import com.sahil.musicplayer.model.Song;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface SongRepository extends MongoRepository<Song, String> {
+
+    // Keyset pagination: every page is an index range scan, never a skip
+    List<Song> findAllBy(Pageable pageable);
+
+    List<Song> findByIdGreaterThan(String id, Pageable pageable);
+
+    Stream<Song> streamAllBy();
+
+    Optional<Song> findByContentHash(String contentHash);
+
+    @Query("{ '$or': [ { 'title': { '$gt': ?0 } }, { 'title': ?0, '_id': { '$gt': ?1 } } ] }")
+    List<Song> findByTitleAfter(String title, ObjectId id, Pageable pageable);
+
+    // Songs without a title sort first, so every titled song comes after them
+    @Query("{ '$or': [ { 'title': { '$ne': null } }, { 'title': null, '_id': { '$gt': ?0 } } ] }")
+    List<Song> findByTitleAfterUntitled(ObjectId id, Pageable pageable);
 }
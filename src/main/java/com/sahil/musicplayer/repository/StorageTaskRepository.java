@@ -0,0 +1,11 @@
+package com.sahil.musicplayer.repository;
+
+import com.sahil.musicplayer.model.StorageTask;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface StorageTaskRepository extends MongoRepository<StorageTask, String> {
+
+    long countByStatus(StorageTask.Status status);
+}
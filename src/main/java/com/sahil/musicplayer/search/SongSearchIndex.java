@@ -0,0 +1,333 @@
+package com.sahil.musicplayer.search;
+
+import com.sahil.musicplayer.model.Song;
+import com.sahil.musicplayer.repository.SongRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+// In-memory inverted index over title and artist tokens plus their edge n-grams.
+// Postings carry exact/prefix flags per field; queries are AND-ed and ranked by field-weighted idf.
+// Only ids and the indexed fields are kept, so callers load hits fresh rather than serving stale songs.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SongSearchIndex {
+
+    public static final int MIN_GRAM = 2;
+    private static final int MAX_GRAM = 20;
+    // Removed songs leave holes in the doc table; once they outnumber live ones the index is rebuilt
+    private static final int MIN_DEAD_TO_COMPACT = 1024;
+
+    private static final byte TITLE_EXACT = 1;
+    private static final byte TITLE_PREFIX = 1 << 1;
+    private static final byte ARTIST_EXACT = 1 << 2;
+    private static final byte ARTIST_PREFIX = 1 << 3;
+
+    private final SongRepository songRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Index index = new Index();
+    // Writes made while a rebuild streams the catalog, replayed onto the new index before it is swapped in
+    private List<Consumer<Index>> pendingWrites;
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "search-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        requestRebuild();
+    }
+
+    // Builds a fresh index off the lock and swaps it in; searches keep using the old one meanwhile
+    public void requestRebuild() {
+        if (rebuildPending.compareAndSet(false, true)) {
+            executor.execute(this::rebuild);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public void index(Song song) {
+        Doc doc = Doc.of(song);
+        write(index -> index.put(doc));
+    }
+
+    public void remove(String songId) {
+        write(index -> index.remove(songId));
+    }
+
+    // Shorter words are only indexed whole, so a query made of them alone would miss nearly every
+    // prefix match and read as no results
+    public static boolean isSearchable(String query) {
+        return SearchTokenizer.tokenize(query).stream().anyMatch(token -> token.length() >= MIN_GRAM);
+    }
+
+    // Ids of the best matches, best first
+    public List<String> search(String query, int limit) {
+        Set<String> queryTerms = new LinkedHashSet<>();
+        for (String token : SearchTokenizer.tokenize(query)) {
+            queryTerms.add(token.length() > MAX_GRAM ? token.substring(0, MAX_GRAM) : token);
+        }
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            return index.search(queryTerms, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index.liveDocs;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void write(Consumer<Index> change) {
+        boolean compact;
+        lock.writeLock().lock();
+        try {
+            change.accept(index);
+            if (pendingWrites != null) {
+                pendingWrites.add(change);
+            }
+            int dead = index.docs.size() - index.liveDocs;
+            compact = dead >= MIN_DEAD_TO_COMPACT && dead > index.liveDocs;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (compact) {
+            requestRebuild();
+        }
+    }
+
+    private void rebuild() {
+        rebuildPending.set(false);
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            pendingWrites = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Index fresh = new Index();
+        boolean built = false;
+        try (Stream<Song> songs = songRepository.streamAllBy()) {
+            songs.forEach(song -> fresh.put(Doc.of(song)));
+            built = true;
+        } catch (Exception e) {
+            log.error("Failed to rebuild search index, keeping the previous one", e);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (built) {
+                    // The stream may predate these writes, so they win over what it read
+                    pendingWrites.forEach(change -> change.accept(fresh));
+                    index = fresh;
+                }
+                pendingWrites = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        if (built) {
+            log.info("Search index rebuilt with {} songs and {} terms in {}ms",
+                    fresh.liveDocs, fresh.postings.size(), System.currentTimeMillis() - start);
+        }
+    }
+
+    private static final class Index {
+        private final Map<String, Integer> docIds = new HashMap<>();
+        private final List<Doc> docs = new ArrayList<>();
+        private final Map<String, Postings> postings = new HashMap<>();
+        private int liveDocs;
+
+        private void put(Doc doc) {
+            Integer docId = docIds.get(doc.id());
+            if (docId == null) {
+                docId = docs.size();
+                docs.add(doc);
+                docIds.put(doc.id(), docId);
+                liveDocs++;
+                addTerms(docId, doc);
+                return;
+            }
+            Doc previous = docs.get(docId);
+            if (previous.equals(doc)) {
+                return;
+            }
+            removeTerms(docId, previous);
+            docs.set(docId, doc);
+            addTerms(docId, doc);
+        }
+
+        private void remove(String songId) {
+            Integer docId = docIds.remove(songId);
+            if (docId != null) {
+                removeTerms(docId, docs.get(docId));
+                docs.set(docId, null);
+                liveDocs--;
+            }
+        }
+
+        private List<String> search(Set<String> queryTerms, int limit) {
+            Postings[] lists = new Postings[queryTerms.size()];
+            int n = 0;
+            for (String term : queryTerms) {
+                Postings list = postings.get(term);
+                if (list == null) {
+                    return List.of();
+                }
+                lists[n++] = list;
+            }
+            // Drive the intersection from the rarest term
+            Arrays.sort(lists, Comparator.comparingInt(list -> list.size));
+
+            double[] idf = new double[lists.length];
+            for (int i = 0; i < lists.length; i++) {
+                idf[i] = Math.log(1.0 + (double) liveDocs / lists[i].size);
+            }
+
+            PriorityQueue<ScoredDoc> top = new PriorityQueue<>(limit + 1,
+                    Comparator.comparingDouble(ScoredDoc::score).thenComparing(ScoredDoc::docId, Comparator.reverseOrder()));
+            Postings driver = lists[0];
+            candidates:
+            for (int i = 0; i < driver.size; i++) {
+                int docId = driver.docs[i];
+                double score = weight(driver.flags[i]) * idf[0];
+                for (int t = 1; t < lists.length; t++) {
+                    int pos = Arrays.binarySearch(lists[t].docs, 0, lists[t].size, docId);
+                    if (pos < 0) {
+                        continue candidates;
+                    }
+                    score += weight(lists[t].flags[pos]) * idf[t];
+                }
+                top.offer(new ScoredDoc(docId, score));
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+
+            String[] ranked = new String[top.size()];
+            for (int i = ranked.length - 1; i >= 0; i--) {
+                ranked[i] = docs.get(top.poll().docId()).id();
+            }
+            return Arrays.asList(ranked);
+        }
+
+        private void addTerms(int docId, Doc doc) {
+            terms(doc).forEach((term, flags) ->
+                    postings.computeIfAbsent(term, t -> new Postings()).add(docId, flags));
+        }
+
+        private void removeTerms(int docId, Doc doc) {
+            for (String term : terms(doc).keySet()) {
+                Postings list = postings.get(term);
+                if (list != null && list.remove(docId) && list.size == 0) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    private static Map<String, Byte> terms(Doc doc) {
+        Map<String, Byte> terms = new HashMap<>();
+        collectTerms(terms, doc.title(), TITLE_EXACT, TITLE_PREFIX);
+        collectTerms(terms, doc.artist(), ARTIST_EXACT, ARTIST_PREFIX);
+        return terms;
+    }
+
+    private static void collectTerms(Map<String, Byte> terms, String text, byte exactFlag, byte prefixFlag) {
+        for (String token : SearchTokenizer.tokenize(text)) {
+            int length = Math.min(token.length(), MAX_GRAM);
+            for (int end = Math.min(MIN_GRAM, length); end <= length; end++) {
+                byte flag = end == token.length() ? exactFlag : prefixFlag;
+                terms.merge(token.substring(0, end), flag, (a, b) -> (byte) (a | b));
+            }
+        }
+    }
+
+    private static double weight(byte flags) {
+        double title = (flags & TITLE_EXACT) != 0 ? 3.0 : (flags & TITLE_PREFIX) != 0 ? 2.0 : 0.0;
+        double artist = (flags & ARTIST_EXACT) != 0 ? 2.0 : (flags & ARTIST_PREFIX) != 0 ? 1.2 : 0.0;
+        return title + artist;
+    }
+
+    private record Doc(String id, String title, String artist) {
+        private static Doc of(Song song) {
+            return new Doc(song.getId(), song.getTitle(), song.getArtist());
+        }
+    }
+
+    private record ScoredDoc(int docId, double score) {
+    }
+
+    // Doc ids kept sorted so intersections can binary search
+    private static final class Postings {
+        private int[] docs = new int[4];
+        private byte[] flags = new byte[4];
+        private int size;
+
+        private void add(int docId, byte flag) {
+            int pos = size == 0 || docs[size - 1] < docId ? -(size + 1) : Arrays.binarySearch(docs, 0, size, docId);
+            if (pos >= 0) {
+                flags[pos] |= flag;
+                return;
+            }
+            int insertAt = -(pos + 1);
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                flags = Arrays.copyOf(flags, size * 2);
+            }
+            System.arraycopy(docs, insertAt, docs, insertAt + 1, size - insertAt);
+            System.arraycopy(flags, insertAt, flags, insertAt + 1, size - insertAt);
+            docs[insertAt] = docId;
+            flags[insertAt] = flag;
+            size++;
+        }
+
+        private boolean remove(int docId) {
+            int pos = Arrays.binarySearch(docs, 0, size, docId);
+            if (pos < 0) {
+                return false;
+            }
+            System.arraycopy(docs, pos + 1, docs, pos, size - pos - 1);
+            System.arraycopy(flags, pos + 1, flags, pos, size - pos - 1);
+            size--;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.sahil.musicplayer.search;
+
+import com.sahil.musicplayer.dto.Suggestion;
+import com.sahil.musicplayer.model.Song;
+import com.sahil.musicplayer.repository.SongRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SongSuggester {
+
+    private final SongRepository songRepository;
+
+    private final AtomicReference<SuggestionTrie> current = new AtomicReference<>(SuggestionTrie.EMPTY);
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "suggest-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${songs.suggest.rebuild-delay-ms:2000}")
+    private long rebuildDelayMs;
+
+    public List<Suggestion> suggest(String prefix, int limit) {
+        return current.get().suggest(prefix, Math.min(limit, SuggestionTrie.TOP_K));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuildPending.set(true);
+        executor.execute(this::rebuild);
+    }
+
+    // Coalesces bursts of catalog writes into a single background rebuild
+    public void requestRebuild() {
+        if (rebuildPending.compareAndSet(false, true)) {
+            executor.schedule(this::rebuild, rebuildDelayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void rebuild() {
+        rebuildPending.set(false);
+        long start = System.currentTimeMillis();
+        try (Stream<Song> songs = songRepository.streamAllBy()) {
+            SuggestionTrie.Builder builder = SuggestionTrie.builder();
+            songs.forEach(song -> {
+                long weight = weight(song);
+                if (song.getTitle() != null) {
+                    builder.add(song.getTitle(), Suggestion.Type.TITLE, weight);
+                }
+                if (song.getArtist() != null) {
+                    builder.add(song.getArtist(), Suggestion.Type.ARTIST, weight);
+                }
+            });
+            SuggestionTrie trie = builder.build();
+            current.set(trie);
+            log.info("Suggestion trie rebuilt with {} entries in {}ms", trie.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("Failed to rebuild suggestion trie, keeping the previous one", e);
+        }
+    }
+
+    // Popular songs rank first among completions of the same prefix
+    private long weight(Song song) {
+        return 1L + (song.getPlayCount() != null ? song.getPlayCount() : 0L);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,379 @@
+package com.sahil.musicplayer.search;
+
+import com.sahil.musicplayer.dto.Suggestion;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Immutable typeahead structure. Completion keys (each entry's normalized text and every suffix of it
+// that starts at a word boundary) are kept as one sorted packed array. A trie is laid over that array
+// in breadth-first order, but only where a prefix still covers many keys; every trie node carries its
+// precomputed top-K entries, and short ranges below the leaves are scanned directly.
+public final class SuggestionTrie {
+
+    public static final SuggestionTrie EMPTY = new Builder().build();
+
+    static final int TOP_K = 10;
+    private static final int LEAF_RANGE = 64;
+    private static final int MAX_DEPTH = 32;
+    private static final int MAX_WORD_STARTS = 8;
+
+    private final String[] texts;
+    private final String[] normalized;
+    private final Suggestion.Type[] types;
+    private final long[] weights;
+
+    // key = entry << 8 | offset into normalized text
+    private final long[] keys;
+
+    private final char[] labels;
+    private final int[] rangeStart;
+    private final int[] rangeEnd;
+    private final int[] firstChild;
+    private final int[] childCount;
+    private final int[][] top;
+
+    private SuggestionTrie(Builder builder) {
+        int entries = builder.texts.size();
+        this.texts = builder.texts.toArray(new String[0]);
+        this.normalized = builder.normalized.toArray(new String[0]);
+        this.types = builder.types.toArray(new Suggestion.Type[0]);
+        this.weights = new long[entries];
+        for (int i = 0; i < entries; i++) {
+            weights[i] = builder.weights.get(i);
+        }
+
+        this.keys = sortedKeys(normalized);
+
+        IntList labelList = new IntList();
+        IntList starts = new IntList();
+        IntList ends = new IntList();
+        IntList depths = new IntList();
+        IntList firstChildren = new IntList();
+        IntList childCounts = new IntList();
+
+        labelList.add(0);
+        starts.add(0);
+        ends.add(keys.length);
+        depths.add(0);
+        for (int node = 0; node < starts.size(); node++) {
+            int lo = starts.get(node);
+            int hi = ends.get(node);
+            int depth = depths.get(node);
+            firstChildren.add(starts.size());
+            int children = 0;
+            if (hi - lo > LEAF_RANGE && depth < MAX_DEPTH) {
+                int i = lo;
+                while (i < hi && keyLength(keys[i]) == depth) {
+                    i++;
+                }
+                while (i < hi) {
+                    char c = keyChar(keys[i], depth);
+                    int j = i + 1;
+                    while (j < hi && keyChar(keys[j], depth) == c) {
+                        j++;
+                    }
+                    labelList.add(c);
+                    starts.add(i);
+                    ends.add(j);
+                    depths.add(depth + 1);
+                    children++;
+                    i = j;
+                }
+            }
+            childCounts.add(children);
+        }
+
+        int nodes = starts.size();
+        this.labels = new char[nodes];
+        this.rangeStart = starts.toArray();
+        this.rangeEnd = ends.toArray();
+        this.firstChild = firstChildren.toArray();
+        this.childCount = childCounts.toArray();
+        for (int i = 0; i < nodes; i++) {
+            labels[i] = (char) labelList.get(i);
+        }
+
+        // Children always follow their parent in BFS order, so a reverse sweep sees them first
+        this.top = new int[nodes][];
+        for (int node = nodes - 1; node >= 0; node--) {
+            if (childCount[node] == 0) {
+                top[node] = topOfRange(rangeStart[node], rangeEnd[node], TOP_K);
+            } else {
+                int childrenStart = rangeStart[firstChild[node]];
+                List<int[]> parts = new ArrayList<>();
+                parts.add(topOfRange(rangeStart[node], childrenStart, TOP_K));
+                for (int c = firstChild[node]; c < firstChild[node] + childCount[node]; c++) {
+                    parts.add(top[c]);
+                }
+                top[node] = merge(parts, TOP_K);
+            }
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int size() {
+        return texts.length;
+    }
+
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String key = normalizeKey(prefix);
+        if (key.isEmpty() || keys.length == 0) {
+            return List.of();
+        }
+
+        int node = 0;
+        int depth = 0;
+        while (depth < key.length() && childCount[node] > 0) {
+            int child = findChild(node, key.charAt(depth));
+            if (child < 0) {
+                return List.of();
+            }
+            node = child;
+            depth++;
+        }
+
+        int[] entries;
+        if (depth == key.length() && limit <= TOP_K) {
+            entries = top[node];
+        } else {
+            int lo = lowerBound(rangeStart[node], rangeEnd[node], key);
+            int hi = upperBound(lo, rangeEnd[node], key);
+            entries = topOfRange(lo, hi, limit);
+        }
+
+        List<Suggestion> suggestions = new ArrayList<>(Math.min(limit, entries.length));
+        for (int i = 0; i < entries.length && i < limit; i++) {
+            int entry = entries[i];
+            suggestions.add(Suggestion.builder()
+                    .text(texts[entry])
+                    .type(types[entry])
+                    .weight(weights[entry])
+                    .build());
+        }
+        return suggestions;
+    }
+
+    static String normalizeKey(String text) {
+        return String.join(" ", SearchTokenizer.tokenize(text));
+    }
+
+    private int findChild(int node, char c) {
+        int lo = firstChild[node];
+        int hi = lo + childCount[node] - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (labels[mid] < c) {
+                lo = mid + 1;
+            } else if (labels[mid] > c) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private int[] topOfRange(int lo, int hi, int limit) {
+        Set<Integer> seen = new HashSet<>();
+        IntList candidates = new IntList();
+        for (int i = lo; i < hi; i++) {
+            int entry = keyEntry(keys[i]);
+            if (seen.add(entry)) {
+                candidates.add(entry);
+            }
+        }
+        int[] ranked = candidates.toArray();
+        return Arrays.stream(ranked).boxed()
+                .sorted(rankOrder())
+                .limit(limit)
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    private int[] merge(List<int[]> parts, int limit) {
+        Set<Integer> seen = new HashSet<>();
+        IntList candidates = new IntList();
+        for (int[] part : parts) {
+            for (int entry : part) {
+                if (seen.add(entry)) {
+                    candidates.add(entry);
+                }
+            }
+        }
+        return Arrays.stream(candidates.toArray()).boxed()
+                .sorted(rankOrder())
+                .limit(limit)
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    private Comparator<Integer> rankOrder() {
+        return Comparator.<Integer>comparingLong(entry -> -weights[entry])
+                .thenComparingInt(entry -> texts[entry].length())
+                .thenComparingInt(entry -> entry);
+    }
+
+    // First key in [lo, hi) that is >= prefix
+    private int lowerBound(int lo, int hi, String prefix) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (compareToPrefix(keys[mid], prefix) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    // First key in [lo, hi) that does not start with prefix
+    private int upperBound(int lo, int hi, String prefix) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (compareToPrefix(keys[mid], prefix) == 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    // Compares only the first prefix.length() characters, so every key starting with prefix compares equal
+    private int compareToPrefix(long key, String prefix) {
+        String text = normalized[keyEntry(key)];
+        int offset = keyOffset(key);
+        int length = text.length() - offset;
+        for (int i = 0; i < prefix.length(); i++) {
+            if (i >= length) {
+                return -1;
+            }
+            int diff = text.charAt(offset + i) - prefix.charAt(i);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return 0;
+    }
+
+    private int keyLength(long key) {
+        return normalized[keyEntry(key)].length() - keyOffset(key);
+    }
+
+    private char keyChar(long key, int index) {
+        return normalized[keyEntry(key)].charAt(keyOffset(key) + index);
+    }
+
+    private static int keyEntry(long key) {
+        return (int) (key >>> 8);
+    }
+
+    private static int keyOffset(long key) {
+        return (int) (key & 0xFF);
+    }
+
+    private static long[] sortedKeys(String[] normalized) {
+        List<Long> keys = new ArrayList<>();
+        for (int entry = 0; entry < normalized.length; entry++) {
+            String text = normalized[entry];
+            int starts = 0;
+            for (int offset = 0; offset < text.length() && offset <= 0xFF && starts < MAX_WORD_STARTS; offset++) {
+                if (offset == 0 || text.charAt(offset - 1) == ' ') {
+                    keys.add(((long) entry << 8) | offset);
+                    starts++;
+                }
+            }
+        }
+        keys.sort((a, b) -> {
+            String ta = normalized[keyEntry(a)];
+            String tb = normalized[keyEntry(b)];
+            int oa = keyOffset(a);
+            int ob = keyOffset(b);
+            int cmp = compareFrom(ta, oa, tb, ob);
+            return cmp != 0 ? cmp : Long.compare(a, b);
+        });
+        long[] packed = new long[keys.size()];
+        for (int i = 0; i < packed.length; i++) {
+            packed[i] = keys.get(i);
+        }
+        return packed;
+    }
+
+    private static int compareFrom(String a, int offsetA, String b, int offsetB) {
+        int lengthA = a.length() - offsetA;
+        int lengthB = b.length() - offsetB;
+        int n = Math.min(lengthA, lengthB);
+        for (int i = 0; i < n; i++) {
+            int diff = a.charAt(offsetA + i) - b.charAt(offsetB + i);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return lengthA - lengthB;
+    }
+
+    public static final class Builder {
+        private final List<String> texts = new ArrayList<>();
+        private final List<String> normalized = new ArrayList<>();
+        private final List<Suggestion.Type> types = new ArrayList<>();
+        private final List<Long> weights = new ArrayList<>();
+        private final Map<String, Integer> entryIndex = new HashMap<>();
+
+        // Entries with the same type and normalized text are folded together and their weights summed
+        public Builder add(String text, Suggestion.Type type, long weight) {
+            String key = normalizeKey(text);
+            if (key.isEmpty()) {
+                return this;
+            }
+            Integer existing = entryIndex.get(type.name() + ':' + key);
+            if (existing != null) {
+                weights.set(existing, weights.get(existing) + weight);
+                return this;
+            }
+            entryIndex.put(type.name() + ':' + key, texts.size());
+            texts.add(text.trim());
+            normalized.add(key);
+            types.add(type);
+            weights.add(weight);
+            return this;
+        }
+
+        public SuggestionTrie build() {
+            return new SuggestionTrie(this);
+        }
+    }
+
+    private static final class IntList {
+        private int[] values = new int[16];
+        private int size;
+
+        private void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        private int get(int index) {
+            return values[index];
+        }
+
+        private int size() {
+            return size;
+        }
+
+        private int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
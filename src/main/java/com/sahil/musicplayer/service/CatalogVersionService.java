@@ -0,0 +1,105 @@
+package com.sahil.musicplayer.service;
+
+import com.sahil.musicplayer.cache.SongCatalogCache;
+import com.sahil.musicplayer.cache.TwoTierCacheManager;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Monotonic catalog version behind the song list ETags. The counter lives in Mongo next to the
+// catalog, so it survives restarts and never repeats; each node keeps the latest value in memory,
+// hears about bumps over Redis and re-reads the counter periodically in case a message was lost.
+//
+// Writers bump after updating the shared caches, but other nodes drop their L1 copies only when the
+// invalidation broadcast arrives, which may be after they learn the new version. So a node clears
+// its local song pages before taking on a version it did not bump itself; a request that reads the
+// version first then never gets a page older than that version from L1.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CatalogVersionService {
+
+    public static final String CHANNEL = "catalog:version";
+
+    private static final String COUNTERS = "counters";
+    private static final String CATALOG = "catalog";
+
+    private final MongoTemplate mongoTemplate;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisMessageListenerContainer redisMessageListenerContainer;
+    private final CacheManager cacheManager;
+
+    private final AtomicLong current = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        refresh();
+        redisMessageListenerContainer.addMessageListener(
+                (message, pattern) -> advance(Long.parseLong(new String(message.getBody(), StandardCharsets.UTF_8))),
+                new ChannelTopic(CHANNEL));
+    }
+
+    public long current() {
+        return current.get();
+    }
+
+    public void bump() {
+        long version;
+        try {
+            Document counter = mongoTemplate.findAndModify(
+                    Query.query(Criteria.where("_id").is(CATALOG)),
+                    new Update().inc("value", 1L),
+                    FindAndModifyOptions.options().returnNew(true).upsert(true),
+                    Document.class, COUNTERS);
+            version = counter.get("value", Number.class).longValue();
+        } catch (Exception e) {
+            // Clients keep revalidating against the old version until the next successful bump
+            log.error("Failed to bump the catalog version: {}", e.getMessage());
+            return;
+        }
+        // This node's caches were updated by the caller
+        current.accumulateAndGet(version, Math::max);
+        try {
+            redisTemplate.convertAndSend(CHANNEL, String.valueOf(version));
+        } catch (Exception e) {
+            log.warn("Failed to publish catalog version {}: {}", version, e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${catalog.version.refresh-interval-ms:5000}")
+    public void refresh() {
+        try {
+            Document counter = mongoTemplate.findById(CATALOG, Document.class, COUNTERS);
+            if (counter != null) {
+                advance(counter.get("value", Number.class).longValue());
+            }
+        } catch (Exception e) {
+            log.warn("Failed to read the catalog version: {}", e.getMessage());
+        }
+    }
+
+    private void advance(long version) {
+        if (version <= current.get()) {
+            return;
+        }
+        if (cacheManager instanceof TwoTierCacheManager twoTierCacheManager) {
+            twoTierCacheManager.clearLocal(SongCatalogCache.PAGES);
+        }
+        current.accumulateAndGet(version, Math::max);
+    }
+}
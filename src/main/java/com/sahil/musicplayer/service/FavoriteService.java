@@ -0,0 +1,152 @@
+package com.sahil.musicplayer.service;
+
+import com.sahil.musicplayer.exception.SongNotFoundException;
+import com.sahil.musicplayer.model.Favorite;
+import com.sahil.musicplayer.model.Song;
+import com.sahil.musicplayer.repository.FavoriteRepository;
+import com.sahil.musicplayer.repository.SongRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FavoriteService {
+
+    private static final String KEY_PREFIX = "favorites:";
+    // Bumped by every add and remove, so a set loaded from the database before the change is not cached
+    private static final String GENERATION_PREFIX = "favorites:gen:";
+    private static final Duration KEY_TTL = Duration.ofHours(24);
+    // Present in every fully loaded set, so a user with no favorites is cached too
+    private static final String LOADED = "#loaded";
+
+    // Caches a set read from the database unless one is already loaded or a write happened since the
+    // read began. SADD goes in slices to stay under Lua's limit on unpacked arguments.
+    private static final RedisScript<Long> FILL_IF_UNCHANGED = new DefaultRedisScript<>(
+            "if redis.call('SISMEMBER', KEYS[1], ARGV[3]) == 1 "
+                    + "or (redis.call('GET', KEYS[2]) or '0') ~= ARGV[2] then return 0 end "
+                    + "redis.call('DEL', KEYS[1]) "
+                    + "for i = 3, #ARGV, 1000 do "
+                    + "redis.call('SADD', KEYS[1], unpack(ARGV, i, math.min(i + 999, #ARGV))) end "
+                    + "redis.call('EXPIRE', KEYS[1], ARGV[1]) "
+                    + "return 1",
+            Long.class);
+
+    // Applies an add or remove to a loaded set only, otherwise a lone SADD would leave a partial set
+    // behind; either way it moves the generation on
+    private static final RedisScript<Long> UPDATE_IF_LOADED = new DefaultRedisScript<>(
+            "redis.call('INCR', KEYS[2]) "
+                    + "redis.call('EXPIRE', KEYS[2], ARGV[3]) "
+                    + "if redis.call('SISMEMBER', KEYS[1], ARGV[4]) == 1 then "
+                    + "return redis.call(ARGV[1], KEYS[1], ARGV[2]) end "
+                    + "return -1",
+            Long.class);
+
+    private final FavoriteRepository favoriteRepository;
+    private final SongRepository songRepository;
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    public List<Song> getFavoriteSongs(String userId) {
+        Set<String> songIds = getFavoriteSongIds(userId);
+        if (songIds.isEmpty()) {
+            return List.of();
+        }
+        List<Song> songs = new ArrayList<>();
+        songRepository.findAllById(songIds).forEach(songs::add);
+        return songs;
+    }
+
+    public Set<String> getFavoriteSongIds(String userId) {
+        String key = KEY_PREFIX + userId;
+        Set<Object> cached = redisTemplate.opsForSet().members(key);
+        if (cached != null && cached.contains(LOADED)) {
+            return cached.stream()
+                    .map(Object::toString)
+                    .filter(songId -> !LOADED.equals(songId))
+                    .collect(Collectors.toSet());
+        }
+
+        // Read the generation before the database, so any write landing in between stops the fill
+        Object generation = redisTemplate.opsForValue().get(GENERATION_PREFIX + userId);
+        Set<String> songIds = favoriteRepository.findByUserId(userId).stream()
+                .map(Favorite::getSongId)
+                .collect(Collectors.toCollection(HashSet::new));
+        List<Object> args = new ArrayList<>(songIds.size() + 3);
+        args.add(String.valueOf(KEY_TTL.toSeconds()));
+        args.add(generation != null ? generation.toString() : "0");
+        args.add(LOADED);
+        args.addAll(songIds);
+        redisTemplate.execute(FILL_IF_UNCHANGED, List.of(key, GENERATION_PREFIX + userId), args.toArray());
+        log.debug("Loaded {} favorites for user {} from database", songIds.size(), userId);
+        return songIds;
+    }
+
+    public boolean isFavorite(String userId, String songId) {
+        Map<Object, Boolean> members = redisTemplate.opsForSet().isMember(KEY_PREFIX + userId, LOADED, songId);
+        if (members != null && Boolean.TRUE.equals(members.get(LOADED))) {
+            return Boolean.TRUE.equals(members.get(songId));
+        }
+        return getFavoriteSongIds(userId).contains(songId);
+    }
+
+    public void addFavorite(String userId, String songId) {
+        if (!songRepository.existsById(songId)) {
+            throw new SongNotFoundException(songId);
+        }
+        try {
+            favoriteRepository.save(Favorite.builder()
+                    .userId(userId)
+                    .songId(songId)
+                    .createdAt(Instant.now())
+                    .build());
+        } catch (DuplicateKeyException e) {
+            log.debug("Song {} is already a favorite of user {}", songId, userId);
+        }
+        updateCached(userId, "SADD", songId);
+    }
+
+    public void removeFavorite(String userId, String songId) {
+        favoriteRepository.deleteByUserIdAndSongId(userId, songId);
+        updateCached(userId, "SREM", songId);
+    }
+
+    public boolean toggleFavorite(String userId, String songId) {
+        if (isFavorite(userId, songId)) {
+            removeFavorite(userId, songId);
+            return false;
+        }
+        addFavorite(userId, songId);
+        return true;
+    }
+
+    // Cached sets may keep the id until they expire; favorite reads skip songs that no longer exist
+    public void removeSong(String songId) {
+        long removed = favoriteRepository.deleteBySongId(songId);
+        log.debug("Removed song {} from {} favorite lists", songId, removed);
+    }
+
+    public void removeSongs(Collection<String> songIds) {
+        long removed = favoriteRepository.deleteBySongIdIn(songIds);
+        log.debug("Removed {} songs from {} favorite entries", songIds.size(), removed);
+    }
+
+    private void updateCached(String userId, String command, String songId) {
+        redisTemplate.execute(UPDATE_IF_LOADED, List.of(KEY_PREFIX + userId, GENERATION_PREFIX + userId),
+                command, songId, String.valueOf(KEY_TTL.toSeconds()), LOADED);
+    }
+}
@@ -0,0 +1,246 @@
+package com.sahil.musicplayer.service;
+
+import com.sahil.musicplayer.audio.Mp3SeekIndexer;
+import com.sahil.musicplayer.audio.SeekIndex;
+import com.sahil.musicplayer.audio.Waveform;
+import com.sahil.musicplayer.event.SongsAddedEvent;
+import com.sahil.musicplayer.event.SongsRemovedEvent;
+import com.sahil.musicplayer.model.Song;
+import com.sahil.musicplayer.model.SongMedia;
+import com.sahil.musicplayer.repository.SongMediaRepository;
+import com.sahil.musicplayer.storage.StorageBackend;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Builds per-song delivery data in the background, in one pass over the stored file: a frame-accurate
+// seek index, from which HLS playlists are cut on request, and a waveform peak pyramid. New songs are
+// picked up from SongsAddedEvent; songs that predate the pipeline, or whose build was lost to a restart,
+// are found by the periodic backfill through their unset Song.mediaBuiltAt.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MediaPipeline {
+
+    // Held for one backfill interval by whichever node runs the pass, so the cluster makes one per interval
+    private static final String BACKFILL_LEASE = "media:backfill:lease";
+
+    private final SongMediaRepository songMediaRepository;
+    private final StorageBackend storageBackend;
+    private final MongoTemplate mongoTemplate;
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    private final String nodeId = UUID.randomUUID().toString();
+    private ExecutorService executor;
+
+    @Value("${media.pipeline.workers:2}")
+    private int workers;
+
+    @Value("${media.backfill-batch:200}")
+    private int backfillBatch;
+
+    @Value("${media.backfill-interval-ms:600000}")
+    private long backfillIntervalMs;
+
+    @Value("${media.download-timeout-seconds:120}")
+    private int downloadTimeoutSeconds;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "media-pipeline-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    @EventListener
+    public void onSongsAdded(SongsAddedEvent event) {
+        event.songs().forEach(this::submit);
+    }
+
+    @EventListener
+    public void onSongsRemoved(SongsRemovedEvent event) {
+        songMediaRepository.deleteAllById(event.songIds());
+    }
+
+    @Scheduled(initialDelayString = "${media.backfill-initial-delay-ms:60000}",
+            fixedDelayString = "${media.backfill-interval-ms:600000}")
+    public void backfill() {
+        Boolean leased = redisTemplate.opsForValue()
+                .setIfAbsent(BACKFILL_LEASE, nodeId, Duration.ofMillis(backfillIntervalMs));
+        if (!Boolean.TRUE.equals(leased)) {
+            return;
+        }
+
+        Query pending = new Query(Criteria.where("mediaBuiltAt").is(null)).limit(backfillBatch);
+        pending.fields().include("_id", "publicId", "url");
+        List<Song> songs = mongoTemplate.find(pending, Song.class);
+        if (songs.isEmpty()) {
+            return;
+        }
+
+        // Media built before Song.mediaBuiltAt existed only needs the stamp; songs indexed before
+        // waveforms existed count as unbuilt
+        List<String> ids = songs.stream().map(Song::getId).toList();
+        Query done = new Query(Criteria.where("_id").in(ids).orOperator(
+                Criteria.where("status").is(SongMedia.Status.FAILED),
+                Criteria.where("waveform").exists(true)));
+        Set<String> built = new HashSet<>(mongoTemplate.findDistinct(done, "_id", SongMedia.class, String.class));
+        if (!built.isEmpty()) {
+            mongoTemplate.updateMulti(new Query(Criteria.where("_id").in(built)),
+                    new Update().set("mediaBuiltAt", Instant.now()), Song.class);
+        }
+
+        int queued = 0;
+        for (Song song : songs) {
+            if (!built.contains(song.getId()) && submit(song)) {
+                queued++;
+            }
+        }
+        if (queued > 0 || !built.isEmpty()) {
+            log.info("Queued {} songs for media processing, marked {} as already built", queued, built.size());
+        }
+    }
+
+    public Optional<SeekIndex> getSeekIndex(String songId) {
+        return songMediaRepository.findById(songId)
+                .filter(media -> media.getStatus() == SongMedia.Status.READY && media.getSeekIndex() != null)
+                .map(media -> SeekIndex.decode(media.getSeekIndex()));
+    }
+
+    public Optional<Waveform> getWaveform(String songId) {
+        return songMediaRepository.findById(songId)
+                .filter(media -> media.getStatus() == SongMedia.Status.READY && media.getWaveform() != null)
+                .map(media -> Waveform.decode(media.getWaveform()));
+    }
+
+    private boolean submit(Song song) {
+        if (!inFlight.add(song.getId())) {
+            return false;
+        }
+        executor.execute(() -> {
+            try {
+                build(song);
+            } finally {
+                inFlight.remove(song.getId());
+            }
+        });
+        return true;
+    }
+
+    private void build(Song song) {
+        long start = System.nanoTime();
+        SongMedia media;
+        try (InputStream in = open(song)) {
+            Mp3SeekIndexer.Result result = Mp3SeekIndexer.analyze(in);
+            SeekIndex index = result.seekIndex();
+            media = SongMedia.builder()
+                    .id(song.getId())
+                    .status(SongMedia.Status.READY)
+                    .seekIndex(index.toBytes())
+                    .waveform(result.waveform().toBytes())
+                    .frameCount(index.getFrameCount())
+                    .durationMs(index.getDurationMs())
+                    .builtAt(Instant.now())
+                    .build();
+            log.debug("Indexed {} frames of song {} in {} ms", index.getFrameCount(), song.getId(),
+                    (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            // The file itself is unusable, or indexing it hit a bug; record it so the backfill does not
+            // retry forever
+            if (e instanceof IllegalArgumentException) {
+                log.warn("Could not index song {}: {}", song.getId(), e.getMessage());
+            } else {
+                log.error("Indexing song {} failed", song.getId(), e);
+            }
+            media = SongMedia.builder()
+                    .id(song.getId())
+                    .status(SongMedia.Status.FAILED)
+                    .error(e.getMessage())
+                    .builtAt(Instant.now())
+                    .build();
+        } catch (IOException e) {
+            // Storage trouble is transient; leave no record and let the backfill pick it up again
+            log.warn("Could not read song {} for indexing: {}", song.getId(), e.getMessage());
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        songMediaRepository.save(media);
+        // The song may have been deleted while it was being indexed
+        long stamped = mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(song.getId())),
+                new Update().set("mediaBuiltAt", media.getBuiltAt()), Song.class).getMatchedCount();
+        if (stamped == 0) {
+            songMediaRepository.deleteById(song.getId());
+        }
+    }
+
+    private InputStream open(Song song) throws IOException, InterruptedException {
+        Optional<Path> local = song.getPublicId() != null
+                ? storageBackend.localPath(song.getPublicId())
+                : Optional.empty();
+        if (local.isPresent()) {
+            return Files.newInputStream(local.get());
+        }
+        if (song.getUrl() == null) {
+            throw new IOException("Song has neither a local file nor a URL");
+        }
+        HttpRequest request = HttpRequest.newBuilder(URI.create(song.getUrl()))
+                .timeout(Duration.ofSeconds(downloadTimeoutSeconds))
+                .GET()
+                .build();
+        HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        if (response.statusCode() != 200) {
+            response.body().close();
+            throw new IOException("Download failed with HTTP " + response.statusCode());
+        }
+        return response.body();
+    }
+}
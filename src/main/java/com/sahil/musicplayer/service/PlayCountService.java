@@ -0,0 +1,85 @@
+package com.sahil.musicplayer.service;
+
+import com.sahil.musicplayer.cache.SongCatalogCache;
+import com.sahil.musicplayer.event.SongsRemovedEvent;
+import com.sahil.musicplayer.model.Song;
+import com.sahil.musicplayer.play.PlayCounters;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Song.playCount without a write per play: plays accumulate in memory and every few seconds all
+// changed songs are incremented with one unordered bulk write, after which the cached copies of
+// those songs are evicted.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PlayCountService {
+
+    private final MongoTemplate mongoTemplate;
+    private final SongCatalogCache songCatalogCache;
+
+    private final PlayCounters counters = new PlayCounters();
+
+    public void increment(String songId) {
+        counters.increment(songId);
+    }
+
+    @EventListener
+    public void onSongsRemoved(SongsRemovedEvent event) {
+        counters.remove(event.songIds());
+    }
+
+    @Scheduled(fixedDelayString = "${plays.count-flush-interval-ms:5000}")
+    public synchronized void flush() {
+        Map<String, Long> pending = counters.pending();
+        if (pending.isEmpty()) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        List<String> songIds = new ArrayList<>(pending.keySet());
+        Map<String, Long> flushed = pending;
+        try {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Song.class);
+            for (String songId : songIds) {
+                bulk.updateOne(Query.query(Criteria.where("_id").is(songId)),
+                        new Update().inc("playCount", pending.get(songId)));
+            }
+            bulk.execute();
+        } catch (BulkOperationException e) {
+            // Unordered: every update without an error was applied, so only the failed ones are retried
+            flushed = new HashMap<>(pending);
+            for (var error : e.getErrors()) {
+                flushed.remove(songIds.get(error.getIndex()));
+            }
+            log.warn("Failed to flush play counts for {} of {} songs: {}",
+                    pending.size() - flushed.size(), pending.size(), e.getMessage());
+        } catch (Exception e) {
+            // Nothing is marked flushed, so the same deltas are retried on the next pass
+            log.error("Failed to flush play counts for {} songs: {}", pending.size(), e.getMessage());
+            return;
+        }
+        counters.markFlushed(flushed);
+        songCatalogCache.evictSongs(flushed.keySet());
+        log.debug("Flushed play counts for {} songs in {}ms", flushed.size(), System.currentTimeMillis() - start);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+}
@@ -0,0 +1,291 @@
+package com.sahil.musicplayer.service;
+
+import com.sahil.musicplayer.event.PlaysRecordedEvent;
+import com.sahil.musicplayer.exception.SongNotFoundException;
+import com.sahil.musicplayer.model.PlayEvent;
+import com.sahil.musicplayer.model.Song;
+import com.sahil.musicplayer.play.MpscRingBuffer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Play events are accepted into a lock-free ring and written behind by a single thread: each pass
+// bulk-inserts up to a batch of events into the time-series collection and refreshes the players'
+// "recently played" lists in Redis with one pipelined round trip. A full ring rejects new events
+// rather than making the request wait on Mongo. A batch whose insert fails is kept and retried before
+// anything else is drained, so while Mongo is down the ring fills up and record() pushes back.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PlayEventService {
+
+    private static final String RECENT_PREFIX = "recent:";
+    private static final long SHUTDOWN_WAIT_MS = 5000;
+    private static final long RETRY_INTERVAL_MS = 1000;
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final MongoTemplate mongoTemplate;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final SongService songService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PlayCountService playCountService;
+
+    @Value("${plays.buffer-capacity:65536}")
+    private int bufferCapacity;
+
+    @Value("${plays.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${plays.flush-interval-ms:250}")
+    private long flushIntervalMs;
+
+    @Value("${plays.recent.size:50}")
+    private int recentSize;
+
+    @Value("${plays.recent.ttl-days:30}")
+    private long recentTtlDays;
+
+    private final AtomicLong dropped = new AtomicLong();
+    private MpscRingBuffer<PlayEvent> buffer;
+    private Thread writer;
+    private volatile boolean running;
+    // Writer thread only: the batch whose insert failed and how many times it has been tried
+    private List<PlayEvent> failed;
+    private int failedAttempts;
+
+    @PostConstruct
+    public void init() {
+        ensureCollection();
+        buffer = new MpscRingBuffer<>(bufferCapacity);
+        running = true;
+        writer = new Thread(this::runWriter, "play-event-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(SHUTDOWN_WAIT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        int unwritten = buffer.size() + (failed != null ? failed.size() : 0);
+        if (unwritten > 0) {
+            log.warn("{} play events were not written before shutdown", unwritten);
+        }
+    }
+
+    // Returns false when the buffer is full and the event was not accepted
+    public boolean record(String userId, String songId, Long listenedMs) {
+        PlayEvent event = PlayEvent.builder()
+                .songId(songId)
+                .userId(userId)
+                .playedAt(Instant.now())
+                .listenedMs(listenedMs)
+                .build();
+        if (buffer.offer(event)) {
+            playCountService.increment(songId);
+            return true;
+        }
+        dropped.incrementAndGet();
+        return false;
+    }
+
+    public List<Song> getRecentlyPlayed(String userId, int limit) {
+        int count = Math.max(1, Math.min(limit, recentSize));
+        List<Object> cached = redisTemplate.opsForList().range(RECENT_PREFIX + userId, 0, count - 1);
+        List<String> songIds = cached != null && !cached.isEmpty()
+                ? cached.stream().map(Object::toString).toList()
+                : loadRecent(userId);
+
+        List<Song> songs = new ArrayList<>(Math.min(count, songIds.size()));
+        for (String songId : songIds) {
+            if (songs.size() == count) {
+                break;
+            }
+            try {
+                songs.add(songService.getSongById(songId));
+            } catch (SongNotFoundException e) {
+                // Deleted since it was played
+            }
+        }
+        return songs;
+    }
+
+    private void runWriter() {
+        long lastDropped = 0;
+        while (running) {
+            int written = flush();
+            long droppedNow = dropped.get();
+            if (droppedNow != lastDropped) {
+                log.warn("Play event buffer full, dropped {} events", droppedNow - lastDropped);
+                lastDropped = droppedNow;
+            }
+            if (failed != null) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(Math.max(flushIntervalMs, RETRY_INTERVAL_MS)));
+            } else if (written < batchSize) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(flushIntervalMs));
+            }
+        }
+        flush();
+    }
+
+    private int flush() {
+        int total = 0;
+        if (failed != null) {
+            if (!write(failed)) {
+                return 0;
+            }
+            log.info("Wrote {} play events after {} attempts", failed.size(), failedAttempts + 1);
+            total = failed.size();
+            failed = null;
+            failedAttempts = 0;
+        }
+        List<PlayEvent> batch = new ArrayList<>(Math.min(batchSize, buffer.capacity()));
+        while (buffer.drain(batch::add, batchSize) > 0) {
+            if (!write(batch)) {
+                failed = batch;
+                break;
+            }
+            total += batch.size();
+            if (batch.size() < batchSize) {
+                break;
+            }
+            batch = new ArrayList<>(batchSize);
+        }
+        return total;
+    }
+
+    // Returns false, with nothing published, when the insert failed. Retries resend the same ids, so
+    // events an earlier attempt already stored come back as duplicate keys and count as written; in
+    // the time-series collection, where _id is not unique, they are stored twice instead, which
+    // history and recommendations tolerate.
+    private boolean write(List<PlayEvent> batch) {
+        long start = System.nanoTime();
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PlayEvent.class).insert(batch).execute();
+        } catch (BulkOperationException e) {
+            if (!e.getErrors().stream().allMatch(error -> error.getCode() == DUPLICATE_KEY)) {
+                return insertFailed(batch, e);
+            }
+        } catch (Exception e) {
+            return insertFailed(batch, e);
+        }
+        try {
+            updateRecent(batch);
+        } catch (Exception e) {
+            // Lists are rebuilt from the collection the next time they are missing
+            log.warn("Failed to update recently played lists: {}", e.getMessage());
+        }
+        try {
+            eventPublisher.publishEvent(new PlaysRecordedEvent(batch));
+        } catch (Exception e) {
+            log.warn("Play event listener failed: {}", e.getMessage());
+        }
+        log.debug("Wrote {} play events in {} ms", batch.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return true;
+    }
+
+    private boolean insertFailed(List<PlayEvent> batch, Exception e) {
+        if (failedAttempts++ == 0) {
+            log.error("Failed to write {} play events, retrying: {}", batch.size(), e.getMessage());
+        } else {
+            log.debug("Retry {} of {} play events failed: {}", failedAttempts, batch.size(), e.getMessage());
+        }
+        return false;
+    }
+
+    // Per user, a song moves to the head of the list each time it is played and the list is capped
+    private void updateRecent(List<PlayEvent> batch) {
+        Map<String, Set<String>> playedByUser = new LinkedHashMap<>();
+        for (PlayEvent event : batch) {
+            Set<String> played = playedByUser.computeIfAbsent(event.getUserId(), id -> new LinkedHashSet<>());
+            played.remove(event.getSongId());
+            played.add(event.getSongId());
+        }
+        Duration ttl = Duration.ofDays(recentTtlDays);
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                playedByUser.forEach((userId, songIds) -> {
+                    String key = RECENT_PREFIX + userId;
+                    for (String songId : songIds) {
+                        ops.opsForList().remove(key, 0, songId);
+                        ops.opsForList().leftPush(key, songId);
+                    }
+                    ops.opsForList().trim(key, 0, recentSize - 1);
+                    ops.expire(key, ttl);
+                });
+                return null;
+            }
+        });
+    }
+
+    // Rebuilds a missing list from the user's latest plays
+    private List<String> loadRecent(String userId) {
+        Query query = new Query(Criteria.where("userId").is(userId))
+                .with(Sort.by(Sort.Direction.DESC, "playedAt"))
+                .limit(recentSize * 4);
+        query.fields().include("songId");
+        Set<String> songIds = new LinkedHashSet<>();
+        for (PlayEvent event : mongoTemplate.find(query, PlayEvent.class)) {
+            songIds.add(event.getSongId());
+            if (songIds.size() == recentSize) {
+                break;
+            }
+        }
+        if (!songIds.isEmpty()) {
+            String key = RECENT_PREFIX + userId;
+            redisTemplate.opsForList().rightPushAll(key, songIds.toArray());
+            redisTemplate.opsForList().trim(key, 0, recentSize - 1);
+            redisTemplate.expire(key, Duration.ofDays(recentTtlDays));
+        }
+        return new ArrayList<>(songIds);
+    }
+
+    // Repository-driven index creation would make an ordinary collection, so the time-series
+    // collection is created explicitly before the first insert
+    private void ensureCollection() {
+        try {
+            if (!mongoTemplate.collectionExists(PlayEvent.class)) {
+                mongoTemplate.createCollection(PlayEvent.class);
+            }
+            mongoTemplate.indexOps(PlayEvent.class).ensureIndex(
+                    new Index().on("userId", Sort.Direction.ASC).on("playedAt", Sort.Direction.DESC));
+        } catch (Exception e) {
+            log.warn("Could not prepare the play event collection: {}", e.getMessage());
+        }
+    }
+}
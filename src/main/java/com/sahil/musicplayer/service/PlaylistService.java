@@ -0,0 +1,349 @@
+package com.sahil.musicplayer.service;
+
+import com.sahil.musicplayer.cache.SongCatalogCache;
+import com.sahil.musicplayer.dto.PlaylistEntryRequest;
+import com.sahil.musicplayer.dto.PlaylistItem;
+import com.sahil.musicplayer.dto.PlaylistMoveRequest;
+import com.sahil.musicplayer.dto.PlaylistPage;
+import com.sahil.musicplayer.dto.PlaylistRequest;
+import com.sahil.musicplayer.event.SongsRemovedEvent;
+import com.sahil.musicplayer.exception.PlaylistConflictException;
+import com.sahil.musicplayer.exception.PlaylistEntryNotFoundException;
+import com.sahil.musicplayer.exception.PlaylistNotFoundException;
+import com.sahil.musicplayer.exception.SongNotFoundException;
+import com.sahil.musicplayer.model.Playlist;
+import com.sahil.musicplayer.model.PlaylistEntry;
+import com.sahil.musicplayer.model.Song;
+import com.sahil.musicplayer.playlist.RankKeys;
+import com.sahil.musicplayer.repository.PlaylistEntryRepository;
+import com.sahil.musicplayer.repository.PlaylistRepository;
+import com.sahil.musicplayer.repository.SongRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+// Playlists as one metadata document plus one document per entry, ordered by fractional rank keys.
+// Adding, moving or removing a song writes that entry alone (and bumps the playlist's counters);
+// pages are keyset range reads on (playlistId, rank). Each playlist's first page is cached as entries
+// only, evicted by every edit; songs are filled in from the song cache on each read so they stay current.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PlaylistService {
+
+    public static final String FIRST_PAGES = "playlistPages";
+
+    // Two writers picking the same gap generate the same key; the loser re-reads its neighbours
+    private static final int RANK_ATTEMPTS = 3;
+
+    private final PlaylistRepository playlistRepository;
+    private final PlaylistEntryRepository playlistEntryRepository;
+    private final SongRepository songRepository;
+    private final MongoTemplate mongoTemplate;
+    private final CacheManager cacheManager;
+
+    @Value("${playlists.page.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${playlists.max-entries:10000}")
+    private int maxEntries;
+
+    public Playlist createPlaylist(String ownerId, PlaylistRequest request) {
+        Instant now = Instant.now();
+        return playlistRepository.save(Playlist.builder()
+                .ownerId(ownerId)
+                .name(request.getName())
+                .description(request.getDescription())
+                .createdAt(now)
+                .updatedAt(now)
+                .build());
+    }
+
+    public List<Playlist> getPlaylists(String ownerId) {
+        return playlistRepository.findByOwnerIdOrderByCreatedAtDesc(ownerId);
+    }
+
+    // Other users' playlists read as missing rather than forbidden
+    public Playlist getPlaylist(String ownerId, String playlistId) {
+        return playlistRepository.findById(playlistId)
+                .filter(playlist -> Objects.equals(playlist.getOwnerId(), ownerId))
+                .orElseThrow(() -> new PlaylistNotFoundException(playlistId));
+    }
+
+    // Sets the metadata fields only, so a concurrent entry edit's counters are not overwritten
+    public Playlist updatePlaylist(String ownerId, String playlistId, PlaylistRequest request) {
+        getPlaylist(ownerId, playlistId);
+        Playlist updated = mongoTemplate.findAndModify(Query.query(Criteria.where("_id").is(playlistId)),
+                new Update().set("name", request.getName())
+                        .set("description", request.getDescription())
+                        .set("updatedAt", Instant.now()),
+                FindAndModifyOptions.options().returnNew(true), Playlist.class);
+        if (updated == null) {
+            throw new PlaylistNotFoundException(playlistId);
+        }
+        return updated;
+    }
+
+    public void deletePlaylist(String ownerId, String playlistId) {
+        getPlaylist(ownerId, playlistId);
+        long entries = playlistEntryRepository.deleteByPlaylistId(playlistId);
+        playlistRepository.deleteById(playlistId);
+        firstPages().evict(playlistId);
+        log.debug("Deleted playlist {} with {} entries", playlistId, entries);
+    }
+
+    public PlaylistPage getEntries(String ownerId, String playlistId, String cursor, int limit) {
+        Playlist playlist = getPlaylist(ownerId, playlistId);
+        if ((cursor != null && !cursor.isEmpty()) || limit != defaultPageSize) {
+            return withSongs(loadPage(playlistId, cursor, limit));
+        }
+        PlaylistPage page = firstPages().get(playlistId, PlaylistPage.class);
+        if (page == null) {
+            // The version was read before the entries, so it is older than any edit the page missed
+            page = loadPage(playlistId, null, limit);
+            cacheFirstPage(playlistId, playlist.getEntriesVersion(), page);
+        }
+        return withSongs(page);
+    }
+
+    public PlaylistItem addEntry(String ownerId, String playlistId, PlaylistEntryRequest request) {
+        Playlist playlist = getPlaylist(ownerId, playlistId);
+        if (playlist.getEntryCount() >= maxEntries) {
+            throw new IllegalArgumentException("Playlist already has the maximum of " + maxEntries + " songs");
+        }
+        Song song = songRepository.findById(request.getSongId())
+                .orElseThrow(() -> new SongNotFoundException(request.getSongId()));
+
+        for (int attempt = 1; ; attempt++) {
+            String rank = rankFor(playlistId, request.getAfterEntryId(), request.getBeforeEntryId(), null);
+            try {
+                PlaylistEntry entry = playlistEntryRepository.insert(PlaylistEntry.builder()
+                        .playlistId(playlistId)
+                        .songId(song.getId())
+                        .rank(rank)
+                        .addedAt(Instant.now())
+                        .build());
+                touch(playlistId, 1);
+                return toItem(entry, song);
+            } catch (DuplicateKeyException e) {
+                if (attempt == RANK_ATTEMPTS) {
+                    throw new PlaylistConflictException("Could not place the song, the playlist is being edited concurrently");
+                }
+            }
+        }
+    }
+
+    public PlaylistItem moveEntry(String ownerId, String playlistId, String entryId, PlaylistMoveRequest request) {
+        getPlaylist(ownerId, playlistId);
+        PlaylistEntry entry = entry(playlistId, entryId);
+        if (entryId.equals(request.getAfterEntryId()) || entryId.equals(request.getBeforeEntryId())) {
+            throw new IllegalArgumentException("An entry cannot be moved relative to itself");
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            String rank = rankFor(playlistId, request.getAfterEntryId(), request.getBeforeEntryId(), entryId);
+            if (rank == null) {
+                // Already in the requested position
+                break;
+            }
+            try {
+                mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(entryId)),
+                        Update.update("rank", rank), PlaylistEntry.class);
+                entry.setRank(rank);
+                touch(playlistId, 0);
+                break;
+            } catch (DuplicateKeyException e) {
+                if (attempt == RANK_ATTEMPTS) {
+                    throw new PlaylistConflictException("Could not move the song, the playlist is being edited concurrently");
+                }
+            }
+        }
+        return toItem(entry, songRepository.findById(entry.getSongId()).orElse(null));
+    }
+
+    public void removeEntry(String ownerId, String playlistId, String entryId) {
+        getPlaylist(ownerId, playlistId);
+        // Of two concurrent removes only the one that deleted the entry decrements the count
+        long removed = mongoTemplate.remove(Query.query(Criteria.where("_id").is(entryId)
+                .and("playlistId").is(playlistId)), PlaylistEntry.class).getDeletedCount();
+        if (removed == 0) {
+            throw new PlaylistEntryNotFoundException(entryId);
+        }
+        touch(playlistId, -1);
+    }
+
+    // Removes deleted songs from every playlist with one read, one deleteMany and one bulk counter update
+    @EventListener
+    public void onSongsRemoved(SongsRemovedEvent event) {
+        List<PlaylistEntry> entries = playlistEntryRepository.findBySongIdIn(event.songIds());
+        if (entries.isEmpty()) {
+            return;
+        }
+        Map<String, Integer> removedPerPlaylist = new HashMap<>();
+        for (PlaylistEntry entry : entries) {
+            removedPerPlaylist.merge(entry.getPlaylistId(), 1, Integer::sum);
+        }
+        playlistEntryRepository.deleteBySongIdIn(event.songIds());
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Playlist.class);
+        Instant now = Instant.now();
+        removedPerPlaylist.forEach((playlistId, removed) -> bulk.updateOne(
+                Query.query(Criteria.where("_id").is(playlistId)),
+                new Update().inc("entryCount", -removed).inc("entriesVersion", 1).set("updatedAt", now)));
+        bulk.execute();
+        removedPerPlaylist.keySet().forEach(firstPages()::evict);
+        log.debug("Removed {} deleted songs from {} playlists", entries.size(), removedPerPlaylist.size());
+    }
+
+    // A rank between the requested neighbours, or null when movingId already sits there
+    private String rankFor(String playlistId, String afterEntryId, String beforeEntryId, String movingId) {
+        if (afterEntryId != null && beforeEntryId != null) {
+            throw new IllegalArgumentException("Give either afterEntryId or beforeEntryId, not both");
+        }
+        String low;
+        String high;
+        if (afterEntryId != null) {
+            low = entry(playlistId, afterEntryId).getRank();
+            Optional<PlaylistEntry> next = playlistEntryRepository
+                    .findFirstByPlaylistIdAndRankGreaterThanOrderByRankAsc(playlistId, low);
+            if (next.isPresent() && next.get().getId().equals(movingId)) {
+                return null;
+            }
+            high = next.map(PlaylistEntry::getRank).orElse(null);
+        } else if (beforeEntryId != null) {
+            high = entry(playlistId, beforeEntryId).getRank();
+            Optional<PlaylistEntry> previous = playlistEntryRepository
+                    .findFirstByPlaylistIdAndRankLessThanOrderByRankDesc(playlistId, high);
+            if (previous.isPresent() && previous.get().getId().equals(movingId)) {
+                return null;
+            }
+            low = previous.map(PlaylistEntry::getRank).orElse(null);
+        } else {
+            Optional<PlaylistEntry> last = playlistEntryRepository.findFirstByPlaylistIdOrderByRankDesc(playlistId);
+            if (last.isPresent() && last.get().getId().equals(movingId)) {
+                return null;
+            }
+            low = last.map(PlaylistEntry::getRank).orElse(null);
+            high = null;
+        }
+        return RankKeys.between(low, high);
+    }
+
+    private PlaylistPage loadPage(String playlistId, String cursor, int limit) {
+        PageRequest pageable = PageRequest.of(0, limit + 1);
+        List<PlaylistEntry> entries;
+        if (cursor == null || cursor.isEmpty()) {
+            entries = playlistEntryRepository.findByPlaylistIdOrderByRankAsc(playlistId, pageable);
+        } else {
+            if (!RankKeys.isValid(cursor)) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            entries = playlistEntryRepository.findByPlaylistIdAndRankGreaterThanOrderByRankAsc(playlistId, cursor, pageable);
+        }
+
+        boolean hasMore = entries.size() > limit;
+        List<PlaylistEntry> pageEntries = hasMore ? entries.subList(0, limit) : entries;
+        return PlaylistPage.builder()
+                .items(pageEntries.stream().map(entry -> toItem(entry, null)).toList())
+                .nextCursor(hasMore ? pageEntries.get(pageEntries.size() - 1).getRank() : null)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    // Returns a copy with each entry's song, read through the song cache; the page passed in may be the
+    // cached instance and is left untouched
+    private PlaylistPage withSongs(PlaylistPage page) {
+        Cache songCache = cache(SongCatalogCache.SONG);
+        Map<String, Song> songs = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (PlaylistItem item : page.getItems()) {
+            Song song = songCache.get(item.getSongId(), Song.class);
+            if (song != null) {
+                songs.put(song.getId(), song);
+            } else if (!songs.containsKey(item.getSongId())) {
+                songs.put(item.getSongId(), null);
+                missing.add(item.getSongId());
+            }
+        }
+        if (!missing.isEmpty()) {
+            songRepository.findAllById(missing).forEach(song -> {
+                songs.put(song.getId(), song);
+                songCache.putIfAbsent(song.getId(), song);
+            });
+        }
+
+        List<PlaylistItem> items = new ArrayList<>(page.getItems().size());
+        for (PlaylistItem item : page.getItems()) {
+            Song song = songs.get(item.getSongId());
+            // A song deleted moments ago may still have entries until the cleanup runs
+            if (song != null) {
+                items.add(item.toBuilder().song(song).build());
+            }
+        }
+        return page.toBuilder().items(items).build();
+    }
+
+    private PlaylistEntry entry(String playlistId, String entryId) {
+        return playlistEntryRepository.findById(entryId)
+                .filter(entry -> playlistId.equals(entry.getPlaylistId()))
+                .orElseThrow(() -> new PlaylistEntryNotFoundException(entryId));
+    }
+
+    private void touch(String playlistId, int entryDelta) {
+        Update update = Update.update("updatedAt", Instant.now()).inc("entriesVersion", 1);
+        if (entryDelta != 0) {
+            update.inc("entryCount", entryDelta);
+        }
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(playlistId)), update, Playlist.class);
+        firstPages().evict(playlistId);
+    }
+
+    // Caches the page, then drops it again if an edit bumped the version since it was loaded. An edit
+    // that bumps it after this check evicts after the put, so a stale page never outlives either.
+    private void cacheFirstPage(String playlistId, long entriesVersion, PlaylistPage page) {
+        Cache firstPages = firstPages();
+        firstPages.put(playlistId, page);
+        Query query = Query.query(Criteria.where("_id").is(playlistId));
+        query.fields().include("entriesVersion");
+        Playlist current = mongoTemplate.findOne(query, Playlist.class);
+        if (current == null || current.getEntriesVersion() != entriesVersion) {
+            firstPages.evict(playlistId);
+        }
+    }
+
+    private static PlaylistItem toItem(PlaylistEntry entry, Song song) {
+        return PlaylistItem.builder()
+                .entryId(entry.getId())
+                .rank(entry.getRank())
+                .songId(entry.getSongId())
+                .song(song)
+                .build();
+    }
+
+    private Cache firstPages() {
+        return cache(FIRST_PAGES);
+    }
+
+    private Cache cache(String name) {
+        return Objects.requireNonNull(cacheManager.getCache(name), "Cache not configured: " + name);
+    }
+}
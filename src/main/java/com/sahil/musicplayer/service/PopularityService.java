@@ -0,0 +1,172 @@
+package com.sahil.musicplayer.service;
+
+import com.sahil.musicplayer.event.PlaysRecordedEvent;
+import com.sahil.musicplayer.event.SongsRemovedEvent;
+import com.sahil.musicplayer.exception.SongNotFoundException;
+import com.sahil.musicplayer.model.PlayEvent;
+import com.sahil.musicplayer.model.Song;
+import com.sahil.musicplayer.play.PopularWindow;
+import com.sahil.musicplayer.play.TopK;
+import com.sahil.musicplayer.play.WindowedSketch;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+// Popular songs per sliding window from streaming sketches instead of aggregations over play_events.
+// Each node folds its own plays into per-window bucket sketches; the merge job publishes changed
+// buckets to Redis under this node's id, sums every node's buckets for the window and stores the
+// ranked songs, so a request only reads the last result.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PopularityService {
+
+    private static final String KEY_PREFIX = "popular:";
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final SongService songService;
+
+    @Value("${popular.sketch.width:2048}")
+    private int sketchWidth;
+
+    @Value("${popular.sketch.depth:4}")
+    private int sketchDepth;
+
+    @Value("${popular.top-k:100}")
+    private int topK;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<PopularWindow, WindowedSketch> sketches = new EnumMap<>(PopularWindow.class);
+    private volatile Map<PopularWindow, List<Song>> ranked = new EnumMap<>(PopularWindow.class);
+
+    @PostConstruct
+    public void init() {
+        for (PopularWindow window : PopularWindow.values()) {
+            sketches.put(window, new WindowedSketch(window, sketchWidth, sketchDepth, topK));
+        }
+    }
+
+    public List<Song> getPopular(PopularWindow window, int limit) {
+        List<Song> songs = ranked.getOrDefault(window, List.of());
+        return songs.subList(0, Math.min(Math.max(limit, 0), songs.size()));
+    }
+
+    @EventListener
+    public void onPlaysRecorded(PlaysRecordedEvent event) {
+        synchronized (sketches) {
+            for (PlayEvent play : event.events()) {
+                long playedAt = play.getPlayedAt().toEpochMilli();
+                for (WindowedSketch sketch : sketches.values()) {
+                    sketch.add(play.getSongId(), playedAt);
+                }
+            }
+        }
+    }
+
+    @EventListener
+    public void onSongsRemoved(SongsRemovedEvent event) {
+        Set<String> removed = new HashSet<>(event.songIds());
+        Map<PopularWindow, List<Song>> filtered = new EnumMap<>(PopularWindow.class);
+        ranked.forEach((window, songs) -> filtered.put(window,
+                songs.stream().filter(song -> !removed.contains(song.getId())).toList()));
+        ranked = filtered;
+    }
+
+    @Scheduled(fixedDelayString = "${popular.merge-interval-ms:10000}")
+    public void merge() {
+        long now = System.currentTimeMillis();
+        Map<PopularWindow, List<byte[]>> shared = new EnumMap<>(PopularWindow.class);
+        Map<PopularWindow, List<byte[]>> local = new EnumMap<>(PopularWindow.class);
+        Map<PopularWindow, List<WindowedSketch.Payload>> changed = new EnumMap<>(PopularWindow.class);
+        synchronized (sketches) {
+            sketches.forEach((window, sketch) -> {
+                changed.put(window, sketch.takeDirty(now));
+                local.put(window, sketch.live(now));
+            });
+        }
+
+        try {
+            publish(changed);
+            for (PopularWindow window : PopularWindow.values()) {
+                shared.put(window, readShared(window, sketches.get(window).bucketIndex(now)));
+            }
+        } catch (Exception e) {
+            // Rank this node's plays alone until Redis is back; a bucket is republished whole the next time it changes
+            log.warn("Could not merge popularity through Redis: {}", e.getMessage());
+            shared = local;
+        }
+
+        Map<PopularWindow, List<Song>> next = new EnumMap<>(PopularWindow.class);
+        for (Map.Entry<PopularWindow, List<byte[]>> entry : shared.entrySet()) {
+            next.put(entry.getKey(), resolve(WindowedSketch.rank(entry.getValue(), sketchWidth, sketchDepth, topK)));
+        }
+        ranked = next;
+    }
+
+    private void publish(Map<PopularWindow, List<WindowedSketch.Payload>> changed) {
+        byte[] field = nodeId.getBytes(StandardCharsets.UTF_8);
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            changed.forEach((window, payloads) -> {
+                long ttlSeconds = window.getLength().plus(window.getBucket()).toSeconds();
+                for (WindowedSketch.Payload payload : payloads) {
+                    byte[] key = bucketKey(window, payload.bucketIndex());
+                    connection.hashCommands().hSet(key, field, payload.bytes());
+                    connection.keyCommands().expire(key, ttlSeconds);
+                }
+            });
+            return null;
+        });
+    }
+
+    private List<byte[]> readShared(PopularWindow window, long currentIndex) {
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (long index = currentIndex - window.getBuckets() + 1; index <= currentIndex; index++) {
+                connection.hashCommands().hVals(bucketKey(window, index));
+            }
+            return null;
+        }, RedisSerializer.byteArray());
+
+        List<byte[]> payloads = new ArrayList<>();
+        for (Object result : results) {
+            if (result instanceof List<?> values) {
+                for (Object value : values) {
+                    payloads.add((byte[]) value);
+                }
+            }
+        }
+        return payloads;
+    }
+
+    private List<Song> resolve(List<TopK.Entry> entries) {
+        List<Song> songs = new ArrayList<>(entries.size());
+        for (TopK.Entry entry : entries) {
+            try {
+                songs.add(songService.getSongById(entry.key()));
+            } catch (SongNotFoundException e) {
+                // Played, then deleted
+            }
+        }
+        return List.copyOf(songs);
+    }
+
+    private static byte[] bucketKey(PopularWindow window, long index) {
+        return (KEY_PREFIX + window.name().toLowerCase(Locale.ROOT) + ":" + index).getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,222 @@
+package com.sahil.musicplayer.service;
+
+import com.sahil.musicplayer.event.SongsRemovedEvent;
+import com.sahil.musicplayer.exception.SongNotFoundException;
+import com.sahil.musicplayer.model.Favorite;
+import com.sahil.musicplayer.model.PlayEvent;
+import com.sahil.musicplayer.model.Song;
+import com.sahil.musicplayer.recommend.CoOccurrenceIndex;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+// "More like this" from an in-memory co-occurrence index. Rather than listening to this node's plays,
+// every node tails play_events and favorites in time order, so each one learns from the whole
+// cluster's activity; the first pass warms the index from the configured lookback. Reads take the
+// read lock and never touch Mongo beyond the cached song lookups.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RecommendationService {
+
+    private static final int APPLY_CHUNK = 1000;
+    private static final int FAVORITE_WEIGHT = 2;
+
+    private final MongoTemplate mongoTemplate;
+    private final SongService songService;
+
+    @Value("${recommend.history-size:20}")
+    private int historySize;
+
+    @Value("${recommend.session-gap-minutes:120}")
+    private long sessionGapMinutes;
+
+    @Value("${recommend.max-users:200000}")
+    private int maxUsers;
+
+    @Value("${recommend.warmup-hours:24}")
+    private long warmupHours;
+
+    // Activity newer than this is left for the next pass, so events still in other nodes' write
+    // buffers are not skipped over
+    @Value("${recommend.ingest-lag-seconds:30}")
+    private long ingestLagSeconds;
+
+    @Value("${recommend.max-neighbours:100}")
+    private int maxNeighbours;
+
+    @Value("${recommend.max-pairs:20000000}")
+    private long maxPairs;
+
+    @Value("${recommend.min-count:2}")
+    private int minCount;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private CoOccurrenceIndex index;
+    private Instant cursor;
+
+    @PostConstruct
+    public void init() {
+        index = new CoOccurrenceIndex(historySize, Duration.ofMinutes(sessionGapMinutes).toMillis(), maxUsers);
+        cursor = Instant.now().minus(Duration.ofHours(warmupHours));
+    }
+
+    public List<Song> getRecommendations(String songId, int limit) {
+        songService.getSongById(songId);
+        List<CoOccurrenceIndex.Neighbour> neighbours;
+        lock.readLock().lock();
+        try {
+            neighbours = index.neighbours(songId, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Song> songs = new ArrayList<>(neighbours.size());
+        for (CoOccurrenceIndex.Neighbour neighbour : neighbours) {
+            try {
+                songs.add(songService.getSongById(neighbour.songId()));
+            } catch (SongNotFoundException e) {
+                // Removed from the catalog after the index last heard of it
+            }
+        }
+        return songs;
+    }
+
+    public Map<String, Object> getStats() {
+        lock.readLock().lock();
+        try {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("songs", index.getSongs());
+            stats.put("pairs", index.getPairs());
+            stats.put("tableBytes", index.memoryBytes());
+            stats.put("ingestedUntil", cursor);
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void onSongsRemoved(SongsRemovedEvent event) {
+        lock.writeLock().lock();
+        try {
+            index.remove(event.songIds());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${recommend.ingest-interval-ms:30000}")
+    public void ingest() {
+        Instant until = Instant.now().minusSeconds(ingestLagSeconds);
+        if (!until.isAfter(cursor)) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        long applied = 0;
+        Query plays = new Query(Criteria.where("playedAt").gte(cursor).lt(until))
+                .with(Sort.by("playedAt"));
+        plays.fields().include("userId", "songId", "playedAt");
+        Query favorites = new Query(Criteria.where("createdAt").gte(cursor).lt(until))
+                .with(Sort.by("createdAt"));
+        favorites.fields().include("userId", "songId", "createdAt");
+
+        try (Stream<PlayEvent> playStream = mongoTemplate.stream(plays, PlayEvent.class);
+             Stream<Favorite> favoriteStream = mongoTemplate.stream(favorites, Favorite.class)) {
+            Iterator<PlayEvent> playIterator = playStream.iterator();
+            Iterator<Favorite> favoriteIterator = favoriteStream.iterator();
+            PlayEvent play = next(playIterator);
+            Favorite favorite = next(favoriteIterator);
+            List<Activity> chunk = new ArrayList<>(APPLY_CHUNK);
+
+            // Merge the two time-ordered streams so each user's history sees activity in order
+            while (play != null || favorite != null) {
+                if (favorite == null || (play != null && !play.getPlayedAt().isAfter(favorite.getCreatedAt()))) {
+                    chunk.add(new Activity(play.getUserId(), play.getSongId(), play.getPlayedAt().toEpochMilli(), 1));
+                    play = next(playIterator);
+                } else {
+                    chunk.add(new Activity(favorite.getUserId(), favorite.getSongId(),
+                            favorite.getCreatedAt().toEpochMilli(), FAVORITE_WEIGHT));
+                    favorite = next(favoriteIterator);
+                }
+                if (chunk.size() == APPLY_CHUNK) {
+                    applied += apply(chunk);
+                }
+            }
+            applied += apply(chunk);
+        } catch (Exception e) {
+            // The cursor stays put and the window is read again on the next pass; activity applied before
+            // the failure counts twice, which only nudges a few co-occurrence counts
+            log.error("Failed to ingest activity into the recommendation index: {}", e.getMessage());
+            return;
+        }
+        cursor = until;
+        if (applied > 0) {
+            log.debug("Ingested {} activities into the recommendation index in {}ms",
+                    applied, System.currentTimeMillis() - start);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${recommend.prune-interval-ms:600000}",
+            fixedDelayString = "${recommend.prune-interval-ms:600000}")
+    public void prune() {
+        long start = System.currentTimeMillis();
+        long before;
+        long after;
+        lock.writeLock().lock();
+        try {
+            before = index.getPairs();
+            index.prune(maxNeighbours, maxPairs, minCount);
+            after = index.getPairs();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Pruned recommendation index from {} to {} pairs in {}ms",
+                before, after, System.currentTimeMillis() - start);
+    }
+
+    // Holds the write lock for one chunk at a time so reads are never stalled by a long warmup
+    private int apply(List<Activity> chunk) {
+        int size = chunk.size();
+        if (size == 0) {
+            return 0;
+        }
+        lock.writeLock().lock();
+        try {
+            for (Activity activity : chunk) {
+                if (activity.userId() != null && activity.songId() != null) {
+                    index.observe(activity.userId(), activity.songId(), activity.epochMillis(), activity.weight());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        chunk.clear();
+        return size;
+    }
+
+    private static <T> T next(Iterator<T> iterator) {
+        return iterator.hasNext() ? iterator.next() : null;
+    }
+
+    private record Activity(String userId, String songId, long epochMillis, int weight) {
+    }
+}
@@ -0,0 +1,71 @@
+package com.sahil.musicplayer.service;
+
+import com.sahil.musicplayer.model.Song;
+import org.bson.types.ObjectId;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Keyset position of a song in one of the catalog sort orders, handed to clients as an opaque cursor
+public record SongCursor(String sort, String id, String title) implements Comparable<SongCursor> {
+
+    public static SongCursor of(Song song, String sort) {
+        return new SongCursor(sort, song.getId(), SongServiceImpl.SORT_BY_TITLE.equals(sort) ? song.getTitle() : null);
+    }
+
+    public static SongCursor decode(String cursor, String sort) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = position.split("\n", 3);
+            boolean byTitle = SongServiceImpl.SORT_BY_TITLE.equals(sort);
+            if ((parts.length != 2 && !(byTitle && parts.length == 3))
+                    || !parts[0].equals(sort) || !ObjectId.isValid(parts[1])) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new SongCursor(sort, parts[1], parts.length == 3 ? parts[2] : null);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    // A song without a title has no title line, which keeps it apart from an empty title
+    public String encode() {
+        String position = sort + "\n" + id;
+        if (SongServiceImpl.SORT_BY_TITLE.equals(sort) && title != null) {
+            position += "\n" + title;
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Same order as the page queries: title (MongoDB's binary, i.e. code point, order, with missing
+    // titles first) then id
+    @Override
+    public int compareTo(SongCursor other) {
+        if (SongServiceImpl.SORT_BY_TITLE.equals(sort)) {
+            int byTitle = compareCodePoints(title, other.title);
+            if (byTitle != 0) {
+                return byTitle;
+            }
+        }
+        return id.compareTo(other.id);
+    }
+
+    private static int compareCodePoints(String a, String b) {
+        if (a == null || b == null) {
+            return a == null ? (b == null ? 0 : -1) : 1;
+        }
+        int i = 0;
+        int j = 0;
+        while (i < a.length() && j < b.length()) {
+            int ca = a.codePointAt(i);
+            int cb = b.codePointAt(j);
+            if (ca != cb) {
+                return Integer.compare(ca, cb);
+            }
+            i += Character.charCount(ca);
+            j += Character.charCount(cb);
+        }
+        return Integer.compare(a.length() - i, b.length() - j);
+    }
+}
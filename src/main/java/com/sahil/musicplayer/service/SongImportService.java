@@ -0,0 +1,423 @@
+package com.sahil.musicplayer.service;
+
+import com.sahil.musicplayer.audio.AudioInfo;
+import com.sahil.musicplayer.dto.ImportItemResult;
+import com.sahil.musicplayer.dto.ImportManifest;
+import com.sahil.musicplayer.dto.ImportReport;
+import com.sahil.musicplayer.dto.ImportTrack;
+import com.sahil.musicplayer.model.Song;
+import com.sahil.musicplayer.upload.StagedUpload;
+import com.sahil.musicplayer.upload.UploadStager;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+// Admin bulk import. Tracks are staged one at a time, pushed to storage with bounded parallelism
+// and written to Mongo in unordered bulk batches. Every item ends up in the report.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SongImportService {
+
+    private static final String UNKNOWN_ARTIST = "Unknown Artist";
+    private static final int MAX_REDIRECTS = 5;
+
+    private final SongService songService;
+    private final UploadStager uploadStager;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            // Redirects are followed by hand so every hop is checked against the allowlist
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    private ExecutorService importExecutor;
+
+    @Value("${import.parallelism:8}")
+    private int parallelism;
+
+    @Value("${import.batch-size:500}")
+    private int batchSize;
+
+    @Value("${import.max-item-mb:50}")
+    private long maxItemMb;
+
+    @Value("${import.download-timeout-seconds:120}")
+    private long downloadTimeoutSeconds;
+
+    // Hosts manifest urls may point at; ".example.com" also admits its subdomains. Empty admits none,
+    // so the server never fetches from internal addresses on an admin's behalf.
+    @Value("${import.allowed-hosts:}")
+    private List<String> allowedHosts;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger counter = new AtomicInteger();
+        importExecutor = new ThreadPoolExecutor(parallelism, parallelism, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "song-import-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        importExecutor.shutdown();
+    }
+
+    // Entries are read straight off the request stream; nothing but the current entry touches disk
+    public ImportReport importArchive(InputStream body) {
+        ImportRun run = new ImportRun();
+        int index = 0;
+        try (ZipInputStream zip = new ZipInputStream(body)) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                if (entry.isDirectory()) {
+                    continue;
+                }
+                int itemIndex = index++;
+                String source = entry.getName();
+                String fileName = baseName(source);
+                if (fileName.startsWith(".") || !fileName.toLowerCase().endsWith(".mp3")) {
+                    run.record(itemIndex, source, ImportItemResult.Status.SKIPPED, null, "Not an .mp3 file");
+                    continue;
+                }
+
+                run.acquireSlot();
+                StagedUpload staged;
+                try {
+                    staged = uploadStager.stage(new BoundedInputStream(zip, maxItemMb * 1024 * 1024), fileName);
+                } catch (IOException | RuntimeException e) {
+                    run.releaseSlot();
+                    run.record(itemIndex, source, ImportItemResult.Status.FAILED, null, e.getMessage());
+                    continue;
+                }
+                run.submit(itemIndex, source, () -> staged, fileName, null, null);
+            }
+        } catch (IOException e) {
+            log.warn("Stopped reading import archive: {}", e.getMessage());
+            run.record(index, "archive", ImportItemResult.Status.FAILED, null, "Unreadable archive: " + e.getMessage());
+        }
+        return run.finish();
+    }
+
+    public ImportReport importManifest(ImportManifest manifest) {
+        ImportRun run = new ImportRun();
+        List<ImportTrack> tracks = manifest.getTracks();
+        for (int i = 0; i < tracks.size(); i++) {
+            ImportTrack track = tracks.get(i);
+            URI uri;
+            try {
+                uri = URI.create(track.getUrl().trim());
+            } catch (IllegalArgumentException e) {
+                run.record(i, track.getUrl(), ImportItemResult.Status.FAILED, null, "Invalid url");
+                continue;
+            }
+            String rejected = rejectReason(uri);
+            if (rejected != null) {
+                run.record(i, track.getUrl(), ImportItemResult.Status.FAILED, null, rejected);
+                continue;
+            }
+            String fileName = track.getFileName() != null && !track.getFileName().isBlank()
+                    ? track.getFileName() : baseName(uri.getPath() == null ? "" : uri.getPath());
+            if (!fileName.toLowerCase().endsWith(".mp3")) {
+                run.record(i, track.getUrl(), ImportItemResult.Status.FAILED, null, "Only .mp3 files are allowed.");
+                continue;
+            }
+            run.acquireSlot();
+            run.submit(i, track.getUrl(), () -> download(uri, fileName), fileName, track.getTitle(), track.getArtist());
+        }
+        return run.finish();
+    }
+
+    private StagedUpload download(URI uri, String fileName) throws IOException, InterruptedException {
+        for (int redirects = 0; ; redirects++) {
+            HttpRequest request = HttpRequest.newBuilder(uri)
+                    .timeout(Duration.ofSeconds(downloadTimeoutSeconds))
+                    .GET()
+                    .build();
+            HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            try (InputStream body = response.body()) {
+                int status = response.statusCode();
+                if (status == 200) {
+                    return uploadStager.stage(new BoundedInputStream(body, maxItemMb * 1024 * 1024), fileName);
+                }
+                String location = response.headers().firstValue("Location").orElse(null);
+                if (!isRedirect(status) || location == null) {
+                    throw new IOException("Download failed with HTTP " + status);
+                }
+                if (redirects == MAX_REDIRECTS) {
+                    throw new IOException("Too many redirects");
+                }
+                try {
+                    uri = uri.resolve(location.trim());
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("Invalid redirect location");
+                }
+                String rejected = rejectReason(uri);
+                if (rejected != null) {
+                    throw new IOException("Redirect to " + uri.getHost() + " refused: " + rejected);
+                }
+            }
+        }
+    }
+
+    private String rejectReason(URI uri) {
+        if (!"http".equalsIgnoreCase(uri.getScheme()) && !"https".equalsIgnoreCase(uri.getScheme())) {
+            return "Only http(s) urls are supported";
+        }
+        String host = uri.getHost();
+        if (host == null) {
+            return "Invalid url";
+        }
+        host = host.toLowerCase(Locale.ROOT);
+        for (String allowed : allowedHosts) {
+            String entry = allowed.trim().toLowerCase(Locale.ROOT);
+            if (!entry.isEmpty() && (entry.startsWith(".") ? host.endsWith(entry) : host.equals(entry))) {
+                return null;
+            }
+        }
+        return "Host not allowed: " + host;
+    }
+
+    private static boolean isRedirect(int status) {
+        return status == 301 || status == 302 || status == 303 || status == 307 || status == 308;
+    }
+
+    // Explicit metadata wins, then the file's ID3 tag, then the file name
+    private static String firstNonBlank(String... values) {
+        for (String value : values) {
+            if (value != null && !value.isBlank()) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    // "Artist - Title.mp3" names carry both; anything else becomes the title
+    private static String titleFrom(String fileName) {
+        String name = fileName.substring(0, fileName.length() - ".mp3".length()).trim();
+        int separator = name.indexOf(" - ");
+        return separator > 0 ? name.substring(separator + 3).trim() : name;
+    }
+
+    private static String artistFrom(String fileName) {
+        String name = fileName.substring(0, fileName.length() - ".mp3".length()).trim();
+        int separator = name.indexOf(" - ");
+        return separator > 0 ? name.substring(0, separator).trim() : UNKNOWN_ARTIST;
+    }
+
+    private static String baseName(String path) {
+        int slash = Math.max(path.lastIndexOf('/'), path.lastIndexOf('\\'));
+        return path.substring(slash + 1);
+    }
+
+    @FunctionalInterface
+    private interface StagingStep {
+        StagedUpload stage() throws Exception;
+    }
+
+    private record StoredItem(int index, String source, Song song) {
+    }
+
+    private final class ImportRun {
+
+        private final long start = System.currentTimeMillis();
+        private final List<ImportItemResult> results = new ArrayList<>();
+        private final List<CompletableFuture<Void>> tasks = new ArrayList<>();
+        private List<StoredItem> batch = new ArrayList<>();
+        // Content hash -> index of the first item in this import carrying it
+        private final Map<String, Integer> seenHashes = new ConcurrentHashMap<>();
+        // Bounds staged-but-not-uploaded files for this import, and with them the local disk used
+        private final Semaphore slots = new Semaphore(parallelism);
+
+        void acquireSlot() {
+            try {
+                slots.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Import interrupted", e);
+            }
+        }
+
+        void releaseSlot() {
+            slots.release();
+        }
+
+        void submit(int index, String source, StagingStep staging, String fileName, String title, String artist) {
+            tasks.add(CompletableFuture.runAsync(() -> {
+                try (StagedUpload staged = staging.stage()) {
+                    Integer firstIndex = seenHashes.putIfAbsent(staged.getContentHash(), index);
+                    if (firstIndex != null) {
+                        record(index, source, ImportItemResult.Status.SKIPPED, null,
+                                "Same content as item " + firstIndex);
+                        return;
+                    }
+                    Song existing = songService.findByContentHash(staged.getContentHash()).orElse(null);
+                    if (existing != null) {
+                        record(index, source, ImportItemResult.Status.SKIPPED, existing.getId(),
+                                "Already in the catalog");
+                        return;
+                    }
+                    AudioInfo audio = staged.getAudioInfo();
+                    Song song = songService.storeUpload(staged,
+                            firstNonBlank(title, audio.getTitle(), titleFrom(fileName)),
+                            firstNonBlank(artist, audio.getArtist(), artistFrom(fileName)));
+                    addToBatch(new StoredItem(index, source, song));
+                } catch (Exception e) {
+                    record(index, source, ImportItemResult.Status.FAILED, null, e.getMessage());
+                } finally {
+                    releaseSlot();
+                }
+            }, importExecutor));
+        }
+
+        synchronized void record(int index, String source, ImportItemResult.Status status, String songId, String error) {
+            results.add(ImportItemResult.builder()
+                    .index(index)
+                    .source(source)
+                    .status(status)
+                    .songId(songId)
+                    .error(error)
+                    .build());
+        }
+
+        private void addToBatch(StoredItem item) {
+            List<StoredItem> full;
+            synchronized (this) {
+                batch.add(item);
+                if (batch.size() < batchSize) {
+                    return;
+                }
+                full = takeBatch();
+            }
+            insert(full);
+        }
+
+        // Swapped out under the lock so the bulk insert itself never blocks the other workers
+        private synchronized List<StoredItem> takeBatch() {
+            List<StoredItem> taken = batch;
+            batch = new ArrayList<>();
+            return taken;
+        }
+
+        private void insert(List<StoredItem> items) {
+            if (items.isEmpty()) {
+                return;
+            }
+            List<Song> songs = new ArrayList<>(items.size());
+            items.forEach(item -> songs.add(item.song()));
+            Map<Integer, String> failures;
+            try {
+                failures = songService.insertSongs(songs);
+            } catch (RuntimeException e) {
+                log.error("Bulk insert of {} imported songs failed", songs.size(), e);
+                items.forEach(item -> record(item.index(), item.source(), ImportItemResult.Status.FAILED, null,
+                        "Database write failed: " + e.getMessage()));
+                return;
+            }
+            for (int i = 0; i < items.size(); i++) {
+                StoredItem item = items.get(i);
+                String error = failures.get(i);
+                if (error == null) {
+                    record(item.index(), item.source(), ImportItemResult.Status.IMPORTED, item.song().getId(), null);
+                } else {
+                    record(item.index(), item.source(), ImportItemResult.Status.FAILED, null, error);
+                }
+            }
+        }
+
+        ImportReport finish() {
+            CompletableFuture.allOf(tasks.toArray(new CompletableFuture<?>[0])).join();
+            insert(takeBatch());
+            List<ImportItemResult> items;
+            synchronized (this) {
+                items = new ArrayList<>(results);
+            }
+            items.sort(Comparator.comparingInt(ImportItemResult::getIndex));
+
+            long imported = items.stream().filter(item -> item.getStatus() == ImportItemResult.Status.IMPORTED).count();
+            long skipped = items.stream().filter(item -> item.getStatus() == ImportItemResult.Status.SKIPPED).count();
+            ImportReport report = ImportReport.builder()
+                    .total(items.size())
+                    .imported((int) imported)
+                    .skipped((int) skipped)
+                    .failed(items.size() - (int) imported - (int) skipped)
+                    .durationMs(System.currentTimeMillis() - start)
+                    .items(items)
+                    .build();
+            log.info("Import finished: {} imported, {} skipped, {} failed in {} ms",
+                    report.getImported(), report.getSkipped(), report.getFailed(), report.getDurationMs());
+            return report;
+        }
+    }
+
+    // Caps a single item's size and keeps the stager from closing the shared archive stream
+    private static final class BoundedInputStream extends FilterInputStream {
+
+        private final long limit;
+        private long count;
+
+        private BoundedInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                advance(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                advance(n);
+            }
+            return n;
+        }
+
+        @Override
+        public void close() {
+            // The underlying stream belongs to the caller
+        }
+
+        private void advance(int n) throws IOException {
+            count += n;
+            if (count > limit) {
+                throw new IOException("Item exceeds the maximum size of " + (limit / (1024 * 1024)) + " MB");
+            }
+        }
+    }
+}
@@ -1,15 +1,28 @@
 package com.sahil.musicplayer.service;
 
+import com.sahil.musicplayer.dto.BulkDeleteReport;
+import com.sahil.musicplayer.dto.SongPage;
+import com.sahil.musicplayer.dto.Suggestion;
 import com.sahil.musicplayer.model.Song;
+import com.sahil.musicplayer.upload.StagedUpload;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 public interface SongService {
     Song uploadSong(MultipartFile file, String title, String artist);
-    List<Song> getAllSongs();
+    Song uploadSong(StagedUpload upload, String title, String artist);
+    Song storeUpload(StagedUpload upload, String title, String artist);
+    Map<Integer, String> insertSongs(List<Song> songs);
+    Optional<Song> findByContentHash(String contentHash);
+    SongPage getSongsPage(String cursor, int limit, String sort);
     Song getSongById(String id);
+    List<Song> searchSongs(String query, int limit);
+    List<Suggestion> suggestSongs(String prefix, int limit);
     Song updateSong(String id, Song updatedSong);
     void deleteSong(String id);
-    void toggleFavorite(String id);
+    BulkDeleteReport deleteSongs(Collection<String> ids);
 }
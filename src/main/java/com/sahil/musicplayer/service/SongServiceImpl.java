@@ -1,68 +1,235 @@
 package com.sahil.musicplayer.service;
 
-import com.cloudinary.Cloudinary;
-import com.cloudinary.utils.ObjectUtils;
+import com.sahil.musicplayer.audio.AudioInfo;
+import com.sahil.musicplayer.cache.SongCatalogCache;
+import com.sahil.musicplayer.dto.BulkDeleteReport;
+import com.sahil.musicplayer.dto.SongPage;
+import com.sahil.musicplayer.dto.Suggestion;
+import com.sahil.musicplayer.event.SongsAddedEvent;
+import com.sahil.musicplayer.event.SongsRemovedEvent;
 import com.sahil.musicplayer.exception.SongNotFoundException;
 import com.sahil.musicplayer.model.Song;
 import com.sahil.musicplayer.repository.SongRepository;
+import com.sahil.musicplayer.search.SongSearchIndex;
+import com.sahil.musicplayer.search.SongSuggester;
+import com.sahil.musicplayer.storage.StorageBackend;
+import com.sahil.musicplayer.storage.StoredObject;
+import com.sahil.musicplayer.upload.StagedUpload;
+import com.sahil.musicplayer.upload.UploadStager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.CachePut;
+import org.bson.types.ObjectId;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class SongServiceImpl implements SongService {
 
-    private final Cloudinary cloudinary;
+    public static final String SORT_BY_ID = "id";
+    public static final String SORT_BY_TITLE = "title";
+
+    private final StorageBackend storageBackend;
     private final SongRepository songRepository;
+    private final SongSearchIndex songSearchIndex;
+    private final SongSuggester songSuggester;
+    private final FavoriteService favoriteService;
+    private final SongCatalogCache songCatalogCache;
+    private final UploadStager uploadStager;
+    private final MongoTemplate mongoTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final StorageOutbox storageOutbox;
+    private final CatalogVersionService catalogVersion;
 
     @Override
-    @Transactional
-    @CacheEvict(value = { "songs", "song" }, allEntries = true)
     public Song uploadSong(MultipartFile file, String title, String artist) {
         String filename = file.getOriginalFilename();
         if (file.isEmpty() || filename == null || !filename.toLowerCase().endsWith(".mp3")) {
             throw new IllegalArgumentException("Only .mp3 files are allowed.");
         }
+        // Spool to disk in pooled chunks and hand storage the file, which it streams from disk
+        try (StagedUpload staged = uploadStager.stage(file)) {
+            return uploadSong(staged, title, artist);
+        } catch (IOException e) {
+            log.error("Error staging song upload", e);
+            throw new RuntimeException("Failed to upload song to storage");
+        }
+    }
+
+    @Override
+    public Song uploadSong(StagedUpload upload, String title, String artist) {
+        Song existing = findByContentHash(upload.getContentHash()).orElse(null);
+        if (existing != null) {
+            log.info("Upload {} matches song {}, reusing its asset", upload.getOriginalFilename(), existing.getId());
+            return existing;
+        }
+
+        Song stored = storeUpload(upload, title, artist);
+        Song saved;
         try {
-            Map<?, ?> uploadResult = cloudinary.uploader().upload(file.getBytes(), ObjectUtils.asMap(
-                    "resource_type", "auto"));
-
-            Song song = Song.builder()
-                    .fileName(filename)
-                    .title(title)
-                    .artist(artist)
-                    .url((String) uploadResult.get("secure_url"))
-                    .publicId((String) uploadResult.get("public_id"))
-                    .isFavorite(false)
-                    .build();
+            saved = songRepository.save(stored);
+        } catch (DuplicateKeyException e) {
+            // Lost a race with a concurrent upload of the same file; keep theirs and drop our copy
+            destroyQuietly(stored.getPublicId());
+            return findByContentHash(upload.getContentHash()).orElseThrow(() -> e);
+        }
+        songCatalogCache.upsert(saved, null);
+        catalogVersion.bump();
+        songSearchIndex.index(saved);
+        songSuggester.requestRebuild();
+        eventPublisher.publishEvent(new SongsAddedEvent(List.of(saved)));
+        return saved;
+    }
+
+    // Uploads the file to storage and returns the unsaved song that points at it. Blank title or
+    // artist fall back to the file's ID3 tags.
+    @Override
+    public Song storeUpload(StagedUpload upload, String title, String artist) {
+        AudioInfo audio = upload.getAudioInfo();
+        try {
+            long start = System.nanoTime();
+            StoredObject stored = storageBackend.store(upload);
+            log.debug("Stored {} ({} bytes) in {} ms via {}", upload.getOriginalFilename(), upload.getSize(),
+                    (System.nanoTime() - start) / 1_000_000, storageBackend.name());
 
-            return songRepository.save(song);
+            return Song.builder()
+                    .fileName(upload.getOriginalFilename())
+                    .title(title != null && !title.isBlank() ? title : audio.getTitle())
+                    .artist(artist != null && !artist.isBlank() ? artist : audio.getArtist())
+                    .url(stored.url())
+                    .publicId(stored.key())
+                    .contentHash(upload.getContentHash())
+                    .album(audio.getAlbum())
+                    .genre(audio.getGenre())
+                    .year(audio.getYear())
+                    .durationMs(audio.getDurationMs())
+                    .bitrateKbps(audio.getBitrateKbps())
+                    .sampleRate(audio.getSampleRate())
+                    .vbr(audio.isVbr())
+                    .version(1L)
+                    .build();
         } catch (IOException e) {
-            log.error("Error uploading song to Cloudinary", e);
-            throw new RuntimeException("Failed to upload song to Cloudinary");
+            log.error("Error uploading song to {}", storageBackend.name(), e);
+            throw new RuntimeException("Failed to upload song to storage");
         }
     }
 
+    // Unordered bulk insert; returns the error for each index that could not be written. Ids are
+    // assigned up front so the inserted songs can go straight into the caches and index.
     @Override
-    @Cacheable(value = "songs", key = "'all'", unless = "#result.isEmpty()")
-    public List<Song> getAllSongs() {
-        log.debug("Fetching all songs from database");
-        return songRepository.findAll();
+    public Map<Integer, String> insertSongs(List<Song> songs) {
+        if (songs.isEmpty()) {
+            return Map.of();
+        }
+        for (Song song : songs) {
+            if (song.getId() == null) {
+                song.setId(new ObjectId().toHexString());
+            }
+            if (song.getVersion() == null) {
+                song.setVersion(1L);
+            }
+        }
+
+        Map<Integer, String> failures = new HashMap<>();
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Song.class).insert(songs).execute();
+        } catch (BulkOperationException e) {
+            e.getErrors().forEach(error -> failures.put(error.getIndex(), error.getMessage()));
+        }
+
+        List<Song> inserted = new ArrayList<>(songs.size() - failures.size());
+        for (int i = 0; i < songs.size(); i++) {
+            if (failures.containsKey(i)) {
+                destroyQuietly(songs.get(i).getPublicId());
+            } else {
+                inserted.add(songs.get(i));
+            }
+        }
+        songCatalogCache.upsertAll(inserted);
+        inserted.forEach(songSearchIndex::index);
+        if (!inserted.isEmpty()) {
+            catalogVersion.bump();
+            songSuggester.requestRebuild();
+            eventPublisher.publishEvent(new SongsAddedEvent(inserted));
+        }
+        log.info("Bulk inserted {} songs ({} failed)", inserted.size(), failures.size());
+        return failures;
+    }
+
+    @Override
+    public Optional<Song> findByContentHash(String contentHash) {
+        return contentHash != null ? songRepository.findByContentHash(contentHash) : Optional.empty();
     }
 
     @Override
-    @Cacheable(value = "song", key = "#id", unless = "#result == null")
+    public SongPage getSongsPage(String cursor, int limit, String sort) {
+        if (!SORT_BY_TITLE.equals(sort) && !SORT_BY_ID.equals(sort)) {
+            throw new IllegalArgumentException("Unsupported sort: " + sort);
+        }
+        return songCatalogCache.getPage(sort, limit, cursor, () -> loadSongsPage(cursor, limit, sort));
+    }
+
+    private SongPage loadSongsPage(String cursor, int limit, String sort) {
+        boolean byTitle = SORT_BY_TITLE.equals(sort);
+
+        // Fetch one extra row to learn whether another page exists without a count query
+        Sort order = byTitle ? Sort.by(SORT_BY_TITLE).and(Sort.by(SORT_BY_ID)) : Sort.by(SORT_BY_ID);
+        Pageable pageable = PageRequest.of(0, limit + 1, order);
+
+        List<Song> songs;
+        if (cursor == null || cursor.isEmpty()) {
+            songs = songRepository.findAllBy(pageable);
+        } else {
+            SongCursor position = SongCursor.decode(cursor, sort);
+            if (!byTitle) {
+                songs = songRepository.findByIdGreaterThan(position.id(), pageable);
+            } else if (position.title() == null) {
+                songs = songRepository.findByTitleAfterUntitled(new ObjectId(position.id()), pageable);
+            } else {
+                songs = songRepository.findByTitleAfter(position.title(), new ObjectId(position.id()), pageable);
+            }
+        }
+
+        boolean hasMore = songs.size() > limit;
+        List<Song> items = hasMore ? songs.subList(0, limit) : songs;
+        String nextCursor = hasMore ? SongCursor.of(items.get(items.size() - 1), sort).encode() : null;
+
+        log.debug("Fetched song page (sort: {}, limit: {}, hasMore: {}) from database", sort, limit, hasMore);
+        return SongPage.builder()
+                .items(List.copyOf(items))
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    @Override
+    @Cacheable(value = SongCatalogCache.SONG, key = "#id", unless = "#result == null")
     public Song getSongById(String id) {
         log.debug("Fetching song with id: {} from database", id);
         return songRepository.findById(id)
@@ -70,26 +237,56 @@ public class SongServiceImpl implements SongService {
     }
 
     @Override
-    @Transactional
-    @CachePut(value = "song", key = "#id")
-    @CacheEvict(value = "songs", allEntries = true)
+    public List<Song> searchSongs(String query, int limit) {
+        if (!SongSearchIndex.isSearchable(query)) {
+            throw new IllegalArgumentException(
+                    "Search query must contain a word of at least " + SongSearchIndex.MIN_GRAM + " characters");
+        }
+        // The index only ranks ids; the songs come from Mongo so counts and versions are current
+        List<String> ids = songSearchIndex.search(query, limit);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<String, Song> found = new HashMap<>();
+        songRepository.findAllById(ids).forEach(song -> found.put(song.getId(), song));
+        return ids.stream().map(found::get).filter(Objects::nonNull).toList();
+    }
+
+    @Override
+    public List<Suggestion> suggestSongs(String prefix, int limit) {
+        return songSuggester.suggest(prefix, limit);
+    }
+
+    // Sets only the edited fields and bumps the song's version in one atomic update, so play counts
+    // flushed concurrently are not overwritten. The old document comes back so the caches can drop
+    // pages holding the song under its old title.
+    @Override
     public Song updateSong(String id, Song updatedSong) {
-        return songRepository.findById(id)
-                .map(existing -> {
-                    existing.setTitle(updatedSong.getTitle());
-                    existing.setArtist(updatedSong.getArtist());
-                    existing.setFavorite(updatedSong.isFavorite());
-                    return songRepository.save(existing);
-                })
-                .orElseThrow(() -> {
-                    log.warn("Attempted to update a non-existing song with id: {}", id);
-                    return new SongNotFoundException("Song not found with id: " + id);
-                });
+        Song previous = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(id)),
+                new Update()
+                        .set("title", updatedSong.getTitle())
+                        .set("artist", updatedSong.getArtist())
+                        .inc("version", 1L),
+                FindAndModifyOptions.options().returnNew(false),
+                Song.class);
+        if (previous == null) {
+            log.warn("Attempted to update a non-existing song with id: {}", id);
+            throw new SongNotFoundException("Song not found with id: " + id);
+        }
+        Song saved = previous.toBuilder()
+                .title(updatedSong.getTitle())
+                .artist(updatedSong.getArtist())
+                .version(previous.getVersion() != null ? previous.getVersion() + 1 : 1L)
+                .build();
+        songCatalogCache.upsert(saved, previous);
+        catalogVersion.bump();
+        songSearchIndex.index(saved);
+        songSuggester.requestRebuild();
+        return saved;
     }
 
     @Override
-    @Transactional
-    @CacheEvict(value = { "songs", "song" }, allEntries = true)
     public void deleteSong(String id) {
         Song song = songRepository.findById(id)
                 .orElseThrow(() -> {
@@ -97,33 +294,54 @@ public class SongServiceImpl implements SongService {
                     return new SongNotFoundException("Song not found with id: " + id);
                 });
 
-        String publicId = song.getPublicId();
-        if (publicId == null || publicId.isEmpty()) {
-            log.error("Public ID is missing for song with id: {}", id);
-            throw new RuntimeException("Public ID is missing. Cannot delete from Cloudinary.");
-        }
-
-        try {
-            cloudinary.uploader().destroy(publicId, ObjectUtils.asMap("resource_type", "video"));
-            songRepository.deleteById(id);
-        } catch (IOException e) {
-            log.error("Failed to delete song from Cloudinary for id: {}", id, e);
-            throw new RuntimeException("Failed to delete song from Cloudinary.");
-        }
+        // The asset goes later via the outbox; the task is written first so a crash cannot orphan it
+        storageOutbox.enqueueDeletes(List.of(song));
+        songRepository.deleteById(id);
+        songCatalogCache.remove(song);
+        catalogVersion.bump();
+        songSearchIndex.remove(id);
+        songSuggester.requestRebuild();
+        favoriteService.removeSong(id);
+        eventPublisher.publishEvent(new SongsRemovedEvent(List.of(id)));
     }
 
+    // One $in lookup, one outbox insert for the assets, one deleteMany and one cache update for the lot
     @Override
-    @Transactional
-    @CachePut(value = "song", key = "#id")
-    @CacheEvict(value = "songs", allEntries = true)
-    public void toggleFavorite(String id) {
-        Song song = songRepository.findById(id)
-                .orElseThrow(() -> {
-                    log.warn("Attempted to toggle favorite for non-existing song with id: {}", id);
-                    return new SongNotFoundException("Song not found with id: " + id);
-                });
+    public BulkDeleteReport deleteSongs(Collection<String> ids) {
+        long start = System.currentTimeMillis();
+        Set<String> requested = new LinkedHashSet<>(ids);
+        Map<String, Song> found = new LinkedHashMap<>();
+        songRepository.findAllById(requested).forEach(song -> found.put(song.getId(), song));
+        List<String> notFound = requested.stream().filter(id -> !found.containsKey(id)).toList();
+
+        int queuedAssetDeletes = storageOutbox.enqueueDeletes(found.values());
+        List<String> deleted = new ArrayList<>(found.keySet());
+        if (!deleted.isEmpty()) {
+            mongoTemplate.remove(Query.query(Criteria.where("_id").in(deleted)), Song.class);
+            songCatalogCache.removeAll(found.values());
+            catalogVersion.bump();
+            deleted.forEach(songSearchIndex::remove);
+            songSuggester.requestRebuild();
+            favoriteService.removeSongs(deleted);
+            eventPublisher.publishEvent(new SongsRemovedEvent(deleted));
+        }
+        log.info("Bulk deleted {} of {} songs ({} not found, {} assets queued for removal)",
+                deleted.size(), requested.size(), notFound.size(), queuedAssetDeletes);
 
-        song.setFavorite(!song.isFavorite());
-        songRepository.save(song);
+        return BulkDeleteReport.builder()
+                .requested(requested.size())
+                .deleted(deleted.size())
+                .notFound(notFound)
+                .queuedAssetDeletes(queuedAssetDeletes)
+                .durationMs(System.currentTimeMillis() - start)
+                .build();
+    }
+
+    private void destroyQuietly(String publicId) {
+        try {
+            storageOutbox.enqueueDelete(publicId);
+        } catch (Exception e) {
+            log.warn("Failed to queue removal of orphaned {} asset {}: {}", storageBackend.name(), publicId, e.getMessage());
+        }
     }
-}
\ No newline at end of file
+}
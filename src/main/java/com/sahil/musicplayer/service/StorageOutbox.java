@@ -0,0 +1,214 @@
+package com.sahil.musicplayer.service;
+
+import com.sahil.musicplayer.model.Song;
+import com.sahil.musicplayer.model.StorageTask;
+import com.sahil.musicplayer.repository.StorageTaskRepository;
+import com.sahil.musicplayer.storage.StorageBackend;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Storage side effects recorded as documents and applied in the background, so requests never wait
+// on the CDN and a failed call is retried instead of leaving an orphaned asset.
+//
+// Mongo runs without transactions here, so callers write the task before the catalog change. To
+// make that safe the dispatcher never deletes an asset a song still points at: such a task is
+// retried later, and if the catalog change never happened it ends up FAILED with the asset intact.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StorageOutbox {
+
+    private static final long MAX_BACKOFF_SECONDS = 3600;
+
+    private final StorageTaskRepository storageTaskRepository;
+    private final StorageBackend storageBackend;
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${storage.outbox.claim-size:500}")
+    private int claimSize;
+
+    @Value("${storage.delete-batch-size:100}")
+    private int deleteBatchSize;
+
+    @Value("${storage.delete-parallelism:4}")
+    private int deleteParallelism;
+
+    @Value("${storage.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${storage.outbox.retry-backoff-seconds:30}")
+    private long retryBackoffSeconds;
+
+    @Value("${storage.outbox.lease-seconds:300}")
+    private long leaseSeconds;
+
+    private ExecutorService deleteExecutor;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger counter = new AtomicInteger();
+        deleteExecutor = new ThreadPoolExecutor(deleteParallelism, deleteParallelism, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "storage-delete-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        deleteExecutor.shutdown();
+    }
+
+    // Records the deletion of each song's asset in one insert; returns how many were queued
+    public int enqueueDeletes(Collection<Song> songs) {
+        Instant now = Instant.now();
+        List<StorageTask> tasks = new ArrayList<>(songs.size());
+        for (Song song : songs) {
+            if (song.getPublicId() != null && !song.getPublicId().isEmpty()) {
+                tasks.add(deleteTask(song.getPublicId(), song.getId(), now));
+            }
+        }
+        if (!tasks.isEmpty()) {
+            storageTaskRepository.insert(tasks);
+        }
+        return tasks.size();
+    }
+
+    // For assets that never made it into the catalog
+    public void enqueueDelete(String key) {
+        if (key != null) {
+            storageTaskRepository.insert(deleteTask(key, null, Instant.now()));
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("backend", storageBackend.name());
+        stats.put("pending", storageTaskRepository.countByStatus(StorageTask.Status.PENDING));
+        stats.put("failed", storageTaskRepository.countByStatus(StorageTask.Status.FAILED));
+        return stats;
+    }
+
+    @Scheduled(fixedDelayString = "${storage.outbox.poll-interval-ms:2000}")
+    public void dispatch() {
+        List<StorageTask> batch;
+        do {
+            batch = claim();
+            if (!batch.isEmpty()) {
+                apply(batch);
+            }
+        } while (batch.size() == claimSize);
+    }
+
+    // Several nodes may dispatch at once: candidates are stamped with a fresh token by a conditional
+    // update and only the tasks carrying this node's token are processed
+    private List<StorageTask> claim() {
+        Instant now = Instant.now();
+        Criteria claimable = Criteria.where("status").is(StorageTask.Status.PENDING)
+                .and("notBefore").lte(now)
+                .orOperator(Criteria.where("leaseUntil").is(null), Criteria.where("leaseUntil").lt(now));
+        Query candidates = new Query(claimable).with(Sort.by("notBefore")).limit(claimSize);
+        candidates.fields().include("_id");
+        List<String> ids = mongoTemplate.find(candidates, StorageTask.class).stream().map(StorageTask::getId).toList();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        String token = UUID.randomUUID().toString();
+        Query mine = new Query(Criteria.where("_id").in(ids).andOperator(claimable));
+        mongoTemplate.updateMulti(mine, new Update()
+                .set("claimToken", token)
+                .set("leaseUntil", now.plusSeconds(leaseSeconds))
+                .inc("attempts", 1), StorageTask.class);
+        return mongoTemplate.find(new Query(Criteria.where("claimToken").is(token)), StorageTask.class);
+    }
+
+    private void apply(List<StorageTask> tasks) {
+        Map<String, List<StorageTask>> byKey = new LinkedHashMap<>();
+        tasks.forEach(task -> byKey.computeIfAbsent(task.getKey(), key -> new ArrayList<>()).add(task));
+
+        Set<String> referenced = new HashSet<>(mongoTemplate.findDistinct(
+                new Query(Criteria.where("publicId").in(byKey.keySet())), "publicId", Song.class, String.class));
+        Map<String, String> failures = new HashMap<>();
+        referenced.forEach(key -> failures.put(key, "Asset is still referenced by a song"));
+
+        List<String> keys = byKey.keySet().stream().filter(key -> !referenced.contains(key)).toList();
+        List<CompletableFuture<Map<String, String>>> batches = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i += deleteBatchSize) {
+            List<String> batch = keys.subList(i, Math.min(i + deleteBatchSize, keys.size()));
+            batches.add(CompletableFuture.supplyAsync(() -> storageBackend.deleteBatch(batch), deleteExecutor));
+        }
+        batches.forEach(batch -> failures.putAll(batch.join()));
+
+        List<String> done = new ArrayList<>();
+        byKey.forEach((key, keyTasks) -> {
+            String error = failures.get(key);
+            for (StorageTask task : keyTasks) {
+                if (error == null) {
+                    done.add(task.getId());
+                } else {
+                    retryLater(task, error);
+                }
+            }
+        });
+        if (!done.isEmpty()) {
+            mongoTemplate.remove(new Query(Criteria.where("_id").in(done)), StorageTask.class);
+        }
+        log.info("Storage outbox applied {} of {} tasks via {}", done.size(), tasks.size(), storageBackend.name());
+    }
+
+    private void retryLater(StorageTask task, String error) {
+        Update update = new Update().unset("claimToken").unset("leaseUntil").set("lastError", error);
+        if (task.getAttempts() >= maxAttempts) {
+            log.error("Giving up on storage {} of {} after {} attempts: {}",
+                    task.getType(), task.getKey(), task.getAttempts(), error);
+            update.set("status", StorageTask.Status.FAILED);
+        } else {
+            long backoff = Math.min(MAX_BACKOFF_SECONDS, retryBackoffSeconds << Math.min(task.getAttempts() - 1, 20));
+            update.set("notBefore", Instant.now().plus(Duration.ofSeconds(backoff)));
+            log.warn("Storage {} of {} failed (attempt {}), retrying in {}s: {}",
+                    task.getType(), task.getKey(), task.getAttempts(), backoff, error);
+        }
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(task.getId())), update, StorageTask.class);
+    }
+
+    private static StorageTask deleteTask(String key, String songId, Instant now) {
+        return StorageTask.builder()
+                .type(StorageTask.Type.DELETE)
+                .key(key)
+                .songId(songId)
+                .status(StorageTask.Status.PENDING)
+                .notBefore(now)
+                .createdAt(now)
+                .build();
+    }
+}
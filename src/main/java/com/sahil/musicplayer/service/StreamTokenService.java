@@ -0,0 +1,65 @@
+package com.sahil.musicplayer.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Base64;
+
+// Short-lived signed grants for the media endpoints, which audio elements and HLS players request
+// without an Authorization header. A grant is an HMAC over the song id and an expiry, handed out by
+// an authenticated call and checked on every media request.
+@Service
+public class StreamTokenService {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final String secret;
+    private final long ttlSeconds;
+
+    public StreamTokenService(
+            @Value("${media.stream-token.secret:${jwt.secret:404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970}}")
+            String secret,
+            @Value("${media.stream-token.ttl-seconds:3600}") long ttlSeconds) {
+        this.secret = secret;
+        this.ttlSeconds = ttlSeconds;
+    }
+
+    // Expiries are rounded up to a whole ttl, so grants issued close together share a URL and the
+    // browser cache; each stays valid for between one and two ttls
+    public Grant issue(String songId) {
+        long now = Instant.now().getEpochSecond();
+        long expires = (now / ttlSeconds + 2) * ttlSeconds;
+        return new Grant(expires, sign(songId, expires));
+    }
+
+    public boolean verify(String songId, Long expires, String token) {
+        if (expires == null || token == null || expires < Instant.now().getEpochSecond()) {
+            return false;
+        }
+        return MessageDigest.isEqual(sign(songId, expires).getBytes(StandardCharsets.US_ASCII),
+                token.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private String sign(String songId, long expires) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM));
+            byte[] signature = mac.doFinal((songId + ":" + expires).getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+
+    public record Grant(long expires, String token) {
+        public String query() {
+            return "expires=" + expires + "&token=" + token;
+        }
+    }
+}
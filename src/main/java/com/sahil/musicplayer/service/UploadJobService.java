@@ -0,0 +1,365 @@
+package com.sahil.musicplayer.service;
+
+import com.sahil.musicplayer.dto.UploadJobStatus;
+import com.sahil.musicplayer.exception.UploadJobNotFoundException;
+import com.sahil.musicplayer.model.Song;
+import com.sahil.musicplayer.model.UploadJob;
+import com.sahil.musicplayer.repository.UploadJobRepository;
+import com.sahil.musicplayer.upload.StagedUpload;
+import com.sahil.musicplayer.upload.UploadStager;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Uploads are staged to disk and recorded as jobs in Mongo; a bounded pool of workers in the
+// accepting process claims them one at a time and runs the storage upload and song save.
+//
+// Each process owns its unfinished jobs under a lease it renews on every poll. A job whose lease ran
+// out lost its owner, and any process that can read the staged file adopts it, the same way the
+// storage outbox reclaims expired tasks.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UploadJobService {
+
+    public static final String EVENTS_CHANNEL = "upload-jobs:finished";
+    // An orphaned job no live process can read the staged file for is failed after this long
+    private static final Duration ORPHAN_TIMEOUT = Duration.ofHours(1);
+
+    private final UploadJobRepository uploadJobRepository;
+    private final UploadStager uploadStager;
+    private final SongService songService;
+    private final MongoTemplate mongoTemplate;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisMessageListenerContainer redisMessageListenerContainer;
+
+    private final ConcurrentMap<String, List<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+    private final Set<String> runningJobs = ConcurrentHashMap.newKeySet();
+    private ThreadPoolExecutor workers;
+    private Semaphore workerSlots;
+    // Unique per process, so a restarted node never mistakes its predecessor's jobs for live ones
+    private final String nodeId = UUID.randomUUID().toString();
+
+    @Value("${upload.jobs.workers:2}")
+    private int workerCount;
+
+    @Value("${upload.jobs.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${upload.jobs.retry-backoff-seconds:30}")
+    private long retryBackoffSeconds;
+
+    @Value("${upload.jobs.lease-seconds:60}")
+    private long leaseSeconds;
+
+    @Value("${upload.jobs.retention-hours:168}")
+    private long retentionHours;
+
+    @Value("${upload.jobs.events-timeout-ms:600000}")
+    private long eventsTimeoutMs;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger counter = new AtomicInteger();
+        workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "upload-worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        workerSlots = new Semaphore(workerCount);
+        redisMessageListenerContainer.addMessageListener(
+                (message, pattern) -> notifySubscribers(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(EVENTS_CHANNEL));
+    }
+
+    public UploadJobStatus submit(String ownerId, MultipartFile file, String title, String artist) throws IOException {
+        String filename = file.getOriginalFilename();
+        if (file.isEmpty() || filename == null || !filename.toLowerCase().endsWith(".mp3")) {
+            throw new IllegalArgumentException("Only .mp3 files are allowed.");
+        }
+
+        StagedUpload staged = uploadStager.stage(file);
+        UploadJob job;
+        try {
+            Instant now = Instant.now();
+            job = uploadJobRepository.insert(UploadJob.builder()
+                    .ownerId(ownerId)
+                    .fileName(filename)
+                    .title(title)
+                    .artist(artist)
+                    .size(staged.getSize())
+                    .stagedOn(nodeId)
+                    .stagedPath(staged.getPath().toString())
+                    .status(UploadJob.Status.QUEUED)
+                    .createdAt(now)
+                    .notBefore(now)
+                    .leaseUntil(lease(now))
+                    .build());
+        } catch (RuntimeException e) {
+            staged.close();
+            throw e;
+        }
+
+        log.info("Queued upload job {} for {} ({} bytes)", job.getId(), filename, staged.getSize());
+        wakeWorkers();
+        return UploadJobStatus.from(job);
+    }
+
+    public UploadJobStatus getStatus(String jobId, String ownerId) {
+        return UploadJobStatus.from(getOwnedJob(jobId, ownerId));
+    }
+
+    public SseEmitter subscribe(String jobId, String ownerId) throws IOException {
+        UploadJob job = getOwnedJob(jobId, ownerId);
+        SseEmitter emitter = new SseEmitter(eventsTimeoutMs);
+        emitter.send(SseEmitter.event().name("status").data(UploadJobStatus.from(job)));
+        if (job.getStatus().isFinished()) {
+            emitter.complete();
+            return emitter;
+        }
+
+        List<SseEmitter> emitters = subscribers.computeIfAbsent(jobId, id -> new CopyOnWriteArrayList<>());
+        emitters.add(emitter);
+        Runnable unsubscribe = () -> emitters.remove(emitter);
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(error -> unsubscribe.run());
+
+        // The job may have finished between the read above and registering the emitter
+        if (uploadJobRepository.findById(jobId).map(current -> current.getStatus().isFinished()).orElse(true)) {
+            notifySubscribers(jobId);
+        }
+        return emitter;
+    }
+
+    // Jobs of a previous process on this node come back once their lease runs out
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        reclaimOrphans();
+        wakeWorkers();
+    }
+
+    // Renews this process's leases, adopts orphaned jobs and picks up retries whose backoff has passed
+    // or anything a busy pool could not take immediately
+    @Scheduled(fixedDelayString = "${upload.jobs.poll-interval-ms:5000}")
+    public void poll() {
+        Instant now = Instant.now();
+        Query owned = new Query(new Criteria().orOperator(
+                Criteria.where("stagedOn").is(nodeId).and("status").is(UploadJob.Status.QUEUED),
+                Criteria.where("_id").in(runningJobs).and("status").is(UploadJob.Status.RUNNING)));
+        mongoTemplate.updateMulti(owned, new Update().set("leaseUntil", lease(now)), UploadJob.class);
+
+        // A RUNNING job of ours that no worker holds lost its thread; it is requeued like any orphan
+        reclaimOrphans();
+        wakeWorkers();
+    }
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+
+    private void reclaimOrphans() {
+        Instant now = Instant.now();
+        Criteria expired = Criteria.where("status").in(UploadJob.Status.QUEUED, UploadJob.Status.RUNNING)
+                .and("leaseUntil").lt(now);
+        Query candidates = new Query(new Criteria().andOperator(expired, Criteria.where("_id").nin(runningJobs)));
+        candidates.fields().include("_id", "stagedPath", "leaseUntil");
+        int adopted = 0;
+        for (UploadJob job : mongoTemplate.find(candidates, UploadJob.class)) {
+            if (!uploadStager.isAvailable(job.getStagedPath())) {
+                continue;
+            }
+            // Conditional on the lease still being expired, so only one process adopts the job. notBefore
+            // is kept, so an adopted retry still waits out its backoff.
+            Query orphan = new Query(new Criteria().andOperator(Criteria.where("_id").is(job.getId()), expired));
+            Update adopt = new Update()
+                    .set("status", UploadJob.Status.QUEUED)
+                    .set("stagedOn", nodeId)
+                    .set("leaseUntil", lease(now));
+            adopted += (int) mongoTemplate.updateFirst(orphan, adopt, UploadJob.class).getModifiedCount();
+        }
+        if (adopted > 0) {
+            log.info("Adopted {} orphaned upload jobs", adopted);
+        }
+
+        Query abandoned = new Query(Criteria.where("status").in(UploadJob.Status.QUEUED, UploadJob.Status.RUNNING)
+                .and("leaseUntil").lt(now.minus(ORPHAN_TIMEOUT)));
+        long failed = mongoTemplate.updateMulti(abandoned, new Update()
+                .set("status", UploadJob.Status.FAILED)
+                .set("error", "Staged upload is no longer available")
+                .set("finishedAt", now)
+                .set("expiresAt", now.plus(Duration.ofHours(retentionHours)))
+                .unset("leaseUntil"), UploadJob.class).getModifiedCount();
+        if (failed > 0) {
+            log.warn("Failed {} upload jobs whose staged file no live process can read", failed);
+        }
+    }
+
+    private void wakeWorkers() {
+        while (workerSlots.tryAcquire()) {
+            try {
+                workers.execute(this::drainQueue);
+            } catch (RejectedExecutionException e) {
+                workerSlots.release();
+                return;
+            }
+        }
+    }
+
+    private void drainQueue() {
+        try {
+            UploadJob job;
+            while ((job = claimNext()) != null) {
+                runningJobs.add(job.getId());
+                try {
+                    process(job);
+                } finally {
+                    runningJobs.remove(job.getId());
+                }
+            }
+        } catch (Exception e) {
+            log.error("Upload worker stopped unexpectedly", e);
+        } finally {
+            workerSlots.release();
+        }
+    }
+
+    private UploadJob claimNext() {
+        Instant now = Instant.now();
+        Query query = new Query(Criteria.where("stagedOn").is(nodeId)
+                .and("status").is(UploadJob.Status.QUEUED)
+                .and("notBefore").lte(now))
+                .with(Sort.by("createdAt"));
+        Update update = new Update()
+                .set("status", UploadJob.Status.RUNNING)
+                .set("startedAt", now)
+                .set("leaseUntil", lease(now))
+                .inc("attempts", 1);
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), UploadJob.class);
+    }
+
+    private void process(UploadJob job) {
+        StagedUpload staged;
+        try {
+            staged = uploadStager.reopen(job.getStagedPath(), job.getFileName());
+        } catch (IOException e) {
+            finish(job, UploadJob.Status.FAILED, null, e.getMessage());
+            return;
+        }
+
+        try {
+            Song song = songService.uploadSong(staged, job.getTitle(), job.getArtist());
+            staged.close();
+            finish(job, UploadJob.Status.SUCCEEDED, song.getId(), null);
+            log.info("Upload job {} completed as song {}", job.getId(), song.getId());
+        } catch (Exception e) {
+            if (job.getAttempts() < maxAttempts) {
+                // Keep the staged file for the next attempt and back off exponentially
+                Instant retryAt = Instant.now().plusSeconds(retryBackoffSeconds << (job.getAttempts() - 1));
+                log.warn("Upload job {} failed (attempt {}), retrying at {}: {}",
+                        job.getId(), job.getAttempts(), retryAt, e.getMessage());
+                mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(job.getId())),
+                        requeue(retryAt).set("error", e.getMessage()), UploadJob.class);
+            } else {
+                log.error("Upload job {} failed after {} attempts", job.getId(), job.getAttempts(), e);
+                staged.close();
+                finish(job, UploadJob.Status.FAILED, null, e.getMessage());
+            }
+        }
+    }
+
+    private void finish(UploadJob job, UploadJob.Status status, String songId, String error) {
+        Instant now = Instant.now();
+        Update update = new Update()
+                .set("status", status)
+                .set("finishedAt", now)
+                .set("expiresAt", now.plus(Duration.ofHours(retentionHours)))
+                .unset("leaseUntil");
+        if (songId != null) {
+            update.set("songId", songId);
+        }
+        if (error != null) {
+            update.set("error", error);
+        }
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(job.getId())), update, UploadJob.class);
+        try {
+            redisTemplate.convertAndSend(EVENTS_CHANNEL, job.getId());
+        } catch (Exception e) {
+            // Subscribers on other nodes time out and clients fall back to polling
+            log.warn("Failed to publish completion of upload job {}: {}", job.getId(), e.getMessage());
+            notifySubscribers(job.getId());
+        }
+    }
+
+    private void notifySubscribers(String jobId) {
+        List<SseEmitter> emitters = subscribers.remove(jobId);
+        if (emitters == null || emitters.isEmpty()) {
+            return;
+        }
+        UploadJob job = uploadJobRepository.findById(jobId).orElse(null);
+        for (SseEmitter emitter : emitters) {
+            try {
+                if (job != null) {
+                    emitter.send(SseEmitter.event().name("status").data(UploadJobStatus.from(job)));
+                }
+                emitter.complete();
+            } catch (IOException | IllegalStateException e) {
+                emitter.completeWithError(e);
+            }
+        }
+    }
+
+    private UploadJob getOwnedJob(String jobId, String ownerId) {
+        return uploadJobRepository.findById(jobId)
+                .filter(job -> job.getOwnerId().equals(ownerId))
+                .orElseThrow(() -> new UploadJobNotFoundException(jobId));
+    }
+
+    // The lease runs from the end of the backoff, so a retry waiting longer than a lease is not taken
+    // for an orphan even if a renewal is missed
+    private Update requeue(Instant notBefore) {
+        return new Update()
+                .set("status", UploadJob.Status.QUEUED)
+                .set("notBefore", notBefore)
+                .set("leaseUntil", lease(notBefore));
+    }
+
+    private Instant lease(Instant now) {
+        return now.plusSeconds(leaseSeconds);
+    }
+}
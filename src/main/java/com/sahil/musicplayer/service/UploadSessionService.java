@@ -0,0 +1,291 @@
+package com.sahil.musicplayer.service;
+
+import com.sahil.musicplayer.dto.UploadSessionRequest;
+import com.sahil.musicplayer.dto.UploadSessionStatus;
+import com.sahil.musicplayer.exception.UploadSessionNotFoundException;
+import com.sahil.musicplayer.model.Song;
+import com.sahil.musicplayer.model.UploadSession;
+import com.sahil.musicplayer.repository.UploadSessionRepository;
+import com.sahil.musicplayer.upload.ChunkStore;
+import com.sahil.musicplayer.upload.StagedUpload;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UploadSessionService {
+
+    private final UploadSessionRepository uploadSessionRepository;
+    private final ChunkStore chunkStore;
+    private final SongService songService;
+    private final MongoTemplate mongoTemplate;
+
+    // Assembly and the storage upload run here so a finalize request returns immediately
+    private final ExecutorService assemblyExecutor = newAssemblyExecutor();
+    private final Set<String> assembling = ConcurrentHashMap.newKeySet();
+    // Unique per process, so a restarted node never mistakes its predecessor's sessions for live ones
+    private final String nodeId = UUID.randomUUID().toString();
+
+    @Value("${upload.session.chunk-size-kb:5120}")
+    private int chunkSizeKb;
+
+    @Value("${upload.session.max-size-mb:200}")
+    private long maxSizeMb;
+
+    @Value("${upload.session.ttl-hours:24}")
+    private long ttlHours;
+
+    @Value("${upload.session.assembly-lease-seconds:60}")
+    private long assemblyLeaseSeconds;
+
+    public UploadSessionStatus createSession(String ownerId, UploadSessionRequest request) {
+        if (!request.getFileName().toLowerCase().endsWith(".mp3")) {
+            throw new IllegalArgumentException("Only .mp3 files are allowed.");
+        }
+        if (request.getTotalSize() > maxSizeMb * 1024 * 1024) {
+            throw new IllegalArgumentException("File size exceeds maximum allowed limit of " + maxSizeMb + " MB");
+        }
+
+        int chunkSize = chunkSizeKb * 1024;
+        int totalChunks = (int) ((request.getTotalSize() + chunkSize - 1) / chunkSize);
+        Instant now = Instant.now();
+        UploadSession session = uploadSessionRepository.save(UploadSession.builder()
+                .ownerId(ownerId)
+                .fileName(request.getFileName())
+                .title(request.getTitle())
+                .artist(request.getArtist())
+                .totalSize(request.getTotalSize())
+                .chunkSize(chunkSize)
+                .totalChunks(totalChunks)
+                .status(UploadSession.Status.ACTIVE)
+                .createdAt(now)
+                .expiresAt(now.plus(Duration.ofHours(ttlHours)))
+                .build());
+        log.info("Created upload session {} for {} ({} bytes in {} chunks)",
+                session.getId(), session.getFileName(), session.getTotalSize(), totalChunks);
+        return toStatus(session, List.of());
+    }
+
+    // Re-sending a chunk overwrites it, so clients can simply retry whatever they are unsure about
+    public UploadSessionStatus putChunk(String sessionId, String ownerId, int index, String sha256,
+                                        InputStream body) throws IOException {
+        UploadSession session = getOwnedSession(sessionId, ownerId);
+        if (session.getStatus() != UploadSession.Status.ACTIVE && session.getStatus() != UploadSession.Status.FAILED) {
+            throw new IllegalArgumentException("Upload session is " + session.getStatus());
+        }
+        if (index < 0 || index >= session.getTotalChunks()) {
+            throw new IllegalArgumentException("Chunk index must be between 0 and " + (session.getTotalChunks() - 1));
+        }
+        if (sha256 == null || sha256.isBlank()) {
+            throw new IllegalArgumentException("Chunk checksum is required");
+        }
+
+        long offset = (long) index * session.getChunkSize();
+        long expectedLength = Math.min(session.getChunkSize(), session.getTotalSize() - offset);
+        chunkStore.writeChunk(session.getId(), index, expectedLength, sha256.trim(), body);
+        return toStatus(session, chunkStore.receivedChunks(session.getId()));
+    }
+
+    public UploadSessionStatus getStatus(String sessionId, String ownerId) throws IOException {
+        UploadSession session = getOwnedSession(sessionId, ownerId);
+        return toStatus(session, chunkStore.receivedChunks(session.getId()));
+    }
+
+    public UploadSessionStatus complete(String sessionId, String ownerId) throws IOException {
+        UploadSession session = getOwnedSession(sessionId, ownerId);
+        Instant now = Instant.now();
+        if (session.getStatus() == UploadSession.Status.COMPLETED
+                || (session.getStatus() == UploadSession.Status.ASSEMBLING && !leaseExpired(session, now))) {
+            return toStatus(session, chunkStore.receivedChunks(session.getId()));
+        }
+
+        List<Integer> received = chunkStore.receivedChunks(session.getId());
+        if (received.size() != session.getTotalChunks()) {
+            throw new IllegalArgumentException("Missing chunks: " + missingChunks(received, session.getTotalChunks()));
+        }
+
+        // Only one finalize request wins; a FAILED session, or one whose assembler died, can be
+        // retried without re-sending chunks
+        Query claim = new Query(new Criteria().andOperator(Criteria.where("_id").is(session.getId()),
+                new Criteria().orOperator(
+                        Criteria.where("status").in(UploadSession.Status.ACTIVE, UploadSession.Status.FAILED),
+                        assemblyExpired(now))));
+        UploadSession claimed = mongoTemplate.findAndModify(claim, new Update()
+                        .set("status", UploadSession.Status.ASSEMBLING)
+                        .set("assemblingBy", nodeId)
+                        .set("leaseUntil", now.plusSeconds(assemblyLeaseSeconds))
+                        .unset("error"),
+                FindAndModifyOptions.options().returnNew(true), UploadSession.class);
+        if (claimed == null) {
+            return getStatus(sessionId, ownerId);
+        }
+
+        assembling.add(claimed.getId());
+        try {
+            assemblyExecutor.execute(() -> assemble(claimed));
+        } catch (RuntimeException e) {
+            assembling.remove(claimed.getId());
+            throw e;
+        }
+        return toStatus(claimed, received);
+    }
+
+    public void abort(String sessionId, String ownerId) {
+        UploadSession session = getOwnedSession(sessionId, ownerId);
+        // Conditional, so a session claimed for assembly after the read above is not deleted under it
+        Query removable = new Query(new Criteria().andOperator(Criteria.where("_id").is(session.getId()),
+                new Criteria().orOperator(
+                        Criteria.where("status").ne(UploadSession.Status.ASSEMBLING),
+                        assemblyExpired(Instant.now()))));
+        if (mongoTemplate.remove(removable, UploadSession.class).getDeletedCount() == 0) {
+            throw new IllegalArgumentException("Upload session is already being assembled");
+        }
+        chunkStore.delete(session.getId());
+    }
+
+    // Renews the leases of this process's assemblies, and marks sessions whose assembler died as
+    // FAILED so clients polling the status see that they can finalize again
+    @Scheduled(fixedDelayString = "${upload.session.lease-renew-interval-ms:10000}")
+    public void renewAssemblyLeases() {
+        Instant now = Instant.now();
+        if (!assembling.isEmpty()) {
+            mongoTemplate.updateMulti(new Query(Criteria.where("_id").in(assembling)
+                            .and("status").is(UploadSession.Status.ASSEMBLING)
+                            .and("assemblingBy").is(nodeId)),
+                    new Update().set("leaseUntil", now.plusSeconds(assemblyLeaseSeconds)), UploadSession.class);
+        }
+
+        long interrupted = mongoTemplate.updateMulti(new Query(assemblyExpired(now)), new Update()
+                .set("status", UploadSession.Status.FAILED)
+                .set("error", "Assembly was interrupted")
+                .unset("assemblingBy")
+                .unset("leaseUntil"), UploadSession.class).getModifiedCount();
+        if (interrupted > 0) {
+            log.warn("Marked {} upload sessions whose assembly was interrupted as failed", interrupted);
+        }
+    }
+
+    // Sessions removed by the TTL index leave their chunk directories behind
+    @Scheduled(fixedDelayString = "${upload.session.cleanup-interval-ms:3600000}")
+    public void removeOrphanedChunks() {
+        try {
+            for (String sessionId : chunkStore.sessionIds()) {
+                if (!uploadSessionRepository.existsById(sessionId)) {
+                    log.info("Removing chunks of expired upload session {}", sessionId);
+                    chunkStore.delete(sessionId);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Failed to sweep upload session directories: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        assemblyExecutor.shutdown();
+    }
+
+    private void assemble(UploadSession session) {
+        try {
+            assembleClaimed(session);
+        } finally {
+            assembling.remove(session.getId());
+        }
+    }
+
+    private void assembleClaimed(UploadSession session) {
+        Update update;
+        try (StagedUpload staged = chunkStore.assemble(session.getId(), session.getTotalChunks(), session.getFileName())) {
+            Song song = songService.uploadSong(staged, session.getTitle(), session.getArtist());
+            update = new Update().set("status", UploadSession.Status.COMPLETED).set("songId", song.getId());
+            chunkStore.delete(session.getId());
+            log.info("Upload session {} completed as song {}", session.getId(), song.getId());
+        } catch (Exception e) {
+            log.error("Failed to assemble upload session {}", session.getId(), e);
+            update = new Update().set("status", UploadSession.Status.FAILED).set("error", e.getMessage());
+        }
+        // Only while this process still holds the session; after losing the lease another finalize owns it
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(session.getId())
+                        .and("status").is(UploadSession.Status.ASSEMBLING)
+                        .and("assemblingBy").is(nodeId)),
+                update.unset("assemblingBy").unset("leaseUntil"), UploadSession.class);
+    }
+
+    // Sessions left ASSEMBLING by a process that stopped renewing its lease (or by a version without leases)
+    private static Criteria assemblyExpired(Instant now) {
+        return Criteria.where("status").is(UploadSession.Status.ASSEMBLING)
+                .orOperator(Criteria.where("leaseUntil").is(null), Criteria.where("leaseUntil").lt(now));
+    }
+
+    private static boolean leaseExpired(UploadSession session, Instant now) {
+        return session.getLeaseUntil() == null || session.getLeaseUntil().isBefore(now);
+    }
+
+    private UploadSession getOwnedSession(String sessionId, String ownerId) {
+        return uploadSessionRepository.findById(sessionId)
+                .filter(session -> session.getOwnerId().equals(ownerId))
+                .orElseThrow(() -> new UploadSessionNotFoundException(sessionId));
+    }
+
+    private static List<Integer> missingChunks(List<Integer> received, int totalChunks) {
+        List<Integer> missing = new ArrayList<>();
+        int next = 0;
+        for (int index : received) {
+            while (next < index) {
+                missing.add(next++);
+            }
+            next = index + 1;
+        }
+        while (next < totalChunks) {
+            missing.add(next++);
+        }
+        return missing;
+    }
+
+    private static UploadSessionStatus toStatus(UploadSession session, List<Integer> receivedChunks) {
+        return UploadSessionStatus.builder()
+                .id(session.getId())
+                .status(session.getStatus())
+                .totalSize(session.getTotalSize())
+                .chunkSize(session.getChunkSize())
+                .totalChunks(session.getTotalChunks())
+                .receivedChunks(receivedChunks)
+                .songId(session.getSongId())
+                .error(session.getError())
+                .build();
+    }
+
+    private static ExecutorService newAssemblyExecutor() {
+        AtomicInteger counter = new AtomicInteger();
+        return new ThreadPoolExecutor(2, 2, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "upload-assembly-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
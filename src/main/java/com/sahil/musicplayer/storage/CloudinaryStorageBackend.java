@@ -0,0 +1,62 @@
+package com.sahil.musicplayer.storage;
+
+import com.cloudinary.Cloudinary;
+import com.cloudinary.utils.ObjectUtils;
+import com.sahil.musicplayer.upload.StagedUpload;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "storage.backend", havingValue = "cloudinary", matchIfMissing = true)
+@RequiredArgsConstructor
+public class CloudinaryStorageBackend implements StorageBackend {
+
+    private final Cloudinary cloudinary;
+
+    @Override
+    public String name() {
+        return "cloudinary";
+    }
+
+    @Override
+    public StoredObject store(StagedUpload upload) throws IOException {
+        Map<?, ?> result = cloudinary.uploader().upload(upload.toFile(), ObjectUtils.asMap(
+                "resource_type", "auto"));
+        return new StoredObject((String) result.get("public_id"), (String) result.get("secure_url"));
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        // Cloudinary files audio under the video resource type
+        cloudinary.uploader().destroy(key, ObjectUtils.asMap("resource_type", "video"));
+    }
+
+    // One Admin API call removes up to 100 assets
+    @Override
+    public Map<String, String> deleteBatch(List<String> keys) {
+        Map<String, String> failures = new HashMap<>();
+        try {
+            Map<?, ?> response = cloudinary.api().deleteResources(keys, ObjectUtils.asMap("resource_type", "video"));
+            Map<?, ?> deleted = (Map<?, ?>) response.get("deleted");
+            for (String key : keys) {
+                Object status = deleted != null ? deleted.get(key) : null;
+                // Already gone counts as deleted
+                if (!"deleted".equals(status) && !"not_found".equals(status)) {
+                    failures.put(key, "Cloudinary returned " + status);
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Cloudinary bulk delete of {} assets failed: {}", keys.size(), e.getMessage());
+            keys.forEach(key -> failures.put(key, e.getMessage()));
+        }
+        return failures;
+    }
+}
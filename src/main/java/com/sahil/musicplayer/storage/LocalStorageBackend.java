@@ -0,0 +1,90 @@
+package com.sahil.musicplayer.storage;
+
+import com.sahil.musicplayer.upload.StagedUpload;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.UUID;
+
+// Keeps audio on local disk. The files have no public URL; they are only served through
+// /api/songs/{id}/stream, which checks access. Files are spread over two levels of 256
+// directories keyed by a random id so no single directory grows large.
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "storage.backend", havingValue = "local")
+public class LocalStorageBackend implements StorageBackend {
+
+    private final Path root;
+
+    public LocalStorageBackend(@Value("${storage.local.root:${java.io.tmpdir}/musicplayer-media}") String root) {
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+    }
+
+    @PostConstruct
+    void init() throws IOException {
+        Files.createDirectories(root);
+        log.info("Storing media under {}", root);
+    }
+
+    @Override
+    public String name() {
+        return "local";
+    }
+
+    @Override
+    public StoredObject store(StagedUpload upload) throws IOException {
+        String id = UUID.randomUUID().toString().replace("-", "");
+        String key = id.substring(0, 2) + "/" + id.substring(2, 4) + "/" + id + ".mp3";
+        Path target = resolve(key);
+        Path dir = Files.createDirectories(target.getParent());
+
+        // Copy into a temp file beside the target and rename, so readers never see a partial file
+        Path partial = Files.createTempFile(dir, id, ".part");
+        try {
+            try (FileChannel in = FileChannel.open(upload.getPath(), StandardOpenOption.READ);
+                 FileChannel out = FileChannel.open(partial, StandardOpenOption.WRITE)) {
+                long size = in.size();
+                long position = 0;
+                while (position < size) {
+                    position += out.transferFrom(in, position, size - position);
+                }
+                out.force(true);
+            }
+            Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(partial);
+            throw e;
+        }
+        return new StoredObject(key, null);
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(resolve(key));
+    }
+
+    @Override
+    public Optional<Path> localPath(String key) {
+        Path path = resolve(key);
+        return Files.isRegularFile(path) ? Optional.of(path) : Optional.empty();
+    }
+
+    private Path resolve(String key) {
+        Path path = root.resolve(key).normalize();
+        if (!path.startsWith(root) || path.equals(root)) {
+            throw new IllegalArgumentException("Invalid storage key: " + key);
+        }
+        return path;
+    }
+}
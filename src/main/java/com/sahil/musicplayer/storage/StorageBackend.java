@@ -0,0 +1,40 @@
+package com.sahil.musicplayer.storage;
+
+import com.sahil.musicplayer.upload.StagedUpload;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// Where uploaded audio lives. Songs keep the returned key as publicId and the url, if any, for playback.
+public interface StorageBackend {
+
+    String name();
+
+    StoredObject store(StagedUpload upload) throws IOException;
+
+    // Deleting a key that is already gone is not an error
+    void delete(String key) throws IOException;
+
+    // Deletes a batch of keys and returns the error for each key that could not be deleted.
+    // Backends with a bulk API override this; callers keep batches within storage.delete-batch-size.
+    default Map<String, String> deleteBatch(List<String> keys) {
+        Map<String, String> failures = new HashMap<>();
+        for (String key : keys) {
+            try {
+                delete(key);
+            } catch (IOException | RuntimeException e) {
+                failures.put(key, e.getMessage());
+            }
+        }
+        return failures;
+    }
+
+    // The file behind a key when it is on this machine's disk, so the app can serve it itself
+    default Optional<Path> localPath(String key) {
+        return Optional.empty();
+    }
+}
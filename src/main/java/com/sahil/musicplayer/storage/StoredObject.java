@@ -0,0 +1,5 @@
+package com.sahil.musicplayer.storage;
+
+// url is null when the backend has no public URL and the app serves the file itself
+public record StoredObject(String key, String url) {
+}
@@ -0,0 +1,185 @@
+package com.sahil.musicplayer.upload;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.Stream;
+
+// On-disk staging for resumable uploads: one directory per session, one file per received chunk.
+// A chunk only appears under its final name once its length and checksum have been verified, so
+// the directory listing is the source of truth for what has arrived.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ChunkStore {
+
+    private static final String CHUNK_PREFIX = "chunk-";
+    private static final String PARTIAL_SUFFIX = ".tmp";
+
+    private final UploadBufferPool bufferPool;
+
+    @Value("${upload.session.dir:${java.io.tmpdir}/musicplayer-upload-sessions}")
+    private String sessionsDir;
+
+    public void writeChunk(String sessionId, int index, long expectedLength, String expectedSha256,
+                           InputStream in) throws IOException {
+        Path dir = Files.createDirectories(sessionDir(sessionId));
+        // Every attempt gets its own file, so a retried PUT racing the original never shares bytes
+        // with it; whichever verified attempt moves into place last wins, and both hold the same data
+        Path partial = Files.createTempFile(dir, CHUNK_PREFIX + index + "-", PARTIAL_SUFFIX);
+        MessageDigest digest = ContentInspector.sha256();
+
+        ByteBuffer buffer = bufferPool.acquire();
+        long written = 0;
+        boolean committed = false;
+        try (ReadableByteChannel source = Channels.newChannel(in);
+             FileChannel sink = FileChannel.open(partial, StandardOpenOption.WRITE)) {
+            int read;
+            while ((read = source.read(buffer)) >= 0) {
+                if (read > 0 && written + buffer.position() > expectedLength) {
+                    throw new IllegalArgumentException("Chunk " + index + " is larger than " + expectedLength + " bytes");
+                }
+                if (!buffer.hasRemaining()) {
+                    written += drain(buffer, sink, digest);
+                }
+            }
+            written += drain(buffer, sink, digest);
+            sink.force(false);
+
+            if (written != expectedLength) {
+                throw new IllegalArgumentException(
+                        "Chunk " + index + " has " + written + " bytes, expected " + expectedLength);
+            }
+            String actual = HexFormat.of().formatHex(digest.digest());
+            if (!actual.equalsIgnoreCase(expectedSha256)) {
+                throw new IllegalArgumentException("Checksum mismatch for chunk " + index);
+            }
+            committed = true;
+        } finally {
+            bufferPool.release(buffer);
+            if (!committed) {
+                Files.deleteIfExists(partial);
+            }
+        }
+        Files.move(partial, dir.resolve(CHUNK_PREFIX + index),
+                StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    public List<Integer> receivedChunks(String sessionId) throws IOException {
+        Path dir = sessionDir(sessionId);
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+        List<Integer> indexes = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, CHUNK_PREFIX + "*")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (!name.endsWith(PARTIAL_SUFFIX)) {
+                    indexes.add(Integer.parseInt(name.substring(CHUNK_PREFIX.length())));
+                }
+            }
+        }
+        Collections.sort(indexes);
+        return indexes;
+    }
+
+    // Concatenates the chunks through a pooled buffer, inspecting the content as it goes by
+    public StagedUpload assemble(String sessionId, int totalChunks, String originalFilename) throws IOException {
+        Path dir = sessionDir(sessionId);
+        Path target = Files.createTempFile(dir, "assembled-", ".part");
+        ContentInspector inspector = new ContentInspector();
+        ByteBuffer buffer = bufferPool.acquire();
+        long size = 0;
+        StagedUpload staged;
+        try (FileChannel sink = FileChannel.open(target, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (int i = 0; i < totalChunks && !inspector.isRejected(); i++) {
+                try (FileChannel chunk = FileChannel.open(dir.resolve(CHUNK_PREFIX + i), StandardOpenOption.READ)) {
+                    while (chunk.read(buffer) >= 0) {
+                        if (!buffer.hasRemaining()) {
+                            size += UploadStager.drain(buffer, sink, inspector);
+                        }
+                    }
+                }
+            }
+            size += UploadStager.drain(buffer, sink, inspector);
+            staged = inspector.finish(target, originalFilename, size);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(target);
+            throw e;
+        } finally {
+            bufferPool.release(buffer);
+        }
+        return staged;
+    }
+
+    public void delete(String sessionId) {
+        Path dir = sessionDir(sessionId);
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException e) {
+                    log.warn("Failed to delete {}: {}", path, e.getMessage());
+                }
+            });
+        } catch (IOException e) {
+            log.warn("Failed to clean up upload session {}: {}", sessionId, e.getMessage());
+        }
+    }
+
+    public List<String> sessionIds() throws IOException {
+        Path root = Paths.get(sessionsDir);
+        if (!Files.isDirectory(root)) {
+            return List.of();
+        }
+        List<String> ids = new ArrayList<>();
+        try (DirectoryStream<Path> dirs = Files.newDirectoryStream(root, Files::isDirectory)) {
+            dirs.forEach(dir -> ids.add(dir.getFileName().toString()));
+        }
+        return ids;
+    }
+
+    private Path sessionDir(String sessionId) {
+        Path root = Paths.get(sessionsDir).toAbsolutePath().normalize();
+        Path dir = root.resolve(sessionId).normalize();
+        if (!dir.getParent().equals(root)) {
+            throw new IllegalArgumentException("Invalid upload session id");
+        }
+        return dir;
+    }
+
+    private static long drain(ByteBuffer buffer, FileChannel sink, MessageDigest digest) throws IOException {
+        buffer.flip();
+        digest.update(buffer.duplicate());
+        long written = 0;
+        while (buffer.hasRemaining()) {
+            written += sink.write(buffer);
+        }
+        buffer.clear();
+        return written;
+    }
+}
@@ -0,0 +1,40 @@
+package com.sahil.musicplayer.upload;
+
+import com.sahil.musicplayer.audio.Mp3FrameParser;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+// Everything we learn from an upload's bytes in the single pass that copies them: MP3 structure and
+// tags from the frame parser, plus the SHA-256 used to recognise re-uploads of the same file.
+final class ContentInspector {
+
+    private final Mp3FrameParser parser = new Mp3FrameParser();
+    private final MessageDigest digest = sha256();
+
+    // Reads between position and limit without moving the buffer
+    void update(ByteBuffer chunk) {
+        parser.update(chunk);
+        digest.update(chunk.duplicate());
+    }
+
+    boolean isRejected() {
+        return parser.isRejected();
+    }
+
+    StagedUpload finish(Path path, String originalFilename, long size) {
+        return new StagedUpload(path, originalFilename, size, parser.finish(),
+                HexFormat.of().formatHex(digest.digest()));
+    }
+
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
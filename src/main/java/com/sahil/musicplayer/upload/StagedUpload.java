@@ -0,0 +1,45 @@
+package com.sahil.musicplayer.upload;
+
+import com.sahil.musicplayer.audio.AudioInfo;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// An upload spooled to local disk, with the audio details and content hash taken on the way in.
+// Closing it removes the temp file.
+@Getter
+@Slf4j
+public class StagedUpload implements AutoCloseable {
+
+    private final Path path;
+    private final String originalFilename;
+    private final long size;
+    private final AudioInfo audioInfo;
+    // Hex SHA-256 of the file contents
+    private final String contentHash;
+
+    StagedUpload(Path path, String originalFilename, long size, AudioInfo audioInfo, String contentHash) {
+        this.path = path;
+        this.originalFilename = originalFilename;
+        this.size = size;
+        this.audioInfo = audioInfo;
+        this.contentHash = contentHash;
+    }
+
+    public File toFile() {
+        return path.toFile();
+    }
+
+    @Override
+    public void close() {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Failed to delete staged upload {}: {}", path, e.getMessage());
+        }
+    }
+}
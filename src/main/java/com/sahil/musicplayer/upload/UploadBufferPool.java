@@ -0,0 +1,67 @@
+package com.sahil.musicplayer.upload;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Fixed set of direct buffers shared by all uploads. Heap use for copying upload bytes is bounded by
+// count * size no matter how many uploads run or how large they are; callers past the limit wait.
+@Component
+@Slf4j
+public class UploadBufferPool {
+
+    private final BlockingQueue<ByteBuffer> available;
+    private final AtomicInteger allocated = new AtomicInteger();
+    private final int bufferSize;
+    private final int maxBuffers;
+    private final long acquireTimeoutMs;
+
+    public UploadBufferPool(@Value("${upload.buffer.size-kb:64}") int bufferSizeKb,
+                            @Value("${upload.buffer.count:16}") int maxBuffers,
+                            @Value("${upload.buffer.acquire-timeout-ms:10000}") long acquireTimeoutMs) {
+        this.bufferSize = bufferSizeKb * 1024;
+        this.maxBuffers = maxBuffers;
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.available = new ArrayBlockingQueue<>(maxBuffers);
+    }
+
+    public ByteBuffer acquire() {
+        ByteBuffer buffer = available.poll();
+        if (buffer != null) {
+            return buffer.clear();
+        }
+        // Allocate lazily up to the limit so an idle node does not hold the whole pool
+        if (allocated.incrementAndGet() <= maxBuffers) {
+            return ByteBuffer.allocateDirect(bufferSize);
+        }
+        allocated.decrementAndGet();
+
+        try {
+            buffer = available.poll(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for an upload buffer", e);
+        }
+        if (buffer == null) {
+            log.warn("No upload buffer became free within {} ms", acquireTimeoutMs);
+            throw new IllegalStateException("Too many uploads in progress, please retry shortly");
+        }
+        return buffer.clear();
+    }
+
+    public void release(ByteBuffer buffer) {
+        if (buffer != null && !available.offer(buffer)) {
+            allocated.decrementAndGet();
+        }
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+}
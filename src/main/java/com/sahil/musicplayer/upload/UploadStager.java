@@ -0,0 +1,116 @@
+package com.sahil.musicplayer.upload;
+
+import com.sahil.musicplayer.exception.InvalidAudioException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+// Copies an upload to a temp file through a pooled buffer, one chunk at a time, so the bytes never
+// sit on the heap as a whole. Storage backends then stream the file from disk.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UploadStager {
+
+    private final UploadBufferPool bufferPool;
+
+    @Value("${upload.staging-dir:${java.io.tmpdir}/musicplayer-uploads}")
+    private String stagingDir;
+
+    public StagedUpload stage(MultipartFile file) throws IOException {
+        try (InputStream in = file.getInputStream()) {
+            return stage(in, file.getOriginalFilename());
+        }
+    }
+
+    // The inspector sees every chunk on its way to disk, so validation, metadata and the content hash
+    // cost no extra read; obvious non-audio is rejected before the rest of the body is copied.
+    public StagedUpload stage(InputStream in, String originalFilename) throws IOException {
+        Path dir = Paths.get(stagingDir);
+        Files.createDirectories(dir);
+        Path target = Files.createTempFile(dir, "upload-", ".part");
+
+        ContentInspector inspector = new ContentInspector();
+        ByteBuffer buffer = bufferPool.acquire();
+        long size = 0;
+        StagedUpload staged;
+        try (ReadableByteChannel source = Channels.newChannel(in);
+             FileChannel sink = FileChannel.open(target, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (source.read(buffer) >= 0) {
+                if (!buffer.hasRemaining()) {
+                    size += drain(buffer, sink, inspector);
+                    if (inspector.isRejected()) {
+                        throw new InvalidAudioException("Not a valid MP3 file: no MPEG audio frames found");
+                    }
+                }
+            }
+            size += drain(buffer, sink, inspector);
+            staged = inspector.finish(target, originalFilename, size);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(target);
+            throw e;
+        } finally {
+            bufferPool.release(buffer);
+        }
+
+        log.debug("Staged upload {} ({} bytes, {} ms) at {}",
+                originalFilename, size, staged.getAudioInfo().getDurationMs(), target);
+        return staged;
+    }
+
+    // Hands a file staged earlier (e.g. by a request that queued a job) back as a StagedUpload
+    public StagedUpload reopen(String stagedPath, String originalFilename) throws IOException {
+        if (!isAvailable(stagedPath)) {
+            throw new IOException("Staged upload is no longer available: " + stagedPath);
+        }
+        Path path = Paths.get(stagedPath).toAbsolutePath().normalize();
+
+        ContentInspector inspector = new ContentInspector();
+        ByteBuffer buffer = bufferPool.acquire();
+        try (FileChannel source = FileChannel.open(path, StandardOpenOption.READ)) {
+            while (source.read(buffer) >= 0 && !inspector.isRejected()) {
+                buffer.flip();
+                inspector.update(buffer);
+                buffer.clear();
+            }
+        } finally {
+            bufferPool.release(buffer);
+        }
+        return inspector.finish(path, originalFilename, Files.size(path));
+    }
+
+    // Whether this process can read a file staged earlier, possibly by another process on the same disk
+    public boolean isAvailable(String stagedPath) {
+        if (stagedPath == null) {
+            return false;
+        }
+        Path root = Paths.get(stagingDir).toAbsolutePath().normalize();
+        Path path = Paths.get(stagedPath).toAbsolutePath().normalize();
+        return path.startsWith(root) && Files.isRegularFile(path);
+    }
+
+    static long drain(ByteBuffer buffer, FileChannel sink, ContentInspector inspector) throws IOException {
+        buffer.flip();
+        inspector.update(buffer);
+        long written = 0;
+        while (buffer.hasRemaining()) {
+            written += sink.write(buffer);
+        }
+        buffer.clear();
+        return written;
+    }
+}
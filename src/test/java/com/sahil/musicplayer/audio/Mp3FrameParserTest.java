@@ -0,0 +1,104 @@
+package com.sahil.musicplayer.audio;
+
+import com.sahil.musicplayer.exception.InvalidAudioException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class Mp3FrameParserTest {
+
+    // MPEG-2 and MPEG-2.5 Layer III at 64 kbps, index 8 in the low sample rate table
+    private static final int MPEG2_64K = 0xFFF38040;
+    private static final int MPEG25_64K = 0xFFE38040;
+
+    @Test
+    void readsHeaderFields() {
+        int header = Mp3Frames.MPEG1_128K;
+
+        assertTrue(Mp3FrameParser.isFrameHeader(header));
+        assertEquals(128, Mp3FrameParser.bitrateKbps(header));
+        assertEquals(44_100, Mp3FrameParser.sampleRate(header));
+        assertEquals(1152, Mp3FrameParser.samplesPerFrame(header));
+        assertEquals(32, Mp3FrameParser.sideInfoLength(header));
+        assertEquals(417, Mp3FrameParser.frameLength(header));
+        assertEquals(418, Mp3FrameParser.frameLength(header | Mp3Frames.PADDING));
+    }
+
+    @Test
+    void readsLowSampleRateVersions() {
+        assertEquals(64, Mp3FrameParser.bitrateKbps(MPEG2_64K));
+        assertEquals(22_050, Mp3FrameParser.sampleRate(MPEG2_64K));
+        assertEquals(576, Mp3FrameParser.samplesPerFrame(MPEG2_64K));
+        assertEquals(17, Mp3FrameParser.sideInfoLength(MPEG2_64K));
+        assertEquals(208, Mp3FrameParser.frameLength(MPEG2_64K));
+
+        assertEquals(11_025, Mp3FrameParser.sampleRate(MPEG25_64K));
+        assertEquals(576, Mp3FrameParser.samplesPerFrame(MPEG25_64K));
+    }
+
+    @Test
+    void sideInfoShrinksForMono() {
+        int mono = 0xC0;
+
+        assertEquals(17, Mp3FrameParser.sideInfoLength(Mp3Frames.MPEG1_128K | mono));
+        assertEquals(9, Mp3FrameParser.sideInfoLength(MPEG2_64K | mono));
+    }
+
+    @Test
+    void rejectsInvalidHeaders() {
+        int header = Mp3Frames.MPEG1_128K;
+
+        assertFalse(Mp3FrameParser.isFrameHeader(header & ~0x00E00000), "broken sync word");
+        assertFalse(Mp3FrameParser.isFrameHeader(header & ~0x00180000 | 0x00080000), "reserved version");
+        assertFalse(Mp3FrameParser.isFrameHeader(header | 0x00060000), "layer I");
+        assertFalse(Mp3FrameParser.isFrameHeader(header & ~0x00060000 | 0x00040000), "layer II");
+        assertFalse(Mp3FrameParser.isFrameHeader(header & ~0xF000), "free format bitrate");
+        assertFalse(Mp3FrameParser.isFrameHeader(header | 0xF000), "bad bitrate");
+        assertFalse(Mp3FrameParser.isFrameHeader(header | 0x0C00), "reserved sample rate");
+        assertFalse(Mp3FrameParser.isFrameHeader(header | 0x0002), "reserved emphasis");
+    }
+
+    @Test
+    void countsFramesAcrossChunkBoundaries() {
+        byte[] mp3 = new Mp3Frames().id3(100).junk(7).frames(Mp3Frames.MPEG1_128K, 100).toBytes();
+
+        AudioInfo info = parse(mp3, 13);
+
+        assertEquals(100, info.getFrameCount());
+        assertEquals(100L * 1152 * 1000 / 44_100, info.getDurationMs());
+        assertEquals(44_100, info.getSampleRate());
+        assertEquals(2, info.getChannels());
+        assertEquals(128, info.getBitrateKbps());
+        assertFalse(info.isVbr());
+    }
+
+    @Test
+    void takesFrameCountFromXingHeader() {
+        byte[] mp3 = new Mp3Frames().xing(Mp3Frames.MPEG1_128K, 1000).frames(Mp3Frames.MPEG1_128K, 10).toBytes();
+
+        AudioInfo info = parse(mp3, mp3.length);
+
+        assertEquals(1000, info.getFrameCount());
+        assertTrue(info.isVbr());
+    }
+
+    @Test
+    void rejectsStreamsWithoutFrames() {
+        byte[] noise = new Mp3Frames().junk(4096).toBytes();
+
+        assertThrows(InvalidAudioException.class, () -> parse(noise, 512));
+    }
+
+    private static AudioInfo parse(byte[] bytes, int chunkSize) {
+        Mp3FrameParser parser = new Mp3FrameParser();
+        for (int offset = 0; offset < bytes.length; offset += chunkSize) {
+            parser.update(ByteBuffer.wrap(bytes, offset, Math.min(chunkSize, bytes.length - offset)));
+        }
+        return parser.finish();
+    }
+}
@@ -0,0 +1,70 @@
+package com.sahil.musicplayer.audio;
+
+import java.io.ByteArrayOutputStream;
+
+// Builds silent MPEG audio streams from raw frame headers for the parser and indexer tests
+final class Mp3Frames {
+
+    // MPEG-1 Layer III, no CRC, 128 kbps, 44.1 kHz, joint stereo: 417 bytes, 418 with padding
+    static final int MPEG1_128K = 0xFFFB9040;
+    static final int PADDING = 1 << 9;
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    Mp3Frames frame(int header) {
+        writeInt(header);
+        out.write(new byte[Mp3FrameParser.frameLength(header) - 4], 0, Mp3FrameParser.frameLength(header) - 4);
+        return this;
+    }
+
+    Mp3Frames frames(int header, int count) {
+        for (int i = 0; i < count; i++) {
+            frame(header);
+        }
+        return this;
+    }
+
+    Mp3Frames junk(int length) {
+        for (int i = 0; i < length; i++) {
+            out.write(0x5A);
+        }
+        return this;
+    }
+
+    // Xing frame carrying the frame count, as LAME writes in front of VBR files
+    Mp3Frames xing(int header, int frames) {
+        byte[] body = new byte[Mp3FrameParser.frameLength(header) - 4];
+        int offset = Mp3FrameParser.sideInfoLength(header);
+        body[offset] = 'X';
+        body[offset + 1] = 'i';
+        body[offset + 2] = 'n';
+        body[offset + 3] = 'g';
+        body[offset + 7] = 1;
+        body[offset + 8] = (byte) (frames >>> 24);
+        body[offset + 9] = (byte) (frames >>> 16);
+        body[offset + 10] = (byte) (frames >>> 8);
+        body[offset + 11] = (byte) frames;
+        writeInt(header);
+        out.write(body, 0, body.length);
+        return this;
+    }
+
+    Mp3Frames id3(int bodyLength) {
+        out.write(new byte[] {'I', 'D', '3', 3, 0, 0,
+                (byte) (bodyLength >>> 21 & 0x7F), (byte) (bodyLength >>> 14 & 0x7F),
+                (byte) (bodyLength >>> 7 & 0x7F), (byte) (bodyLength & 0x7F)}, 0, 10);
+        out.write(new byte[bodyLength], 0, bodyLength);
+        return this;
+    }
+
+    byte[] toBytes() {
+        return out.toByteArray();
+    }
+
+    private void writeInt(int value) {
+        out.write(value >>> 24);
+        out.write(value >>> 16);
+        out.write(value >>> 8);
+        out.write(value);
+    }
+}
@@ -0,0 +1,97 @@
+package com.sahil.musicplayer.audio;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SeekIndexTest {
+
+    private static final int HEADER = Mp3Frames.MPEG1_128K;
+
+    @Test
+    void decodesOffsetsFromFrameEntries() {
+        ByteArrayOutputStream entries = new ByteArrayOutputStream();
+        entries.write(SeekIndex.entry(HEADER));
+        entries.write(SeekIndex.entry(HEADER | Mp3Frames.PADDING));
+        entries.write(SeekIndex.GAP);
+        SeekIndex.writeVarLong(entries, 300);
+        entries.write(SeekIndex.entry(HEADER));
+
+        SeekIndex index = SeekIndex.decode(SeekIndex.encode(HEADER, 1000, 3, entries));
+
+        assertEquals(3, index.getFrameCount());
+        assertEquals(1000, index.offsetOf(0));
+        assertEquals(1417, index.offsetOf(1));
+        assertEquals(1417 + 418 + 300, index.offsetOf(2));
+        assertEquals(1417 + 418 + 300 + 417, index.getAudioEnd());
+    }
+
+    @Test
+    void roundTripsThroughBytes() {
+        ByteArrayOutputStream entries = new ByteArrayOutputStream();
+        for (int i = 0; i < 500; i++) {
+            entries.write(SeekIndex.entry(i % 3 == 0 ? HEADER | Mp3Frames.PADDING : HEADER));
+        }
+        byte[] encoded = SeekIndex.encode(HEADER, 1L << 33, 500, entries);
+
+        SeekIndex index = SeekIndex.decode(encoded);
+        SeekIndex copy = SeekIndex.decode(index.toBytes());
+
+        assertArrayEquals(encoded, copy.toBytes());
+        assertEquals(1L << 33, copy.getAudioStart());
+        assertEquals(index.getAudioEnd(), copy.getAudioEnd());
+        assertEquals(500L * 1152 * 1000 / 44_100, copy.getDurationMs());
+    }
+
+    @Test
+    void indexesSynthesizedStream() throws IOException {
+        byte[] mp3 = new Mp3Frames()
+                .id3(64)
+                .xing(HEADER, 40)
+                .frames(HEADER, 20)
+                .junk(33)
+                .frames(HEADER | Mp3Frames.PADDING, 20)
+                .toBytes();
+
+        SeekIndex index = Mp3SeekIndexer.analyze(new ByteArrayInputStream(mp3)).seekIndex();
+
+        long firstAudio = 10 + 64 + 417;
+        assertEquals(40, index.getFrameCount());
+        assertEquals(firstAudio, index.getAudioStart());
+        assertEquals(firstAudio + 19 * 417, index.offsetOf(19));
+        assertEquals(firstAudio + 20 * 417 + 33, index.offsetOf(20));
+        assertEquals(mp3.length, index.getAudioEnd());
+    }
+
+    @Test
+    void mapsTimesToFrames() {
+        ByteArrayOutputStream entries = new ByteArrayOutputStream();
+        for (int i = 0; i < 100; i++) {
+            entries.write(SeekIndex.entry(HEADER));
+        }
+        SeekIndex index = SeekIndex.decode(SeekIndex.encode(HEADER, 0, 100, entries));
+
+        assertEquals(0, index.frameAt(-5));
+        assertEquals(38, index.frameAt(1000));
+        assertEquals(99, index.frameAt(60_000));
+        assertEquals(38L * 1152 * 1000 / 44_100, index.timeOfMs(38));
+
+        List<SeekIndex.Segment> segments = index.segments(1.0);
+        assertEquals(3, segments.size());
+        assertEquals(0, segments.get(0).offset());
+        assertEquals(38L * 417, segments.get(0).length());
+        assertEquals(100L * 417, segments.stream().mapToLong(SeekIndex.Segment::length).sum());
+    }
+
+    @Test
+    void rejectsUnknownFormat() {
+        assertThrows(IllegalArgumentException.class, () -> SeekIndex.decode(new byte[] {9, 0, 0, 0, 0}));
+    }
+}
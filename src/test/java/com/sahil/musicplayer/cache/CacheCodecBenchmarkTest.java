@@ -0,0 +1,84 @@
+package com.sahil.musicplayer.cache;
+
+import com.sahil.musicplayer.model.Song;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Compares the binary cache codec with the JSON serializer it replaced on a catalog-shaped payload.
+// The timing run is opt-in: mvn test -Dtest=CacheCodecBenchmarkTest -Dbenchmark=true
+class CacheCodecBenchmarkTest {
+
+    private static final int ENTRIES = 1000;
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int ITERATIONS = 200;
+
+    @Test
+    void binaryCodecIsSmallerThanJson() {
+        Object catalog = syntheticCatalog(ENTRIES);
+        int json = new GenericJackson2JsonRedisSerializer().serialize(catalog).length;
+        int binary = new CacheValueSerializer(0).serialize(catalog).length;
+        int compressed = new CacheValueSerializer(1024).serialize(catalog).length;
+
+        assertTrue(binary < json, "binary " + binary + " >= json " + json);
+        assertTrue(compressed < binary, "compressed " + compressed + " >= binary " + binary);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmark() {
+        List<Song> catalog = syntheticCatalog(ENTRIES);
+        measure("json", new GenericJackson2JsonRedisSerializer(), catalog);
+        measure("binary", new CacheValueSerializer(0), catalog);
+        measure("binaryCompressed", new CacheValueSerializer(1024), catalog);
+    }
+
+    private static void measure(String name, RedisSerializer<Object> serializer, List<Song> songs) {
+        Object value = new ArrayList<>(songs);
+        byte[] bytes = serializer.serialize(value);
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            serializer.deserialize(serializer.serialize(value));
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            bytes = serializer.serialize(value);
+        }
+        long encodeNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            serializer.deserialize(bytes);
+        }
+        long decodeNanos = System.nanoTime() - start;
+
+        System.out.printf("%-16s %8d bytes  %6.1f bytes/entry  encode %8.1f us  decode %8.1f us%n",
+                name, bytes.length, (double) bytes.length / songs.size(),
+                encodeNanos / 1000.0 / ITERATIONS, decodeNanos / 1000.0 / ITERATIONS);
+    }
+
+    static List<Song> syntheticCatalog(int size) {
+        List<Song> songs = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String publicId = "songs/" + Long.toHexString(Double.doubleToLongBits(i * 31.7));
+            songs.add(Song.builder()
+                    .id(new ObjectId().toHexString())
+                    .fileName("track_" + i + ".mp3")
+                    .title("Song Title Number " + i)
+                    .artist("Artist " + (i % 97))
+                    .url("https://res.cloudinary.com/demo/video/upload/v1700000000/" + publicId + ".mp3")
+                    .publicId(publicId)
+                    .playCount((long) i)
+                    .version(1L)
+                    .build());
+        }
+        return songs;
+    }
+}
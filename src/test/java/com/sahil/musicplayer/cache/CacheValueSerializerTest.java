@@ -0,0 +1,133 @@
+package com.sahil.musicplayer.cache;
+
+import com.sahil.musicplayer.dto.DashboardStats;
+import com.sahil.musicplayer.dto.PlaylistItem;
+import com.sahil.musicplayer.dto.PlaylistPage;
+import com.sahil.musicplayer.dto.SongPage;
+import com.sahil.musicplayer.model.Role;
+import com.sahil.musicplayer.model.Song;
+import com.sahil.musicplayer.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CacheValueSerializerTest {
+
+    private final CacheValueSerializer serializer = new CacheValueSerializer(0);
+
+    @Test
+    void roundTripsSongWithEveryField() {
+        Song song = Song.builder()
+                .id("65f1c0ffee0000000000beef")
+                .fileName("track.mp3")
+                .title("Título — 曲")
+                .artist("Artist")
+                .url("https://example.com/track.mp3")
+                .publicId("songs/track")
+                .contentHash("ab".repeat(32))
+                .album("Album")
+                .genre("Rock")
+                .year(1999)
+                .durationMs(215_000L)
+                .bitrateKbps(320)
+                .sampleRate(44_100)
+                .vbr(true)
+                .playCount(0L)
+                .version(7L)
+                .build();
+
+        assertEquals(song, roundTrip(song));
+    }
+
+    @Test
+    void keepsNullsDistinctFromZeroAndFalse() {
+        Song sparse = Song.builder().id("1").build();
+        Song zeros = Song.builder().id("2").title("").year(0).durationMs(0L).vbr(false).playCount(0L).build();
+
+        assertEquals(sparse, roundTrip(sparse));
+        assertEquals(zeros, roundTrip(zeros));
+    }
+
+    @Test
+    void roundTripsUserAndDashboardStats() {
+        User user = User.builder().id("u1").username("sahil").email("s@example.com").password("hash")
+                .role(Role.ADMIN).enabled(true).build();
+        DashboardStats stats = DashboardStats.builder().totalUsers(3).totalSongs(1L << 40).activeUsers(0).build();
+
+        assertEquals(user, roundTrip(user));
+        assertEquals(stats, roundTrip(stats));
+    }
+
+    @Test
+    void roundTripsPages() {
+        Song song = Song.builder().id("s1").title("One").version(1L).build();
+        SongPage songPage = SongPage.builder().items(List.of(song)).nextCursor("abc").hasMore(true).build();
+        PlaylistPage playlistPage = PlaylistPage.builder()
+                .items(List.of(
+                        PlaylistItem.builder().entryId("e1").rank("V").songId("s1").song(song).build(),
+                        PlaylistItem.builder().entryId("e2").rank("W").songId("s2").build()))
+                .nextCursor(null)
+                .hasMore(false)
+                .build();
+
+        assertEquals(songPage, roundTrip(songPage));
+        assertEquals(playlistPage, roundTrip(playlistPage));
+    }
+
+    @Test
+    void roundTripsListsWithNullsAndJsonFallback() {
+        List<Object> list = Arrays.asList(Song.builder().id("s1").build(), null, List.of());
+
+        assertEquals(list, roundTrip(list));
+        Map<String, Object> other = new HashMap<>(Map.of("key", "value"));
+        assertEquals(other, roundTrip(other));
+    }
+
+    @Test
+    void compressesLargeValuesAndReadsThemBack() {
+        List<Song> songs = CacheCodecBenchmarkTest.syntheticCatalog(200);
+        CacheValueSerializer compressing = new CacheValueSerializer(1024);
+
+        byte[] compressed = compressing.serialize(songs);
+        byte[] plain = serializer.serialize(songs);
+
+        assertEquals(CacheValueSerializer.FORMAT_VERSION | 0x80, compressed[0] & 0xFF);
+        assertTrue(compressed.length < plain.length);
+        assertEquals(songs, compressing.deserialize(compressed));
+        // Either instance reads both forms
+        assertEquals(songs, serializer.deserialize(compressed));
+    }
+
+    @Test
+    void treatsOtherFormatVersionsAsMisses() {
+        byte[] bytes = serializer.serialize(Song.builder().id("s1").build());
+        bytes[0] = (byte) (CacheValueSerializer.FORMAT_VERSION - 1);
+
+        assertNull(serializer.deserialize(bytes));
+        assertNull(serializer.deserialize(new byte[0]));
+        assertNull(serializer.serialize(null));
+    }
+
+    @Test
+    void rejectsTruncatedValues() {
+        byte[] bytes = serializer.serialize(Song.builder().id("s1").title("Title").build());
+
+        for (int length = 2; length < bytes.length; length++) {
+            byte[] truncated = Arrays.copyOf(bytes, length);
+            assertThrows(SerializationException.class, () -> serializer.deserialize(truncated));
+        }
+    }
+
+    private Object roundTrip(Object value) {
+        return serializer.deserialize(serializer.serialize(value));
+    }
+}
@@ -0,0 +1,111 @@
+package com.sahil.musicplayer.cache;
+
+import com.sahil.musicplayer.dto.SongPage;
+import com.sahil.musicplayer.model.Song;
+import com.sahil.musicplayer.service.SongCursor;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class SongCatalogCacheTest {
+
+    private final InMemorySongCatalogCache cache = new InMemorySongCatalogCache();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void servesCachedPageUntilAWriteLandsInIt() {
+        SongPage first = page(true, song(1), song(2));
+        assertSame(first, load(first));
+        assertSame(first, load(page(false)));
+
+        // Past the page's last song: belongs to a later page
+        cache.upsert(song(5), null);
+        assertSame(first, load(page(false)));
+        assertEquals(1, loads.get());
+
+        cache.upsert(song(2), null);
+        SongPage reloaded = page(true, song(1), song(2));
+        assertSame(reloaded, load(reloaded));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void doesNotServeAPageLoadedBeforeAConcurrentWrite() {
+        SongPage stale = page(false, song(1));
+        SongPage served = cache.getPage("id", 10, null, () -> {
+            loads.incrementAndGet();
+            // Lands after the query ran but before the page is cached
+            cache.upsert(song(2), null);
+            return stale;
+        });
+        assertSame(stale, served);
+
+        SongPage fresh = page(false, song(1), song(2));
+        assertSame(fresh, load(fresh));
+        assertEquals(2, loads.get());
+    }
+
+    private SongPage load(SongPage page) {
+        return cache.getPage("id", 10, null, () -> {
+            loads.incrementAndGet();
+            return page;
+        });
+    }
+
+    private static SongPage page(boolean hasMore, Song... songs) {
+        List<Song> items = List.of(songs);
+        return SongPage.builder()
+                .items(items)
+                .nextCursor(hasMore ? SongCursor.of(items.get(items.size() - 1), "id").encode() : null)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    private static Song song(int n) {
+        return Song.builder().id(String.format("%024x", n)).title("Song " + n).build();
+    }
+
+    // Keeps the page ranges and generation in memory instead of Redis
+    private static final class InMemorySongCatalogCache extends SongCatalogCache {
+
+        private final Map<String, String> ranges = new HashMap<>();
+        private long generation;
+
+        private InMemorySongCatalogCache() {
+            super(new ConcurrentMapCacheManager(SONG, PAGES), null);
+        }
+
+        @Override
+        long generation() {
+            return generation;
+        }
+
+        @Override
+        void advanceGeneration() {
+            generation++;
+        }
+
+        @Override
+        boolean registerRange(String key, String range) {
+            ranges.put(key, range);
+            return true;
+        }
+
+        @Override
+        Map<String, String> readRanges() {
+            return new HashMap<>(ranges);
+        }
+
+        @Override
+        void removeRanges(List<String> keys) {
+            keys.forEach(ranges::remove);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.sahil.musicplayer.play;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MpscRingBufferTest {
+
+    @Test
+    void roundsCapacityUpToPowerOfTwo() {
+        assertEquals(8, new MpscRingBuffer<>(5).capacity());
+        assertEquals(8, new MpscRingBuffer<>(8).capacity());
+        assertEquals(2, new MpscRingBuffer<>(1).capacity());
+    }
+
+    @Test
+    void rejectsOffersWhenFull() {
+        MpscRingBuffer<Integer> ring = new MpscRingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ring.offer(i));
+        }
+
+        assertFalse(ring.offer(4));
+        assertEquals(4, ring.size());
+        assertEquals(1, ring.drain(e -> { }, 1));
+        assertTrue(ring.offer(4));
+    }
+
+    @Test
+    void keepsFifoOrderAcrossWrapAround() {
+        MpscRingBuffer<Integer> ring = new MpscRingBuffer<>(4);
+        List<Integer> drained = new ArrayList<>();
+        int next = 0;
+        // Uneven offer and drain sizes move head and tail through every slot many times over
+        for (int round = 0; round < 1_000; round++) {
+            int offers = 1 + round % 4;
+            for (int i = 0; i < offers && ring.offer(next); i++) {
+                next++;
+            }
+            ring.drain(drained::add, 1 + round % 3);
+        }
+        ring.drain(drained::add, Integer.MAX_VALUE);
+
+        assertEquals(next, drained.size());
+        for (int i = 0; i < drained.size(); i++) {
+            assertEquals(i, drained.get(i));
+        }
+        assertEquals(0, ring.size());
+    }
+
+    @Test
+    void drainStopsAtMax() {
+        MpscRingBuffer<Integer> ring = new MpscRingBuffer<>(8);
+        for (int i = 0; i < 6; i++) {
+            ring.offer(i);
+        }
+        List<Integer> drained = new ArrayList<>();
+
+        assertEquals(4, ring.drain(drained::add, 4));
+        assertEquals(List.of(0, 1, 2, 3), drained);
+        assertEquals(2, ring.size());
+    }
+
+    @Test
+    void concurrentProducersLoseNothing() throws InterruptedException {
+        int producers = 4;
+        int perProducer = 20_000;
+        MpscRingBuffer<Long> ring = new MpscRingBuffer<>(256);
+        ExecutorService pool = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int p = 0; p < producers; p++) {
+            long base = (long) p * perProducer;
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (long i = 0; i < perProducer; i++) {
+                    while (!ring.offer(base + i)) {
+                        Thread.yield();
+                    }
+                }
+            });
+        }
+        start.countDown();
+
+        long[] lastSeen = new long[producers];
+        Arrays.fill(lastSeen, -1);
+        long[] count = new long[1];
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (count[0] < (long) producers * perProducer && System.nanoTime() < deadline) {
+            int drained = ring.drain(value -> {
+                int producer = (int) (value / perProducer);
+                // Each producer's elements come out in the order it offered them
+                assertTrue(value > lastSeen[producer]);
+                lastSeen[producer] = value;
+                count[0]++;
+            }, 128);
+            if (drained == 0) {
+                Thread.yield();
+            }
+        }
+        pool.shutdown();
+
+        assertEquals((long) producers * perProducer, count[0]);
+    }
+}
@@ -0,0 +1,38 @@
+package com.sahil.musicplayer.play;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class WindowedSketchTest {
+
+    private static final long BUCKET = PopularWindow.HOUR.getBucket().toMillis();
+    private static final int BUCKETS = PopularWindow.HOUR.getBuckets();
+
+    @Test
+    void dropsLateEventsInsteadOfWipingTheCurrentBucket() {
+        WindowedSketch sketch = new WindowedSketch(PopularWindow.HOUR, 256, 4, 8);
+        long now = BUCKETS * BUCKET;
+        sketch.add("current", now);
+        sketch.add("current", now);
+
+        // Falls in the same slot of the ring, one full window earlier
+        sketch.add("late", now - BUCKETS * BUCKET);
+
+        List<TopK.Entry> ranked = WindowedSketch.rank(sketch.live(now), 256, 4, 10);
+        assertEquals(List.of(new TopK.Entry("current", 2)), ranked);
+    }
+
+    @Test
+    void countsEventsFromEarlierBucketsStillInTheWindow() {
+        WindowedSketch sketch = new WindowedSketch(PopularWindow.HOUR, 256, 4, 8);
+        long now = BUCKETS * BUCKET;
+        sketch.add("song", now);
+        sketch.add("song", now - BUCKET);
+
+        List<TopK.Entry> ranked = WindowedSketch.rank(sketch.live(now), 256, 4, 10);
+        assertEquals(List.of(new TopK.Entry("song", 2)), ranked);
+    }
+}
@@ -0,0 +1,114 @@
+package com.sahil.musicplayer.playlist;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RankKeysTest {
+
+    @Test
+    void firstKeyOfEmptyList() {
+        assertValid(RankKeys.between(null, null));
+    }
+
+    @Test
+    void appendsAndPrependsAroundOneKey() {
+        String key = "V";
+
+        assertBetween("V", RankKeys.between(key, null), null);
+        assertBetween(null, RankKeys.between(null, key), "V");
+    }
+
+    @Test
+    void fitsBetweenAdjacentDigits() {
+        assertBetween("1", RankKeys.between("1", "2"), "2");
+        assertBetween("y", RankKeys.between("y", "z"), "z");
+        assertBetween("A1", RankKeys.between("A1", "A2"), "A2");
+    }
+
+    @Test
+    void fitsBetweenKeyAndItsExtension() {
+        assertBetween("x", RankKeys.between("x", "x1"), "x1");
+        assertBetween("x", RankKeys.between("x", "x01"), "x01");
+    }
+
+    @Test
+    void appendsPastLargestKey() {
+        assertBetween("zzzzzz", RankKeys.between("zzzzzz", null), null);
+        assertBetween("zzzzzzzz", RankKeys.between("zzzzzzzz", null), null);
+    }
+
+    @Test
+    void prependsBeforeSmallestKey() {
+        assertBetween(null, RankKeys.between(null, "1"), "1");
+        assertBetween(null, RankKeys.between(null, "000001"), "000001");
+        assertBetween(null, RankKeys.between(null, "0000001"), "0000001");
+    }
+
+    @Test
+    void endsStayShortUnderRepeatedAppendsAndPrepends() {
+        String last = RankKeys.between(null, null);
+        String first = last;
+        for (int i = 0; i < 10_000; i++) {
+            String next = RankKeys.between(last, null);
+            String previous = RankKeys.between(null, first);
+            assertBetween(last, next, null);
+            assertBetween(null, previous, first);
+            last = next;
+            first = previous;
+        }
+        assertTrue(last.length() <= 6, last);
+        assertTrue(first.length() <= 6, first);
+    }
+
+    @Test
+    void keepsOrderUnderRandomInserts() {
+        Random random = new Random(42);
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            int at = random.nextInt(keys.size() + 1);
+            String after = at > 0 ? keys.get(at - 1) : null;
+            String before = at < keys.size() ? keys.get(at) : null;
+            String key = RankKeys.between(after, before);
+            assertBetween(after, key, before);
+            keys.add(at, key);
+        }
+    }
+
+    @Test
+    void rejectsKeysOutOfOrder() {
+        assertThrows(IllegalArgumentException.class, () -> RankKeys.between("b", "a"));
+        assertThrows(IllegalArgumentException.class, () -> RankKeys.between("a", "a"));
+        assertThrows(IllegalArgumentException.class, () -> RankKeys.between("a!", null));
+    }
+
+    @Test
+    void validatesKeys() {
+        assertTrue(RankKeys.isValid("0z"));
+        assertFalse(RankKeys.isValid(null));
+        assertFalse(RankKeys.isValid(""));
+        assertFalse(RankKeys.isValid("a0"));
+        assertFalse(RankKeys.isValid("a-b"));
+    }
+
+    private static void assertBetween(String after, String key, String before) {
+        assertValid(key);
+        if (after != null) {
+            assertTrue(after.compareTo(key) < 0, after + " !< " + key);
+        }
+        if (before != null) {
+            assertTrue(key.compareTo(before) < 0, key + " !< " + before);
+        }
+    }
+
+    private static void assertValid(String key) {
+        assertTrue(RankKeys.isValid(key), "invalid key " + key);
+    }
+}
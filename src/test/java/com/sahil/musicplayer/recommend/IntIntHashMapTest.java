@@ -0,0 +1,110 @@
+package com.sahil.musicplayer.recommend;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IntIntHashMapTest {
+
+    @Test
+    void addsToMissingAndExistingKeys() {
+        IntIntHashMap map = new IntIntHashMap(4);
+
+        assertEquals(3, map.addTo(7, 3));
+        assertEquals(5, map.addTo(7, 2));
+        assertEquals(5, map.get(7));
+        assertEquals(0, map.get(8));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void keepsEntriesAcrossRehashes() {
+        IntIntHashMap map = new IntIntHashMap(1);
+        long initialBytes = map.memoryBytes();
+        for (int key = 0; key < 10_000; key++) {
+            map.addTo(key, key + 1);
+        }
+
+        assertEquals(10_000, map.size());
+        assertTrue(map.memoryBytes() > initialBytes);
+        for (int key = 0; key < 10_000; key++) {
+            assertEquals(key + 1, map.get(key));
+        }
+    }
+
+    @Test
+    void removeKeepsProbeRunsReachable() {
+        IntIntHashMap map = new IntIntHashMap(64);
+        for (int key = 0; key < 40; key++) {
+            map.addTo(key, 100 + key);
+        }
+
+        for (int key = 0; key < 40; key += 2) {
+            assertTrue(map.remove(key));
+        }
+
+        assertFalse(map.remove(0));
+        assertFalse(map.remove(1_000));
+        assertEquals(20, map.size());
+        for (int key = 0; key < 40; key++) {
+            assertEquals(key % 2 == 0 ? 0 : 100 + key, map.get(key));
+        }
+    }
+
+    @Test
+    void matchesHashMapUnderRandomOperations() {
+        Random random = new Random(7);
+        IntIntHashMap map = new IntIntHashMap(8);
+        Map<Integer, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 200_000; i++) {
+            // A small key space keeps tables dense so removals shift long probe runs
+            int key = random.nextInt(2_000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key) != null, map.remove(key));
+            } else {
+                int delta = random.nextInt(10) + 1;
+                assertEquals((int) expected.merge(key, delta, Integer::sum), map.addTo(key, delta));
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        Map<Integer, Integer> actual = new HashMap<>();
+        map.forEach(actual::put);
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void retainDropsRejectedEntriesAndShrinks() {
+        IntIntHashMap map = new IntIntHashMap(1_000);
+        for (int key = 0; key < 1_000; key++) {
+            map.addTo(key, key);
+        }
+        long before = map.memoryBytes();
+
+        map.retain((key, value) -> value >= 990);
+
+        assertEquals(10, map.size());
+        assertTrue(map.memoryBytes() < before);
+        assertEquals(995, map.get(995));
+        assertEquals(0, map.get(5));
+    }
+
+    @Test
+    void findsNthLargestValue() {
+        IntIntHashMap map = new IntIntHashMap(8);
+        map.addTo(1, 5);
+        map.addTo(2, 9);
+        map.addTo(3, 1);
+
+        assertEquals(9, map.nthLargestValue(1));
+        assertEquals(5, map.nthLargestValue(2));
+        assertEquals(1, map.nthLargestValue(3));
+        assertEquals(0, map.nthLargestValue(4));
+    }
+}
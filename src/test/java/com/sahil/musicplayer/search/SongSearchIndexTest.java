@@ -0,0 +1,54 @@
+package com.sahil.musicplayer.search;
+
+import com.sahil.musicplayer.model.Song;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SongSearchIndexTest {
+
+    private final SongSearchIndex index = new SongSearchIndex(null);
+
+    @Test
+    void ranksTitleMatchesAboveArtistMatches() {
+        index.index(song("1", "Blue Monday", "New Order"));
+        index.index(song("2", "Ceremony", "Blue Lines"));
+        index.index(song("3", "Yellow", "Coldplay"));
+
+        assertEquals(List.of("1", "2"), index.search("blue", 10));
+        assertEquals(List.of("1"), index.search("blu mon", 10));
+        assertEquals(List.of(), index.search("blue yellow", 10));
+        assertEquals(List.of("1"), index.search("blue", 1));
+    }
+
+    @Test
+    void reindexesEditedSongsAndForgetsRemovedOnes() {
+        index.index(song("1", "Blue Monday", "New Order"));
+        index.index(song("2", "Ceremony", "New Order"));
+
+        index.index(song("1", "True Faith", "New Order"));
+        index.remove("2");
+
+        assertEquals(List.of(), index.search("monday", 10));
+        assertEquals(List.of("1"), index.search("faith", 10));
+        assertEquals(List.of("1"), index.search("new order", 10));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void needsAWordLongEnoughToMatchPrefixes() {
+        assertTrue(SongSearchIndex.isSearchable("bl"));
+        assertTrue(SongSearchIndex.isSearchable("a blue"));
+        assertFalse(SongSearchIndex.isSearchable("b"));
+        assertFalse(SongSearchIndex.isSearchable("a - b"));
+        assertFalse(SongSearchIndex.isSearchable(""));
+    }
+
+    private static Song song(String id, String title, String artist) {
+        return Song.builder().id(id).title(title).artist(artist).build();
+    }
+}
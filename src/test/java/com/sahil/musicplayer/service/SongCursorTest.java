@@ -0,0 +1,34 @@
+package com.sahil.musicplayer.service;
+
+import com.sahil.musicplayer.model.Song;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SongCursorTest {
+
+    private static final String ID = "0123456789abcdef01234567";
+
+    @Test
+    void keepsAMissingTitleApartFromTheWordNullAndAnEmptyTitle() {
+        assertNull(roundTrip(null).title());
+        assertEquals("null", roundTrip("null").title());
+        assertEquals("", roundTrip("").title());
+    }
+
+    @Test
+    void sortsMissingTitlesFirstLikeMongo() {
+        SongCursor untitled = new SongCursor(SongServiceImpl.SORT_BY_TITLE, ID, null);
+        SongCursor empty = new SongCursor(SongServiceImpl.SORT_BY_TITLE, ID, "");
+        assertTrue(untitled.compareTo(empty) < 0);
+        assertTrue(empty.compareTo(untitled) > 0);
+    }
+
+    private static SongCursor roundTrip(String title) {
+        Song song = Song.builder().id(ID).title(title).build();
+        String cursor = SongCursor.of(song, SongServiceImpl.SORT_BY_TITLE).encode();
+        return SongCursor.decode(cursor, SongServiceImpl.SORT_BY_TITLE);
+    }
+}
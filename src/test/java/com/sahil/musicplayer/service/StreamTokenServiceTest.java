@@ -0,0 +1,36 @@
+package com.sahil.musicplayer.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StreamTokenServiceTest {
+
+    private final StreamTokenService tokens = new StreamTokenService("secret", 3600);
+
+    @Test
+    void acceptsItsOwnGrantForTheSameSongOnly() {
+        StreamTokenService.Grant grant = tokens.issue("song-1");
+
+        assertTrue(tokens.verify("song-1", grant.expires(), grant.token()));
+        assertFalse(tokens.verify("song-2", grant.expires(), grant.token()));
+        assertFalse(tokens.verify("song-1", grant.expires() + 1, grant.token()));
+        assertFalse(new StreamTokenService("other", 3600).verify("song-1", grant.expires(), grant.token()));
+        assertFalse(tokens.verify("song-1", null, grant.token()));
+        assertFalse(tokens.verify("song-1", grant.expires(), null));
+    }
+
+    @Test
+    void rejectsExpiredGrantsAndSharesUrlsWithinAWindow() {
+        long past = Instant.now().getEpochSecond() - 1;
+
+        assertFalse(tokens.verify("song-1", past, tokens.issue("song-1").token()));
+        assertEquals(tokens.issue("song-1"), tokens.issue("song-1"));
+        long remaining = tokens.issue("song-1").expires() - Instant.now().getEpochSecond();
+        assertTrue(remaining > 3600 - 5 && remaining <= 7200, "remaining " + remaining);
+    }
+}